@@ -25,7 +25,6 @@ package com.camara;
 
 import lombok.Generated;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -39,7 +38,6 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableAsync
 @EnableFeignClients
 @EnableMongoRepositories
-@EnableSchedulerLock(defaultLockAtMostFor = "1m")
 @EnableScheduling
 @Generated
 @ServletComponentScan
@@ -30,7 +30,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 /**
  * This class contains utility functions.
@@ -58,10 +58,10 @@ public final class Util {
   /**
    * Extracts the {@link ProblemDetails} from the response.
    *
-   * @param error the {@link HttpStatusCodeException}
+   * @param error the {@link WebClientResponseException}
    * @return the extracted value for {@link ProblemDetails}
    */
-  public static ProblemDetails extractProblemDetails(HttpStatusCodeException error) {
+  public static ProblemDetails extractProblemDetails(WebClientResponseException error) {
     try {
       String responseBodyAsString = error.getResponseBodyAsString();
       return new ObjectMapper().readValue(responseBodyAsString, ProblemDetails.class);
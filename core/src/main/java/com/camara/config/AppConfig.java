@@ -24,25 +24,62 @@
 package com.camara.config;
 
 import com.camara.network.api.ApiClient;
+import com.camara.network.api.AsSessionWithQoSApiSubscriptionLevelDeleteOperationApi;
+import com.camara.network.api.AsSessionWithQoSApiSubscriptionLevelPostOperationApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import java.net.InetSocketAddress;
-import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.HttpComponentsClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
 
 /**
  * This class contains general configurations for the application.
  */
+@Slf4j
 @Configuration
 @ConditionalOnProperty(prefix = "network", name = "server.mock.enabled", havingValue = "false", matchIfMissing = true)
 public class AppConfig {
 
   private static final String BASE_URL_TEMPLATE = "%s/3gpp-as-session-with-qos/v1";
+  private static final String NETWORK_POOL_NAME = "network";
+  private static final String TOKEN_POOL_NAME = "network-token";
 
   @Value("${app.proxy.enabled}")
   private boolean isProxyEnabled;
@@ -53,17 +90,118 @@ public class AppConfig {
   @Value("${app.proxy.port}")
   private int proxyPort;
 
+  /**
+   * Creates the connection pool for the NEF/SCEF and exposes its usage as metrics.
+   *
+   * @param networkConfig the {@link NetworkConfig}
+   * @param meterRegistry the {@link MeterRegistry}
+   * @return {@link PoolingAsyncClientConnectionManager}
+   */
   @Bean
-  public RestTemplate restTemplate() {
-    RestTemplate restTemplate = new RestTemplate();
-    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+  public PoolingAsyncClientConnectionManager networkConnectionManager(NetworkConfig networkConfig, MeterRegistry meterRegistry) {
+    PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(networkConfig.getHttpMaxConnections())
+        .setMaxConnPerRoute(networkConfig.getHttpMaxConnectionsPerRoute())
+        .setDefaultConnectionConfig(createConnectionConfig(networkConfig))
+        .setDefaultTlsConfig(TlsConfig.custom()
+            .setVersionPolicy(networkConfig.isHttp2Enabled() ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+            .build())
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, NETWORK_POOL_NAME).bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  /**
+   * Creates the non-blocking HTTP client for the NEF/SCEF. Requests do not occupy a thread while waiting for the response.
+   *
+   * @param networkConfig     the {@link NetworkConfig}
+   * @param connectionManager the connection pool for the NEF/SCEF
+   * @return {@link CloseableHttpAsyncClient}
+   */
+  @Bean(destroyMethod = "close")
+  public CloseableHttpAsyncClient networkHttpClient(NetworkConfig networkConfig,
+      PoolingAsyncClientConnectionManager connectionManager) {
+    HttpAsyncClientBuilder httpClientBuilder = HttpAsyncClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(networkConfig.getHttpConnectTimeoutInMillis()))
+            .setResponseTimeout(Timeout.ofMilliseconds(networkConfig.getHttpReadTimeoutInMillis()))
+            .build())
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofMilliseconds(networkConfig.getHttpIdleTimeoutInMillis()));
     if (isProxyEnabled) {
-      requestFactory.setProxy(new Proxy(Proxy.Type.HTTP,
-          new InetSocketAddress(proxyHost, proxyPort)));
+      httpClientBuilder.setProxy(new HttpHost(proxyHost, proxyPort));
     }
-    BufferingClientHttpRequestFactory bufferedRequestFactory = new BufferingClientHttpRequestFactory(requestFactory);
-    restTemplate.setRequestFactory(bufferedRequestFactory);
-    return restTemplate;
+    return httpClientBuilder.build();
+  }
+
+  /**
+   * Creates the connection pool for the token endpoint and exposes its usage as metrics.
+   *
+   * @param networkConfig the {@link NetworkConfig}
+   * @param meterRegistry the {@link MeterRegistry}
+   * @return {@link PoolingHttpClientConnectionManager}
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "network.http", name = "http2-enabled", havingValue = "false", matchIfMissing = true)
+  public PoolingHttpClientConnectionManager tokenConnectionManager(NetworkConfig networkConfig, MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(networkConfig.getHttpMaxConnections())
+        .setMaxConnPerRoute(networkConfig.getHttpMaxConnectionsPerRoute())
+        .setDefaultConnectionConfig(createConnectionConfig(networkConfig))
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, TOKEN_POOL_NAME).bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  /**
+   * Creates the {@link RestTemplate} for the token endpoint. Connections are pooled and kept alive, unless HTTP/2 is enabled, which
+   * multiplexes the requests on the connections of the JDK HTTP client instead.
+   *
+   * @param networkConfig     the {@link NetworkConfig}
+   * @param connectionManager the connection pool, if HTTP/2 is not enabled
+   * @return {@link RestTemplate}
+   */
+  @Bean
+  public RestTemplate restTemplate(NetworkConfig networkConfig, ObjectProvider<PoolingHttpClientConnectionManager> connectionManager) {
+    ClientHttpRequestFactory requestFactory = networkConfig.isHttp2Enabled()
+        ? createHttp2RequestFactory(networkConfig)
+        : createPooledRequestFactory(networkConfig, connectionManager.getObject());
+    return new RestTemplate(requestFactory);
+  }
+
+  private static ConnectionConfig createConnectionConfig(NetworkConfig networkConfig) {
+    return ConnectionConfig.custom()
+        .setConnectTimeout(Timeout.ofMilliseconds(networkConfig.getHttpConnectTimeoutInMillis()))
+        .setSocketTimeout(Timeout.ofMilliseconds(networkConfig.getHttpReadTimeoutInMillis()))
+        .build();
+  }
+
+  private ClientHttpRequestFactory createPooledRequestFactory(NetworkConfig networkConfig,
+      PoolingHttpClientConnectionManager connectionManager) {
+    HttpClientBuilder httpClientBuilder = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofMilliseconds(networkConfig.getHttpIdleTimeoutInMillis()));
+    if (isProxyEnabled) {
+      httpClientBuilder.setProxy(new HttpHost(proxyHost, proxyPort));
+    }
+    HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClientBuilder.build());
+    requestFactory.setConnectionRequestTimeout(Duration.ofMillis(networkConfig.getHttpConnectTimeoutInMillis()));
+    requestFactory.setReadTimeout(Duration.ofMillis(networkConfig.getHttpReadTimeoutInMillis()));
+    return requestFactory;
+  }
+
+  private ClientHttpRequestFactory createHttp2RequestFactory(NetworkConfig networkConfig) {
+    HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(networkConfig.getHttpConnectTimeoutInMillis()));
+    if (isProxyEnabled) {
+      httpClientBuilder.proxy(ProxySelector.of(new InetSocketAddress(proxyHost, proxyPort)));
+    }
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClientBuilder.build());
+    requestFactory.setReadTimeout(Duration.ofMillis(networkConfig.getHttpReadTimeoutInMillis()));
+    return requestFactory;
   }
 
   /**
@@ -72,21 +210,63 @@ public class AppConfig {
    * @return the created client.
    */
   @Bean
-  public ApiClient apiClient(NetworkConfig networkConfig) {
+  public ApiClient apiClient(NetworkConfig networkConfig, CloseableHttpAsyncClient httpClient) {
+    WebClient.Builder webClientBuilder = ApiClient.buildWebClientBuilder(ApiClient.createDefaultObjectMapper(null))
+        .clientConnector(new HttpComponentsClientHttpConnector(httpClient));
+    if (Boolean.TRUE.equals(networkConfig.getNetworkDebug())) {
+      webClientBuilder.filter(logNetworkExchange());
+    }
     ApiClient apiClient =
-        new ApiClient(restTemplate()).setBasePath(String.format(BASE_URL_TEMPLATE, networkConfig.getApiRoot()));
+        new ApiClient(webClientBuilder.build()).setBasePath(String.format(BASE_URL_TEMPLATE, networkConfig.getApiRoot()));
     if (networkConfig.getAuthMethod().equals("basic")) {
       apiClient.setUsername(networkConfig.getUserName());
       apiClient.setPassword(networkConfig.getPassword());
     } else {
       apiClient.setAccessToken(networkConfig.getToken());
     }
-    apiClient.setDebugging(networkConfig.getNetworkDebug());
     return apiClient;
   }
 
+  @Bean
+  public AsSessionWithQoSApiSubscriptionLevelPostOperationApi postApi(ApiClient apiClient) {
+    return new AsSessionWithQoSApiSubscriptionLevelPostOperationApi(apiClient);
+  }
+
+  @Bean
+  public AsSessionWithQoSApiSubscriptionLevelDeleteOperationApi deleteApi(ApiClient apiClient) {
+    return new AsSessionWithQoSApiSubscriptionLevelDeleteOperationApi(apiClient);
+  }
+
+  private static ExchangeFilterFunction logNetworkExchange() {
+    return (request, next) -> {
+      log.info("NEF/SCEF request: {} {}", request.method(), request.url());
+      return next.exchange(request)
+          .doOnNext(response -> log.info("NEF/SCEF response: {} for {} {}", response.statusCode(), request.method(), request.url()));
+    };
+  }
+
   @Bean
   public MongoMappingContext mongoMappingContext() {
     return new MongoMappingContext();
   }
+
+  /**
+   * Session timestamps stored as ISO-8601 strings by previous versions stay readable, until they are converted into dates by the
+   * {@link com.camara.service.SessionTimestampMigration}.
+   *
+   * @return the {@link MongoCustomConversions}
+   */
+  @Bean
+  public MongoCustomConversions mongoCustomConversions() {
+    return new MongoCustomConversions(List.of(new LegacyTimestampReadingConverter()));
+  }
+
+  @ReadingConverter
+  static class LegacyTimestampReadingConverter implements Converter<String, Instant> {
+
+    @Override
+    public Instant convert(String source) {
+      return OffsetDateTime.parse(source).toInstant();
+    }
+  }
 }
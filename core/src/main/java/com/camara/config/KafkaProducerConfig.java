@@ -23,38 +23,70 @@
 
 package com.camara.config;
 
-import io.cloudevents.CloudEvent;
-import io.cloudevents.kafka.CloudEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
+/**
+ * Producer for the events, which are sent via Kafka. The events are already encoded in the structured JSON format and sent as
+ * bytes. Batching, compression, idempotence and acknowledgements are configured with the corresponding
+ * {@code spring.kafka.producer} properties.
+ */
 @Configuration
 public class KafkaProducerConfig {
 
   @Value(value = "${spring.kafka.producer.bootstrap-servers}")
   private String bootstrapAddress;
 
+  @Value("${spring.kafka.producer.acks:all}")
+  private String acks;
+
+  @Value("${spring.kafka.producer.batch-size:65536}")
+  private int batchSize;
+
+  @Value("${spring.kafka.producer.compression-type:lz4}")
+  private String compressionType;
+
+  @Value("${spring.kafka.producer.properties.linger.ms:10}")
+  private int lingerMs;
+
+  @Value("${spring.kafka.producer.properties.enable.idempotence:true}")
+  private boolean idempotenceEnabled;
 
+  /**
+   * Creates the producer factory, the metrics of the Kafka producers are bound to the {@link MeterRegistry}.
+   *
+   * @param meterRegistry the {@link MeterRegistry}
+   * @return {@link ProducerFactory}
+   */
   @Bean
-  public ProducerFactory<String, CloudEvent> producerFactory() {
+  public ProducerFactory<String, byte[]> producerFactory(MeterRegistry meterRegistry) {
     Map<String, Object> configProps = new HashMap<>();
-    // Other config props
     configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
     configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, CloudEventSerializer.class);
-    return new DefaultKafkaProducerFactory<>(configProps);
+    configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+    configProps.put(ProducerConfig.ACKS_CONFIG, acks);
+    configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+    configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+    configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotenceEnabled);
+    DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(configProps);
+    producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+    return producerFactory;
   }
 
   @Bean
-  public KafkaTemplate<String, CloudEvent> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+  public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+    return new KafkaTemplate<>(producerFactory);
   }
 }
@@ -80,9 +80,36 @@ public class NetworkConfig {
   @Value("${network.auth.oauth2.client-secret}")
   private String clientSecret;
 
+  @Value("${network.auth.oauth2.refresh-margin:60}")
+  private long tokenRefreshMarginInSeconds;
+
   @Value("${network.debug}")
   private Boolean networkDebug;
 
+  @Value("${network.http.max-connections:50}")
+  private int httpMaxConnections;
+
+  @Value("${network.http.max-connections-per-route:20}")
+  private int httpMaxConnectionsPerRoute;
+
+  @Value("${network.http.connect-timeout:5000}")
+  private long httpConnectTimeoutInMillis;
+
+  @Value("${network.http.read-timeout:30000}")
+  private long httpReadTimeoutInMillis;
+
+  @Value("${network.http.idle-timeout:60000}")
+  private long httpIdleTimeoutInMillis;
+
+  @Value("${network.http.http2-enabled:false}")
+  private boolean http2Enabled;
+
+  @Value("${network.http.max-concurrent-requests:100}")
+  private int httpMaxConcurrentRequests;
+
+  @Value("${network.http.max-queued-requests:1000}")
+  private int httpMaxQueuedRequests;
+
   @Value("${network.server.supportedFeatures}")
   private String supportedFeatures;
 
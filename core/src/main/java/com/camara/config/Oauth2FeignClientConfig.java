@@ -28,12 +28,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.openfeign.security.OAuth2AccessTokenInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProvider;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
-import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizedClientManager;
-import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
 
 @Configuration
 @RequiredArgsConstructor
@@ -47,11 +47,19 @@ public class Oauth2FeignClientConfig {
     return new OAuth2AccessTokenInterceptor(REGISTRATION_ID, oauth2AuthorizedClientManager);
   }
 
+  /**
+   * Creates the client manager for the eventhub. The authorized client is kept in the {@link OAuth2AuthorizedClientService}, so
+   * that the token is reused across requests until it expires, also outside of incoming HTTP requests.
+   *
+   * @param clientRegistrationRepository the {@link ClientRegistrationRepository}
+   * @param authorizedClientService      the {@link OAuth2AuthorizedClientService}
+   * @return {@link OAuth2AuthorizedClientManager}
+   */
   @Bean
   public OAuth2AuthorizedClientManager authorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
-      OAuth2AuthorizedClientRepository authorizedClientRepository) {
-    DefaultOAuth2AuthorizedClientManager manager = new DefaultOAuth2AuthorizedClientManager(clientRegistrationRepository,
-        authorizedClientRepository);
+      OAuth2AuthorizedClientService authorizedClientService) {
+    AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+        clientRegistrationRepository, authorizedClientService);
     OAuth2AuthorizedClientProvider authorizedClientProvider = OAuth2AuthorizedClientProviderBuilder.builder().clientCredentials().build();
     manager.setAuthorizedClientProvider(authorizedClientProvider);
     return manager;
@@ -23,6 +23,7 @@
 
 package com.camara.config;
 
+import com.camara.model.EventOverflowPolicy;
 import java.util.List;
 import java.util.regex.Pattern;
 import lombok.Getter;
@@ -60,8 +61,56 @@ public class QodConfig {
   private int qosExpirationTimeBeforeHandling;
   @Value("${qod.expiration.trigger-interval}")
   private int qosExpirationTriggerInterval;
-  @Value("${qod.expiration.lock-time}")
-  private int qosExpirationLockTimeInSeconds;
+  @Value("${qod.expiration.lease-time}")
+  private int qosExpirationLeaseTimeInSeconds;
+  @Value("${qod.expiration.partitions}")
+  private int qosExpirationPartitions;
+  @Value("${qod.expiration.scheduler.tick-millis}")
+  private long qosExpirationSchedulerTickMillis;
+  @Value("${qod.expiration.scheduler.wheel-size}")
+  private int qosExpirationSchedulerWheelSize;
+  @Value("${qod.expiration.scheduler.workers}")
+  private int qosExpirationSchedulerWorkers;
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreadsEnabled;
+  @Value("${qod.virtual-threads.pinned-threshold-millis:20}")
+  private long virtualThreadsPinnedThresholdMillis;
+  @Value("${qod.eventhub.dispatch.queue-capacity}")
+  private int eventDispatchQueueCapacity;
+  @Value("${qod.eventhub.dispatch.workers}")
+  private int eventDispatchWorkers;
+  @Value("${qod.eventhub.dispatch.overflow-policy}")
+  private EventOverflowPolicy eventDispatchOverflowPolicy;
+  @Value("${qod.eventhub.horizon-batch.max-size}")
+  private int horizonBatchMaxSize;
+  @Value("${qod.eventhub.horizon-batch.window}")
+  private long horizonBatchWindowInMillis;
+  @Value("${qod.eventhub.outbox.poll-interval}")
+  private long eventOutboxPollIntervalInMillis;
+  @Value("${qod.eventhub.outbox.batch-size}")
+  private int eventOutboxBatchSize;
+  @Value("${qod.eventhub.outbox.retry-backoff}")
+  private long eventOutboxRetryBackoffInSeconds;
+  @Value("${qod.eventhub.outbox.max-retry-backoff}")
+  private long eventOutboxMaxRetryBackoffInSeconds;
+  @Value("${qod.eventhub.outbox.max-attempts}")
+  private int eventOutboxMaxAttempts;
+  @Value("${qod.migration.session-timestamps.batch-size}")
+  private int sessionTimestampMigrationBatchSize;
+  @Value("${qod.migration.session-timestamps.batch-interval}")
+  private long sessionTimestampMigrationBatchIntervalInMillis;
+  @Value("${qod.migration.session-timestamps.recheck-interval}")
+  private long sessionTimestampMigrationRecheckIntervalInSeconds;
+  @Value("${qod.sessions.bulk.parallelism}")
+  private int bulkSessionParallelism;
+  @Value("${qod.sessions.bulk.delete-batch-size}")
+  private int bulkSessionDeletionBatchSize;
+  @Value("${qod.sessions.idempotency.enabled}")
+  private boolean idempotencyEnabled;
+  @Value("${qod.sessions.idempotency.window}")
+  private long idempotencyWindowInSeconds;
+  @Value("${qod.sessions.idempotency.max-size}")
+  private long idempotencyMaxSize;
   @Value("${qod.expiration.default}")
   private long defaultExpirationTimeInSeconds;
   @Value("${qod.mask-sensible-data}")
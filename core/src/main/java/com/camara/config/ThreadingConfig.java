@@ -0,0 +1,74 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.config;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * This class contains the thread configuration beside the executors configured by Spring Boot. With
+ * {@code spring.threads.virtual.enabled}, Spring Boot runs request handling, {@code @Async} and {@code @Scheduled} methods on virtual
+ * threads, the threads created here follow the same setting.
+ */
+@Configuration
+public class ThreadingConfig {
+
+  /**
+   * The scheduler created on virtual threads, which is disposed with this configuration. The shared
+   * {@link Schedulers#boundedElastic()} is managed by Reactor and must not be disposed.
+   */
+  private Scheduler virtualThreadScheduler;
+
+  /**
+   * Creates the scheduler, on which responses of the NEF/SCEF are processed. Processing a response blocks on the database, so it
+   * must not run on the I/O threads of the HTTP client.
+   *
+   * @param qodConfig the {@link QodConfig}
+   * @return {@link Scheduler}
+   */
+  @Bean
+  public Scheduler networkResponseScheduler(QodConfig qodConfig) {
+    if (qodConfig.isVirtualThreadsEnabled()) {
+      virtualThreadScheduler = Schedulers.fromExecutorService(
+          Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("network-response-", 0).factory()), "network-response");
+      return virtualThreadScheduler;
+    }
+    return Schedulers.boundedElastic();
+  }
+
+  /**
+   * Disposes the scheduler created on virtual threads. Spring does not infer {@code dispose()} as destroy method, the beans using
+   * the scheduler are destroyed before this configuration.
+   */
+  @PreDestroy
+  void disposeSchedulers() {
+    if (virtualThreadScheduler != null) {
+      virtualThreadScheduler.dispose();
+    }
+  }
+}
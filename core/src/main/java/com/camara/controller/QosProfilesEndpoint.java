@@ -0,0 +1,68 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.controller;
+
+import com.camara.model.QosProfileCatalog;
+import com.camara.service.QosProfileService;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint to inspect the published QoS profile catalog and to reload the QoS profiles, e.g. via
+ * {@code POST /actuator/qosprofiles} on the management port. The management port must not be reachable from outside.
+ */
+@Component
+@Endpoint(id = "qosprofiles")
+@RequiredArgsConstructor
+@Slf4j
+public class QosProfilesEndpoint {
+
+  private final QosProfileService qosProfileService;
+
+  @ReadOperation
+  public Map<String, Object> catalog() {
+    return describe(qosProfileService.getCatalog());
+  }
+
+  /**
+   * Reloads the QoS profiles from their data-set and publishes the new catalog.
+   *
+   * @return version and size of the published catalog
+   */
+  @WriteOperation
+  public Map<String, Object> reload() {
+    log.info("Reload of the QoS profiles triggered");
+    return describe(qosProfileService.reloadQosProfiles());
+  }
+
+  private static Map<String, Object> describe(QosProfileCatalog qosProfileCatalog) {
+    return Map.of(
+        "version", qosProfileCatalog.getVersion(),
+        "profiles", qosProfileCatalog.size());
+  }
+}
@@ -25,20 +25,26 @@ package com.camara.controller;
 
 import com.camara.quality_on_demand.api.QoSSessionsApiDelegate;
 import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.CreateSessionResult;
+import com.camara.quality_on_demand.api.model.CreateSessionsInput;
+import com.camara.quality_on_demand.api.model.DeleteSessionsInput;
+import com.camara.quality_on_demand.api.model.DeleteSessionsOutput;
 import com.camara.quality_on_demand.api.model.ExtendSessionDuration;
 import com.camara.quality_on_demand.api.model.RetrieveSessionsInput;
 import com.camara.quality_on_demand.api.model.SessionInfo;
-import com.camara.quality_on_demand.api.model.StatusInfo;
+import com.camara.service.IdempotencyCache;
 import com.camara.service.SessionService;
 import com.camara.service.ValidationService;
 import java.net.URI;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 
 /**
@@ -48,28 +54,52 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @RequiredArgsConstructor
 public class SessionsController implements QoSSessionsApiDelegate {
 
+  private final IdempotencyCache idempotencyCache;
   private final SessionService sessionService;
   private final ValidationService validationService;
 
   /**
-   * POST /sessions: Creates a new QoS session on demand.
+   * POST /sessions: Creates a new QoS session on demand. Retries with the same idempotency key are answered with the response of the
+   * first request.
    *
-   * @param createSession Creates a new session (required)
-   * @param correlationId   Correlation id for the different services
+   * @param createSession  Creates a new session (required)
+   * @param correlationId  Correlation id for the different services
+   * @param idempotencyKey Key chosen by the client to identify retries of the same request
    * @return Session created (status code 201) or Invalid input (status code 400) or Unauthorized (status code 401) or Forbidden (status
-   *     code 403) or Conflict (status code 409) or Server error (status code 500) or Service unavailable (status code 503)
+   *     code 403) or Conflict (status code 409) or Key reused for a different request (status code 422) or Server error (status code
+   *     500) or Service unavailable (status code 503)
    */
   @Override
-  public ResponseEntity<SessionInfo> createSession(CreateSession createSession, String correlationId) {
+  public CompletableFuture<ResponseEntity<SessionInfo>> createSession(CreateSession createSession, String correlationId,
+      String idempotencyKey) {
     boolean showDeviceInResponse = createSession.getDevice() != null;
-    validationService.validate(createSession);
-    SessionInfo sessionInfo = sessionService.createSession(createSession, showDeviceInResponse);
+    /* The current request is only accessible on the request thread */
+    UriComponentsBuilder locationBuilder = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
 
-    URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-        .path("/{id}")
-        .buildAndExpand(sessionInfo.getSessionId())
-        .toUri();
-    return ResponseEntity.created(location).body(sessionInfo);
+    return idempotencyCache.createOnce(idempotencyKey, createSession, () -> {
+          validationService.validate(createSession);
+          return sessionService.createSession(createSession, showDeviceInResponse);
+        })
+        .thenApply(sessionInfo -> {
+          URI location = locationBuilder.buildAndExpand(sessionInfo.getSessionId()).toUri();
+          return ResponseEntity.created(location).body(sessionInfo);
+        });
+  }
+
+  /**
+   * POST /create-sessions: Creates several QoS sessions on demand.
+   *
+   * @param createSessionsInput Parameters to create several new sessions (required)
+   * @param correlationId       Correlation id for the different services
+   * @return Result of every requested session, in the order of the request (status code 200) or Invalid input (status code 400) or
+   *     Unauthorized (status code 401) or Forbidden (status code 403) or Server error (status code 500) or Service unavailable (status
+   *     code 503)
+   */
+  @Override
+  public CompletableFuture<ResponseEntity<List<CreateSessionResult>>> createSessions(CreateSessionsInput createSessionsInput,
+      String correlationId) {
+    return sessionService.createSessions(createSessionsInput.getSessions())
+        .thenApply(results -> ResponseEntity.status(HttpStatus.OK).body(results));
   }
 
   /**
@@ -81,11 +111,27 @@ public class SessionsController implements QoSSessionsApiDelegate {
    *     code 404) or Service unavailable (status code 503)
    */
   @Override
-  public ResponseEntity<Void> deleteSession(UUID sessionId, String correlationId) {
-    //Check if a session exists for this sessionId and the caller. It will fail otherwise.
-    sessionService.getSessionInfoById(sessionId);
-    sessionService.deleteAndNotify(sessionId.toString(), StatusInfo.DELETE_REQUESTED);
-    return ResponseEntity.noContent().build();
+  public CompletableFuture<ResponseEntity<Void>> deleteSession(UUID sessionId, String correlationId) {
+    return sessionService.deleteSessionForClient(sessionId)
+        .thenApply(deleted -> ResponseEntity.noContent().build());
+  }
+
+  /**
+   * POST /delete-sessions: Free resources related to several QoS sessions.
+   *
+   * @param deleteSessionsInput Criteria of the sessions to be deleted (required)
+   * @param correlationId       Correlation id for the different services
+   * @return Sessions deleted (status code 200) or Invalid input (status code 400) or Unauthorized (status code 401) or Forbidden (status
+   *     code 403) or Service unavailable (status code 503)
+   */
+  @Override
+  public CompletableFuture<ResponseEntity<DeleteSessionsOutput>> deleteSessions(DeleteSessionsInput deleteSessionsInput,
+      String correlationId) {
+    validationService.validate(deleteSessionsInput);
+    return sessionService.deleteSessionsForClient(deleteSessionsInput.getDeviceIpv4Network(),
+            deleteSessionsInput.getApplicationServerIpv4Network())
+        .thenApply(deletedSessions -> ResponseEntity.status(HttpStatus.OK)
+            .body(new DeleteSessionsOutput().deletedSessions(deletedSessions)));
   }
 
   /**
@@ -98,10 +144,10 @@ public class SessionsController implements QoSSessionsApiDelegate {
    *     Session not found (status code 404) or Service unavailable (status code 503)
    */
   @Override
-  public ResponseEntity<SessionInfo> extendQosSessionDuration(UUID sessionId, ExtendSessionDuration extendSessionDuration,
-      String correlationId) {
+  public CompletableFuture<ResponseEntity<SessionInfo>> extendQosSessionDuration(UUID sessionId,
+      ExtendSessionDuration extendSessionDuration, String correlationId) {
     SessionInfo sessionInfo = sessionService.extendQosSession(sessionId, extendSessionDuration.getRequestedAdditionalDuration());
-    return ResponseEntity.status(HttpStatus.OK).body(sessionInfo);
+    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.OK).body(sessionInfo));
   }
 
   /**
@@ -113,10 +159,11 @@ public class SessionsController implements QoSSessionsApiDelegate {
    *     array is returned if no sessions are found.
    */
   @Override
-  public ResponseEntity<List<SessionInfo>> retrieveSessionsByDevice(RetrieveSessionsInput retrieveSessionsInput, String correlationId) {
+  public CompletableFuture<ResponseEntity<List<SessionInfo>>> retrieveSessionsByDevice(RetrieveSessionsInput retrieveSessionsInput,
+      String correlationId) {
     validationService.validate(retrieveSessionsInput);
     var sessionInfoList = sessionService.getSessionsByDevice(retrieveSessionsInput.getDevice());
-    return ResponseEntity.status(HttpStatus.OK).body(sessionInfoList);
+    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.OK).body(sessionInfoList));
   }
 
   /**
@@ -127,8 +174,8 @@ public class SessionsController implements QoSSessionsApiDelegate {
    *     Session not found (status code 404) or Service unavailable (status code 503)
    */
   @Override
-  public ResponseEntity<SessionInfo> getSession(UUID sessionId, String correlationId) {
+  public CompletableFuture<ResponseEntity<SessionInfo>> getSession(UUID sessionId, String correlationId) {
     SessionInfo sessionInfo = sessionService.getSessionInfoById(sessionId);
-    return ResponseEntity.status(HttpStatus.OK).body(sessionInfo);
+    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.OK).body(sessionInfo));
   }
 }
@@ -0,0 +1,73 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Event in the outbox, which is stored together with the change of the QoS session and relayed to the eventhub afterwards. It is
+ * removed, as soon as it is delivered.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@ToString
+@Document("pending_events")
+@CompoundIndex(name = "partition_next_attempt_at", def = "{'partition': 1, 'nextAttemptAt': 1, 'createdAt': 1}")
+public class PendingEvent {
+
+  @Id
+  private String id;
+
+  @Indexed
+  private String sessionId;
+
+  /**
+   * The partition of the session, only the owner of the partition relays the event.
+   */
+  private int partition;
+
+  /**
+   * The {@link com.camara.quality_on_demand.api.model.SessionInfo} of the event as JSON.
+   */
+  @ToString.Exclude
+  private String payload;
+
+  private Instant createdAt;
+
+  private int attempts;
+
+  private Instant nextAttemptAt;
+}
@@ -29,6 +29,7 @@ import com.camara.quality_on_demand.api.model.PortsSpec;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.SinkCredential;
 import com.camara.quality_on_demand.api.model.StatusInfo;
+import java.time.Instant;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Builder.Default;
@@ -38,6 +39,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -52,6 +54,10 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Setter
 @ToString
 @Document("qos_sessions")
+@CompoundIndex(name = "device_application_server_range",
+    def = "{'deviceIpv4addr': 1, 'conflictKey.applicationServerFrom': 1, 'conflictKey.applicationServerTo': 1}")
+@CompoundIndex(name = "partition_expires_at", def = "{'partition': 1, 'expiresAt': 1}")
+@CompoundIndex(name = "device_client_id", def = "{'deviceIpv4addr': 1, 'clientId': 1}")
 public class QosSession {
 
   @Id
@@ -63,16 +69,23 @@ public class QosSession {
   @Indexed(unique = true)
   private String sessionId;
 
-  @Indexed
   private String deviceIpv4addr;
 
   @Indexed
   private String subscriptionId;
 
-  private String startedAt;
+  private Integer partition;
+
+  /**
+   * Incremented by every state transition, see {@link com.camara.repository.QosSessionRepositoryCustom}. Transitions depending on
+   * previously read values only apply, if the version is unchanged.
+   */
+  private long version;
+
+  private Instant startedAt;
 
   @Indexed
-  private String expiresAt;
+  private Instant expiresAt;
 
   private int duration;
 
@@ -84,6 +97,8 @@ public class QosSession {
 
   private PortsSpec applicationServerPorts;
 
+  private SessionConflictKey conflictKey;
+
   private String qosProfile;
 
   private String sink;
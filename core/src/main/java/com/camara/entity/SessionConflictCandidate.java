@@ -0,0 +1,58 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.entity;
+
+import com.camara.quality_on_demand.api.model.ApplicationServer;
+import com.camara.quality_on_demand.api.model.PortsSpec;
+import java.time.Instant;
+
+/**
+ * Read projection of a {@link QosSession} for the conflict check. Only the fields needed to compare the requested session with
+ * an existing one of the same device are read.
+ *
+ * @param sessionId              the session ID
+ * @param deviceIpv4addr         the public IPv4 address of the device
+ * @param expiresAt              the expiration timestamp
+ * @param conflictKey            the {@link SessionConflictKey}, {@code null} for sessions stored before the key was introduced
+ * @param applicationServer      the application server, to derive the key of sessions stored before the key was introduced
+ * @param devicePorts            the device ports, to derive the key of sessions stored before the key was introduced
+ * @param applicationServerPorts the application server ports, to derive the key of sessions stored before the key was introduced
+ */
+public record SessionConflictCandidate(String sessionId, String deviceIpv4addr, Instant expiresAt, SessionConflictKey conflictKey,
+                                       ApplicationServer applicationServer, PortsSpec devicePorts, PortsSpec applicationServerPorts) {
+
+  /**
+   * Returns the stored {@link SessionConflictKey} or derives it like {@link SessionConflictKey#of(QosSession)} for sessions stored
+   * before the key was introduced.
+   *
+   * @return the {@link SessionConflictKey}, {@code null} if the session has no IPv4 application server
+   */
+  public SessionConflictKey resolveConflictKey() {
+    if (conflictKey != null) {
+      return conflictKey;
+    }
+    String applicationServerIpv4 = applicationServer == null ? null : applicationServer.getIpv4Address();
+    return SessionConflictKey.of(applicationServerIpv4, devicePorts, applicationServerPorts);
+  }
+}
@@ -0,0 +1,151 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.entity;
+
+import com.camara.quality_on_demand.api.model.PortsSpec;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.ipv4.IPv4Address;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Normalized form of the attributes which decide whether two QoS sessions of the same device are in conflict.
+ *
+ * <p>The application server network is stored as a numeric address range and the ports as sorted, merged intervals
+ * ({@code [from0, to0, from1, to1, ...]}), so that candidates can be looked up by index and compared without parsing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionConflictKey {
+
+  private static final int MIN_PORT = 0;
+  private static final int MAX_PORT = 65535;
+
+  private long applicationServerFrom;
+
+  private long applicationServerTo;
+
+  private int[] devicePortRanges;
+
+  private int[] applicationServerPortRanges;
+
+  /**
+   * Creates the conflict key for the given session attributes.
+   *
+   * @param applicationServerIpv4  single IPv4 address or network of the application server
+   * @param devicePorts            the device ports, all ports if not defined
+   * @param applicationServerPorts the application server ports, all ports if not defined
+   * @return the {@link SessionConflictKey}, or {@code null} if the application server is not a valid IPv4 address or network
+   */
+  public static SessionConflictKey of(String applicationServerIpv4, PortsSpec devicePorts, PortsSpec applicationServerPorts) {
+    IPAddress address = applicationServerIpv4 == null ? null : new IPAddressString(applicationServerIpv4).getAddress();
+    if (address == null || !address.isIPv4()) {
+      return null;
+    }
+    IPv4Address ipv4Address = address.toIPv4();
+    return SessionConflictKey.builder()
+        .applicationServerFrom(ipv4Address.getLower().longValue())
+        .applicationServerTo(ipv4Address.getUpper().longValue())
+        .devicePortRanges(toPortRanges(devicePorts))
+        .applicationServerPortRanges(toPortRanges(applicationServerPorts))
+        .build();
+  }
+
+  /**
+   * Creates the conflict key for an existing session.
+   *
+   * @param qosSession the {@link QosSession}
+   * @return the {@link SessionConflictKey}, or {@code null} if the application server is not a valid IPv4 address or network
+   */
+  public static SessionConflictKey of(QosSession qosSession) {
+    String applicationServerIpv4 = qosSession.getApplicationServer() == null ? null : qosSession.getApplicationServer().getIpv4Address();
+    return of(applicationServerIpv4, qosSession.getDevicePorts(), qosSession.getApplicationServerPorts());
+  }
+
+  /**
+   * Checks if the application server networks and both the device and the application server ports intersect.
+   *
+   * @param other the key of another session of the same device
+   * @return true, if both sessions would cover the same flows
+   */
+  public boolean conflictsWith(SessionConflictKey other) {
+    return applicationServerFrom <= other.applicationServerTo
+        && other.applicationServerFrom <= applicationServerTo
+        && overlaps(devicePortRanges, other.devicePortRanges)
+        && overlaps(applicationServerPortRanges, other.applicationServerPortRanges);
+  }
+
+  private static boolean overlaps(int[] ranges, int[] otherRanges) {
+    int i = 0;
+    int j = 0;
+    while (i < ranges.length && j < otherRanges.length) {
+      if (ranges[i + 1] < otherRanges[j]) {
+        i += 2;
+      } else if (otherRanges[j + 1] < ranges[i]) {
+        j += 2;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int[] toPortRanges(PortsSpec ports) {
+    if (ports == null || (ports.getPorts() == null && ports.getRanges() == null)) {
+      return new int[]{MIN_PORT, MAX_PORT};
+    }
+    List<int[]> intervals = new ArrayList<>();
+    if (ports.getPorts() != null) {
+      ports.getPorts().forEach(port -> intervals.add(new int[]{port, port}));
+    }
+    if (ports.getRanges() != null) {
+      ports.getRanges().forEach(range -> intervals.add(new int[]{range.getFrom(), range.getTo()}));
+    }
+    intervals.sort(Comparator.comparingInt(interval -> interval[0]));
+
+    List<int[]> merged = new ArrayList<>();
+    for (int[] interval : intervals) {
+      int[] last = merged.isEmpty() ? null : merged.getLast();
+      if (last != null && interval[0] <= last[1] + 1) {
+        last[1] = Math.max(last[1], interval[1]);
+      } else {
+        merged.add(interval);
+      }
+    }
+    int[] flattened = new int[merged.size() * 2];
+    for (int i = 0; i < merged.size(); i++) {
+      flattened[2 * i] = merged.get(i)[0];
+      flattened[2 * i + 1] = merged.get(i)[1];
+    }
+    return flattened;
+  }
+}
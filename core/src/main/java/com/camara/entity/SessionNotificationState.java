@@ -0,0 +1,42 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.entity;
+
+import com.camara.quality_on_demand.api.model.QosStatus;
+
+/**
+ * Read projection of a {@link QosSession} for network notifications. Only the fields needed to decide on the state transition
+ * are read.
+ *
+ * @param sessionId              the session ID
+ * @param duration               the session duration in seconds
+ * @param qosStatus              the current {@link QosStatus}
+ * @param isScheduledForDeletion true, if the session is already scheduled for deletion
+ */
+public record SessionNotificationState(String sessionId, int duration, QosStatus qosStatus, Boolean isScheduledForDeletion) {
+
+  public boolean scheduledForDeletion() {
+    return Boolean.TRUE.equals(isScheduledForDeletion);
+  }
+}
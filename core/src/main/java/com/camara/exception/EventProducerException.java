@@ -44,4 +44,14 @@ public class EventProducerException extends RuntimeException {
   public EventProducerException(String message) {
     super(message);
   }
+
+  /**
+   * An exception, which occurs when an event cannot be produced or send to the kafka-broker, caused by the given error.
+   *
+   * @param message the errormessage
+   * @param cause   the error of the kafka-producer
+   */
+  public EventProducerException(String message, Throwable cause) {
+    super(message, cause);
+  }
 }
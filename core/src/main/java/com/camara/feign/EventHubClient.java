@@ -33,8 +33,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 @FeignClient(name = "horizonClient", url = "${qod.eventhub.url}", configuration = Oauth2FeignClientConfig.class)
 public interface EventHubClient {
 
+  String CLOUD_EVENTS_BATCH_CONTENT_TYPE = "application/cloudevents-batch+json";
+
   @PostMapping(
       value = "/horizon/events/v1",
       consumes = MediaType.APPLICATION_JSON_VALUE)
-  ResponseEntity<Object> sendEvent(@RequestBody String cloudEvent);
+  ResponseEntity<Object> sendEvent(@RequestBody byte[] cloudEvent);
+
+  /**
+   * Sends several events in one request, in the batched content mode of CloudEvents.
+   *
+   * @param cloudEvents JSON array of the events as UTF-8 bytes
+   * @return the response
+   */
+  @PostMapping(
+      value = "/horizon/events/v1",
+      consumes = CLOUD_EVENTS_BATCH_CONTENT_TYPE)
+  ResponseEntity<Object> sendEvents(@RequestBody byte[] cloudEvents);
 }
@@ -23,52 +23,85 @@
 
 package com.camara.kafka;
 
+import com.camara.exception.EventProducerException;
+import com.camara.model.EncodedCloudEvent;
 import com.camara.quality_on_demand.api.model.AccessTokenCredential;
 import com.camara.quality_on_demand.api.model.PlainCredential;
 import com.camara.quality_on_demand.api.model.SinkCredential;
-import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import lombok.Generated;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Sends CloudEvents in the structured content mode to Kafka. The records are keyed by the session-ID, so that the events of a
+ * session keep their order.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class CloudEventProducer {
 
   public static final String AUTH_BEARER = "Bearer";
   public static final String AUTH_BASIC = "Basic";
   public static final String AUTH_HEADER_FORMAT = "%s %s";
-  private final KafkaTemplate<String, CloudEvent> kafkaTemplate;
+  public static final String CONTENT_TYPE_HEADER = "content-type";
+  private final KafkaTemplate<String, byte[]> kafkaTemplate;
+  private final Counter sentEvents;
+  private final Counter failedEvents;
 
   @Value("${kafka.topic.webhook}")
   private String qodTopic;
 
-  @Generated
-  public void sendEvent(CloudEvent cloudEvent) {
-    log.info("Sending Qod CloudEvent: {} by topic: {}", cloudEvent, qodTopic);
-    kafkaTemplate.send(qodTopic, cloudEvent);
+  /**
+   * Creates the producer.
+   *
+   * @param kafkaTemplate the {@link KafkaTemplate}
+   * @param meterRegistry the {@link MeterRegistry} for sent and failed events
+   */
+  public CloudEventProducer(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry) {
+    this.kafkaTemplate = kafkaTemplate;
+    this.sentEvents = Counter.builder("qod.kafka.events.sent")
+        .description("Number of events acknowledged by Kafka")
+        .register(meterRegistry);
+    this.failedEvents = Counter.builder("qod.kafka.events.failed")
+        .description("Number of events, which could not be sent to Kafka")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Sends a CloudEvent.
+   *
+   * @param sessionId    the session-ID, used as record key
+   * @param encodedEvent the encoded cloudEvent
+   * @return completes when the event is acknowledged by Kafka
+   */
+  public CompletableFuture<Void> sendEvent(String sessionId, EncodedCloudEvent encodedEvent) {
+    log.info("Sending QoD CloudEvent <{}> by topic: {}", encodedEvent.getId(), qodTopic);
+    return handleResult(sessionId, kafkaTemplate.send(createMessageBuilder(sessionId, encodedEvent).build()));
   }
 
   /**
-   * Sends a {@link CloudEvent} including an {@link SinkCredential}.
+   * Sends a CloudEvent including an {@link SinkCredential}.
    *
-   * @param cloudEvent     the cloudEvent
+   * @param sessionId      the session-ID, used as record key
+   * @param encodedEvent   the encoded cloudEvent
    * @param sinkCredential the credentials
+   * @return completes when the event is acknowledged by Kafka
    */
-  public void sendEventWithAuthorization(CloudEvent cloudEvent, SinkCredential sinkCredential) {
-    log.info("Sending QoD CloudEvent with authorization: {} by topic: {}", cloudEvent, qodTopic);
+  public CompletableFuture<Void> sendEventWithAuthorization(String sessionId, EncodedCloudEvent encodedEvent,
+      SinkCredential sinkCredential) {
+    log.info("Sending QoD CloudEvent <{}> with authorization by topic: {}", encodedEvent.getId(), qodTopic);
 
-    var messageBuilder = MessageBuilder.withPayload(cloudEvent)
-        .setHeader(KafkaHeaders.TOPIC, qodTopic);
+    var messageBuilder = createMessageBuilder(sessionId, encodedEvent);
 
     switch (sinkCredential) {
       case AccessTokenCredential accessTokenCredential -> messageBuilder.setHeader(HttpHeaders.AUTHORIZATION,
@@ -81,7 +114,26 @@ public class CloudEventProducer {
       default -> log.warn("Unsupported SinkCredential type: {}", sinkCredential.getClass().getSimpleName());
     }
 
-    kafkaTemplate.send(messageBuilder.build());
+    return handleResult(sessionId, kafkaTemplate.send(messageBuilder.build()));
+  }
+
+  private MessageBuilder<byte[]> createMessageBuilder(String sessionId, EncodedCloudEvent encodedEvent) {
+    return MessageBuilder.withPayload(encodedEvent.getJson())
+        .setHeader(KafkaHeaders.TOPIC, qodTopic)
+        .setHeader(KafkaHeaders.KEY, sessionId)
+        .setHeader(CONTENT_TYPE_HEADER, EncodedCloudEvent.CONTENT_TYPE);
+  }
+
+  private CompletableFuture<Void> handleResult(String sessionId, CompletableFuture<SendResult<String, byte[]>> sendResult) {
+    return sendResult.handle((result, error) -> {
+      if (error != null) {
+        failedEvents.increment();
+        log.error("Sending of CloudEvent for QoD session {} to Kafka failed: {}", sessionId, error.getMessage());
+        throw new EventProducerException(error.getMessage(), error);
+      }
+      sentEvents.increment();
+      return null;
+    });
   }
 
   private String createAuthHeader(String authType, String credentials) {
@@ -25,7 +25,9 @@ package com.camara.mapping;
 
 import com.camara.entity.QosSession;
 import com.camara.quality_on_demand.api.model.SessionInfo;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -39,14 +41,14 @@ public interface SessionModelMapper {
   SessionInfo map(QosSession qosSession);
 
   /**
-   * Converts a {@code String} representation of an {@code OffsetDateTime} to an {@code OffsetDateTime} object.
+   * Converts a stored {@code Instant} to an {@code OffsetDateTime} in UTC.
    *
-   * @param offsetDateTimeAsString the {@code String} representation of the {@code OffsetDateTime}
-   * @return the converted {@code OffsetDateTime} object, or {@code null} if the input string is {@code null}
+   * @param instant the stored {@code Instant}
+   * @return the converted {@code OffsetDateTime} object, or {@code null} if the input is {@code null}
    */
-  default OffsetDateTime toOffsetDateTime(String offsetDateTimeAsString) {
-    return offsetDateTimeAsString != null
-        ? OffsetDateTime.parse(offsetDateTimeAsString)
+  default OffsetDateTime toOffsetDateTime(Instant instant) {
+    return instant != null
+        ? instant.atOffset(ZoneOffset.UTC)
         : null;
   }
 
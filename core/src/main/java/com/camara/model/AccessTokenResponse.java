@@ -37,4 +37,7 @@ public class AccessTokenResponse {
 
   @JsonProperty("access_token")
   private String accessToken;
+
+  @JsonProperty("expires_in")
+  private Long expiresIn;
 }
@@ -0,0 +1,80 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A CloudEvent encoded once in the structured JSON format. The same UTF-8 bytes are used for logging, as Kafka value and as
+ * Horizon body.
+ */
+public final class EncodedCloudEvent {
+
+  public static final String CONTENT_TYPE = "application/cloudevents+json";
+
+  private final String id;
+  private final byte[] json;
+
+  /**
+   * Creates the encoded event, the bytes are owned by the instance and must not be modified afterwards.
+   *
+   * @param id   the ID of the event
+   * @param json the event as UTF-8 encoded JSON
+   */
+  public EncodedCloudEvent(String id, byte[] json) {
+    this.id = id;
+    this.json = json;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Returns the encoded event. The array is shared and must not be modified.
+   *
+   * @return the event as UTF-8 encoded JSON
+   */
+  public byte[] getJson() {
+    return json;
+  }
+
+  /**
+   * Returns the encoded event as read-only buffer.
+   *
+   * @return the event as UTF-8 encoded JSON
+   */
+  public ByteBuffer asReadOnlyBuffer() {
+    return ByteBuffer.wrap(json).asReadOnlyBuffer();
+  }
+
+  public int size() {
+    return json.length;
+  }
+
+  @Override
+  public String toString() {
+    return new String(json, StandardCharsets.UTF_8);
+  }
+}
@@ -20,31 +20,22 @@
  * limitations under the License.
  * ---license-end
  */
+package com.camara.model;
 
-package com.camara.config;
-
-import com.mongodb.client.MongoClient;
-import lombok.RequiredArgsConstructor;
-import net.javacrumbs.shedlock.core.LockProvider;
-import net.javacrumbs.shedlock.provider.mongo.MongoLockProvider;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.MongoDatabaseFactory;
-
-@Configuration
-@RequiredArgsConstructor
-public class MongoDbConfig {
-
-  private final MongoDatabaseFactory mongoDbFactory;
-
+/**
+ * Behaviour of the event dispatch queue, when it is full.
+ */
+public enum EventOverflowPolicy {
+  /**
+   * The caller waits until the queue has capacity.
+   */
+  BLOCK,
+  /**
+   * The oldest queued event is dropped in favour of the new one.
+   */
+  DROP_OLDEST,
   /**
-   * Initialized the LockProvider for the MongoDB.
-   *
-   * @param mongo {@link MongoClient}
-   * @return {@link LockProvider}
+   * The event is stored in the database and queued again, as soon as the queue has capacity.
    */
-  @Bean
-  public LockProvider lockProvider(MongoClient mongo) {
-    return new MongoLockProvider(mongo.getDatabase(mongoDbFactory.getMongoDatabase().getName()));
-  }
+  SPILL
 }
@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.model;
+
+import com.camara.qos_profiles.api.model.Duration;
+import com.camara.qos_profiles.api.model.QosProfile;
+import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable snapshot of all QoS profiles, serving profile reads without database access. A changed profile set is published as a new
+ * catalog, never by modifying an existing one. The contained {@link QosProfile} objects are shared and must not be modified.
+ */
+public final class QosProfileCatalog {
+
+  public static final QosProfileCatalog EMPTY = new QosProfileCatalog(0, Collections.emptyMap());
+
+  private final long version;
+  private final Map<String, Entry> entriesByName;
+  private final List<QosProfile> qosProfiles;
+
+  private QosProfileCatalog(long version, Map<String, Entry> entriesByName) {
+    this.version = version;
+    this.entriesByName = entriesByName;
+    this.qosProfiles = entriesByName.values().stream().map(Entry::qosProfile).toList();
+  }
+
+  /**
+   * Creates the catalog, the order of the profiles is kept.
+   *
+   * @param version           the version of the stored profiles
+   * @param qosProfiles       the mapped QoS profiles
+   * @param durationInSeconds maps a {@link Duration} into seconds
+   * @return the {@link QosProfileCatalog}
+   */
+  public static QosProfileCatalog of(long version, List<QosProfile> qosProfiles, ToLongFunction<Duration> durationInSeconds) {
+    Map<String, Entry> entriesByName = new LinkedHashMap<>();
+    for (QosProfile qosProfile : qosProfiles) {
+      long minDurationInSeconds = qosProfile.getMinDuration() == null ? 0 : durationInSeconds.applyAsLong(qosProfile.getMinDuration());
+      long maxDurationInSeconds = qosProfile.getMaxDuration() == null
+          ? Long.MAX_VALUE
+          : durationInSeconds.applyAsLong(qosProfile.getMaxDuration());
+      entriesByName.put(qosProfile.getName(), new Entry(qosProfile, minDurationInSeconds, maxDurationInSeconds));
+    }
+    return new QosProfileCatalog(version, Collections.unmodifiableMap(entriesByName));
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Optional<Entry> find(String name) {
+    return Optional.ofNullable(entriesByName.get(name));
+  }
+
+  public List<QosProfile> getQosProfiles() {
+    return qosProfiles;
+  }
+
+  public List<QosProfile> getQosProfiles(QosProfileStatusEnum status) {
+    return qosProfiles.stream().filter(qosProfile -> qosProfile.getStatus() == status).toList();
+  }
+
+  public int size() {
+    return entriesByName.size();
+  }
+
+  /**
+   * A QoS profile with its durations already converted into seconds.
+   *
+   * @param qosProfile           the QoS profile
+   * @param minDurationInSeconds the min duration, 0 if the profile has none
+   * @param maxDurationInSeconds the max duration, {@link Long#MAX_VALUE} if the profile has none
+   */
+  public record Entry(QosProfile qosProfile, long minDurationInSeconds, long maxDurationInSeconds) {
+
+  }
+}
@@ -0,0 +1,60 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.repository;
+
+import java.time.Instant;
+
+/**
+ * Atomic operations on expiration leases.
+ */
+public interface ExpirationLeaseRepositoryCustom {
+
+  /**
+   * Result of a lease claim.
+   */
+  enum ClaimResult {
+    ACQUIRED,
+    RENEWED,
+    UNAVAILABLE
+  }
+
+  /**
+   * Claims the lease on a partition, if it is not leased or the lease is owned by the given node or has expired.
+   *
+   * @param partition  the partition
+   * @param owner      the claiming node
+   * @param now        the current time
+   * @param leaseUntil the end of the claimed lease
+   * @return {@link ClaimResult}
+   */
+  ClaimResult tryClaim(int partition, String owner, Instant now, Instant leaseUntil);
+
+  /**
+   * Releases the lease on a partition, if it is owned by the given node.
+   *
+   * @param partition the partition
+   * @param owner     the owning node
+   */
+  void release(int partition, String owner);
+}
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.repository;
+
+import com.camara.entity.ExpirationLease;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class ExpirationLeaseRepositoryCustomImpl implements ExpirationLeaseRepositoryCustom {
+
+  private static final String FIELD_ID = "_id";
+  private static final String FIELD_OWNER = "owner";
+  private static final String FIELD_LEASE_UNTIL = "leaseUntil";
+
+  private final MongoOperations mongoOperations;
+
+  @Override
+  public ClaimResult tryClaim(int partition, String owner, Instant now, Instant leaseUntil) {
+    Query query = Query.query(Criteria.where(FIELD_ID).is(partition)
+        .orOperator(Criteria.where(FIELD_OWNER).is(owner), Criteria.where(FIELD_LEASE_UNTIL).lt(now)));
+    Update update = new Update().set(FIELD_OWNER, owner).set(FIELD_LEASE_UNTIL, leaseUntil);
+    try {
+      ExpirationLease previousLease = mongoOperations.findAndModify(query, update,
+          FindAndModifyOptions.options().upsert(true).returnNew(false), ExpirationLease.class);
+      return previousLease != null && owner.equals(previousLease.getOwner()) ? ClaimResult.RENEWED : ClaimResult.ACQUIRED;
+    } catch (DuplicateKeyException e) {
+      // the partition is leased by another node, so the upsert tried to insert the existing partition
+      return ClaimResult.UNAVAILABLE;
+    }
+  }
+
+  @Override
+  public void release(int partition, String owner) {
+    Query query = Query.query(Criteria.where(FIELD_ID).is(partition).and(FIELD_OWNER).is(owner));
+    mongoOperations.updateFirst(query, new Update().set(FIELD_LEASE_UNTIL, Instant.EPOCH), ExpirationLease.class);
+  }
+}
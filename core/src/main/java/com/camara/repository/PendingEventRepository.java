@@ -0,0 +1,58 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.repository;
+
+import com.camara.entity.PendingEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for {@link PendingEvent}s.
+ */
+@Repository
+public interface PendingEventRepository extends MongoRepository<PendingEvent, String> {
+
+  /**
+   * Get the oldest events of the given partitions, which are due for delivery.
+   *
+   * @param partitions the partitions
+   * @param now        the current time
+   * @param limit      the maximum number of events
+   * @return the due events, ordered by creation
+   */
+  List<PendingEvent> findByPartitionInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(Collection<Integer> partitions,
+      Instant now, Limit limit);
+
+  /**
+   * Get the events of the given sessions, which wait for a retry.
+   *
+   * @param sessionIds the session-IDs
+   * @param now        the current time
+   * @return the events waiting for a retry
+   */
+  List<PendingEvent> findBySessionIdInAndNextAttemptAtAfter(Collection<String> sessionIds, Instant now);
+}
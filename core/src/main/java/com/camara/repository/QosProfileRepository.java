@@ -24,18 +24,10 @@
 package com.camara.repository;
 
 import com.camara.entity.QosProfile;
-import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
-import java.util.List;
-import java.util.Optional;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface QosProfileRepository extends MongoRepository<QosProfile, String> {
+public interface QosProfileRepository extends MongoRepository<QosProfile, String>, QosProfileRepositoryCustom {
 
-  Optional<QosProfile> findByName(String name);
-
-  List<QosProfile> findAllByNameAndStatus(String name, QosProfileStatusEnum status);
-
-  List<QosProfile> findAllByStatus(QosProfileStatusEnum status);
 }
@@ -0,0 +1,51 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.repository;
+
+import com.camara.entity.QosProfile;
+import com.camara.entity.QosProfileCatalogVersion;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Versioned bulk operations on QoS profiles.
+ */
+public interface QosProfileRepositoryCustom {
+
+  /**
+   * Retrieves the version of the stored QoS profiles.
+   *
+   * @return the {@link QosProfileCatalogVersion}, empty if the profiles were never loaded with a version
+   */
+  Optional<QosProfileCatalogVersion> findCatalogVersion();
+
+  /**
+   * Upserts the given profiles by name in one bulk write, then deletes profiles not contained anymore and increments the version.
+   * The collection is never empty in between.
+   *
+   * @param qosProfiles the complete set of QoS profiles
+   * @param checksum    the checksum of the data source of the profiles
+   * @return the new {@link QosProfileCatalogVersion}
+   */
+  QosProfileCatalogVersion replaceAll(List<QosProfile> qosProfiles, String checksum);
+}
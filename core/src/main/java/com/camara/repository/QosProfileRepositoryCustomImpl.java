@@ -0,0 +1,77 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.repository;
+
+import com.camara.entity.QosProfile;
+import com.camara.entity.QosProfileCatalogVersion;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class QosProfileRepositoryCustomImpl implements QosProfileRepositoryCustom {
+
+  private static final String FIELD_ID = "_id";
+  private static final String FIELD_NAME = "name";
+  private static final String FIELD_VERSION = "version";
+  private static final String FIELD_CHECKSUM = "checksum";
+  private static final String FIELD_LOADED_AT = "loadedAt";
+
+  private final MongoOperations mongoOperations;
+
+  @Override
+  public Optional<QosProfileCatalogVersion> findCatalogVersion() {
+    return Optional.ofNullable(mongoOperations.findById(QosProfileCatalogVersion.CURRENT_ID, QosProfileCatalogVersion.class));
+  }
+
+  @Override
+  public QosProfileCatalogVersion replaceAll(List<QosProfile> qosProfiles, String checksum) {
+    BulkOperations bulkOperations = mongoOperations.bulkOps(BulkMode.UNORDERED, QosProfile.class);
+    for (QosProfile qosProfile : qosProfiles) {
+      // without an id, the replacement keeps the id of the existing profile
+      qosProfile.setId(null);
+      bulkOperations.replaceOne(Query.query(Criteria.where(FIELD_NAME).is(qosProfile.getName())), qosProfile,
+          FindAndReplaceOptions.options().upsert());
+    }
+    bulkOperations.execute();
+
+    List<String> names = qosProfiles.stream().map(QosProfile::getName).toList();
+    mongoOperations.remove(Query.query(Criteria.where(FIELD_NAME).nin(names)), QosProfile.class);
+
+    Update update = new Update()
+        .inc(FIELD_VERSION, 1)
+        .set(FIELD_CHECKSUM, checksum)
+        .set(FIELD_LOADED_AT, Instant.now());
+    return mongoOperations.findAndModify(Query.query(Criteria.where(FIELD_ID).is(QosProfileCatalogVersion.CURRENT_ID)), update,
+        FindAndModifyOptions.options().upsert(true).returnNew(true), QosProfileCatalogVersion.class);
+  }
+}
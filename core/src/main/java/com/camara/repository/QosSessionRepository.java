@@ -23,32 +23,121 @@
 
 package com.camara.repository;
 
+import com.camara.entity.ExpiringSession;
 import com.camara.entity.QosSession;
+import com.camara.entity.SessionConflictCandidate;
+import com.camara.entity.SessionNotificationState;
 import jakarta.validation.constraints.NotBlank;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository for QoSSessions.
  */
 @Repository
-public interface QosSessionRepository extends MongoRepository<QosSession, String> {
+public interface QosSessionRepository extends MongoRepository<QosSession, String>, QosSessionRepositoryCustom {
+
+  /**
+   * Projection on the fields mapped by {@link com.camara.mapping.SessionModelMapper}.
+   */
+  String SESSION_INFO_FIELDS = "{ 'sessionId': 1, 'duration': 1, 'device': 1, 'applicationServer': 1, 'devicePorts': 1, "
+      + "'applicationServerPorts': 1, 'qosProfile': 1, 'sink': 1, 'sinkCredential': 1, 'startedAt': 1, 'expiresAt': 1, "
+      + "'qosStatus': 1, 'statusInfo': 1, 'showDeviceInResponse': 1 }";
+
+  /**
+   * Projection on the fields of {@link SessionConflictCandidate}.
+   */
+  String CONFLICT_CANDIDATE_FIELDS = "{ 'sessionId': 1, 'deviceIpv4addr': 1, 'expiresAt': 1, 'conflictKey': 1, 'applicationServer': 1, "
+      + "'devicePorts': 1, 'applicationServerPorts': 1 }";
+
+  /**
+   * Projection on the fields of {@link ExpiringSession}.
+   */
+  String EXPIRING_SESSION_FIELDS =
+      "{ 'sessionId': 1, 'partition': 1, 'expiresAt': 1, 'qosStatus': 1, 'isScheduledForDeletion': 1 }";
 
   Optional<QosSession> findBySessionId(String sessionId);
 
-  List<QosSession> findAllByClientId(String clientId);
+  /**
+   * Get a QoS session by its ID, if it was created by the given client. The unique index on the session ID serves the query.
+   *
+   * @param sessionId the session ID
+   * @param clientId  the client ID of the caller
+   * @return QoS session or empty if no session with this ID exists for the client
+   */
+  Optional<QosSession> findBySessionIdAndClientId(String sessionId, String clientId);
 
   void deleteBySessionId(String sessionId);
 
   /**
-   * Get QoS session by Device IPv4 address.
+   * Deletes several sessions with one write.
    *
-   * @param ipAddr user equipment ip address to search for
-   * @return QoS session or null if session not found
+   * @param sessionIds the session IDs
+   * @return the number of deleted sessions
+   */
+  long deleteBySessionIdIn(Collection<String> sessionIds);
+
+  /**
+   * Get the QoS sessions of a client, whose application server network is within the given address range. Sessions without a
+   * {@link com.camara.entity.SessionConflictKey} are always returned, as their range is not known. Besides the fields needed to map
+   * a session into a {@link com.camara.quality_on_demand.api.model.SessionInfo}, the fields to select and delete the session are
+   * read.
+   *
+   * @param clientId              the client ID of the caller
+   * @param applicationServerFrom lowest application server address (numeric)
+   * @param applicationServerTo   highest application server address (numeric)
+   * @return stream of projections of the QoS sessions, backed by a database cursor
+   */
+  @Query(value = "{ 'clientId': ?0, '$or': [ { 'conflictKey': { '$exists': false } }, "
+      + "{ 'conflictKey.applicationServerFrom': { '$gte': ?1 }, 'conflictKey.applicationServerTo': { '$lte': ?2 } } ] }",
+      fields = "{ 'sessionId': 1, 'subscriptionId': 1, 'deviceIpv4addr': 1, 'conflictKey': 1, 'duration': 1, 'device': 1, "
+          + "'applicationServer': 1, 'devicePorts': 1, 'applicationServerPorts': 1, 'qosProfile': 1, 'sink': 1, 'sinkCredential': 1, "
+          + "'startedAt': 1, 'expiresAt': 1, 'qosStatus': 1, 'statusInfo': 1, 'showDeviceInResponse': 1 }")
+  @Meta(cursorBatchSize = 500)
+  Stream<QosSession> findDeletionCandidates(String clientId, long applicationServerFrom, long applicationServerTo);
+
+  /**
+   * Get the QoS sessions of a client for a device IPv4 address. Only the fields needed to map a session into a
+   * {@link com.camara.quality_on_demand.api.model.SessionInfo} are read.
+   *
+   * @param ipAddr   user equipment ip address to search for
+   * @param clientId the client ID of the caller
+   * @return QoS sessions of the client for the device
+   */
+  @Query(value = "{ 'deviceIpv4addr': ?0, 'clientId': ?1 }", fields = SESSION_INFO_FIELDS)
+  List<QosSession> findByDeviceIpv4addrAndClientId(String ipAddr, String clientId);
+
+  /**
+   * Get QoS sessions of a device, whose application server network intersects the given address range. Sessions without a
+   * {@link com.camara.entity.SessionConflictKey} are always returned, as their range is not known.
+   *
+   * @param ipAddr                user equipment ip address to search for
+   * @param applicationServerFrom lowest application server address (numeric)
+   * @param applicationServerTo   highest application server address (numeric)
+   * @return projections of the QoS sessions which may conflict with the given range
    */
-  List<QosSession> findByDeviceIpv4addr(String ipAddr);
+  @Query(value = "{ 'deviceIpv4addr': ?0, '$or': [ { 'conflictKey': { '$exists': false } }, "
+      + "{ 'conflictKey.applicationServerFrom': { '$lte': ?2 }, 'conflictKey.applicationServerTo': { '$gte': ?1 } } ] }",
+      fields = CONFLICT_CANDIDATE_FIELDS)
+  List<SessionConflictCandidate> findConflictCandidates(String ipAddr, long applicationServerFrom, long applicationServerTo);
+
+  /**
+   * Get the QoS sessions of several devices for the conflict check of a bulk request, which checks all requested sessions in one
+   * pass.
+   *
+   * @param ipAddrs user equipment ip addresses to search for
+   * @return projections of the QoS sessions of the devices
+   */
+  @Query(value = "{ 'deviceIpv4addr': { '$in': ?0 } }", fields = CONFLICT_CANDIDATE_FIELDS)
+  List<SessionConflictCandidate> findConflictCandidatesByDevices(Collection<String> ipAddrs);
 
   /**
    * Get QoS session by NEF subscription.
@@ -58,4 +147,56 @@ public interface QosSessionRepository extends MongoRepository<QosSession, String
    */
   Optional<QosSession> findBySubscriptionId(@NotBlank String subscriptionId);
 
+  /**
+   * Get the state of a QoS session needed to handle a NEF notification.
+   *
+   * @param subscriptionId subscription id to search for
+   * @return projection of the QoS session or empty if session not found
+   */
+  @Query(value = "{ 'subscriptionId': ?0 }", fields = "{ 'sessionId': 1, 'duration': 1, 'qosStatus': 1, 'isScheduledForDeletion': 1 }")
+  Optional<SessionNotificationState> findNotificationStateBySubscriptionId(@NotBlank String subscriptionId);
+
+  /**
+   * Get QoS sessions of the given partitions, which are not scheduled for deletion and expire before the handling threshold, or
+   * which are scheduled for deletion and already expired. Sessions whose timestamps are not yet migrated to dates (see
+   * {@link QosSessionRepositoryCustom#convertLegacyTimestamps(Object, int)}) are only found after their migration.
+   *
+   * @param partitions        the expiration partitions
+   * @param handlingThreshold sessions expiring before this time are handled
+   * @param now               the current time
+   * @return stream of projections of the expiring QoS sessions, backed by a database cursor
+   */
+  @Query(value = "{ 'partition': { '$in': ?0 }, '$or': [ { 'isScheduledForDeletion': { '$ne': true }, 'expiresAt': { '$lt': ?1 } }, "
+      + "{ 'isScheduledForDeletion': true, 'expiresAt': { '$lt': ?2 } } ] }", fields = EXPIRING_SESSION_FIELDS)
+  @Meta(cursorBatchSize = 500)
+  Stream<ExpiringSession> findExpiringSessions(Collection<Integer> partitions, Instant handlingThreshold, Instant now);
+
+  /**
+   * Get QoS sessions of the given partitions, which are already scheduled for deletion.
+   *
+   * @param partitions the expiration partitions
+   * @return stream of projections of the scheduled QoS sessions, backed by a database cursor
+   */
+  @Query(value = "{ 'partition': { '$in': ?0 }, 'isScheduledForDeletion': true }", fields = EXPIRING_SESSION_FIELDS)
+  @Meta(cursorBatchSize = 500)
+  Stream<ExpiringSession> findScheduledSessions(Collection<Integer> partitions);
+
+  /**
+   * Get QoS sessions, which were stored before they were assigned to an expiration partition.
+   *
+   * @return stream of projections of the QoS sessions without partition, backed by a database cursor
+   */
+  @Query(value = "{ 'partition': null }", fields = EXPIRING_SESSION_FIELDS)
+  @Meta(cursorBatchSize = 500)
+  Stream<ExpiringSession> findWithoutPartition();
+
+  /**
+   * Assigns an expiration partition to a session.
+   *
+   * @param sessionId the session ID
+   * @param partition the expiration partition
+   */
+  @Query("{ 'sessionId': ?0 }")
+  @Update("{ '$set': { 'partition': ?1 } }")
+  void updatePartition(String sessionId, int partition);
 }
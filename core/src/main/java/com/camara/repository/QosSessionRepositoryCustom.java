@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.repository;
+
+import com.camara.entity.ExpiringSession;
+import com.camara.entity.QosSession;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Atomic state transitions and bulk operations on QoS sessions.
+ *
+ * <p>Each transition is a single conditional update, which only applies in the expected state, increments the
+ * {@link QosSession#getVersion() version} and returns the updated session.
+ */
+public interface QosSessionRepositoryCustom {
+
+  /**
+   * Result of a migration batch.
+   *
+   * @param lastId      the {@code _id} of the last scanned session, to continue the next batch after it
+   * @param scanned     the number of scanned sessions, 0 if no session with legacy timestamps is left after {@code lastId}
+   * @param convertible the number of scanned sessions with a valid legacy timestamp, for which an update was issued
+   * @param converted   the number of converted sessions, less than {@code convertible} if a concurrent write changed a session
+   */
+  record MigrationBatch(Object lastId, int scanned, int convertible, int converted) {
+
+  }
+
+  /**
+   * Converts the {@code startedAt} and {@code expiresAt} timestamps of sessions, which were stored as ISO-8601 strings by
+   * previous versions, into dates. The sessions are scanned in {@code _id} order. A session is only updated if its timestamps
+   * are unchanged since the scan, so concurrent writes are never overwritten and several nodes may migrate at the same time.
+   *
+   * @param after     the {@code _id} to continue after, {@code null} to start with the first session
+   * @param batchSize the maximum number of sessions to scan
+   * @return {@link MigrationBatch}
+   */
+  MigrationBatch convertLegacyTimestamps(Object after, int batchSize);
+
+  /**
+   * Marks a session as available after the network allocated its resources, if it is still requested and not scheduled for
+   * deletion.
+   *
+   * @param sessionId the session ID
+   * @param startedAt the start timestamp
+   * @param expiresAt the expiration timestamp
+   * @return the updated session with the {@link QosSessionRepository#SESSION_INFO_FIELDS}, or empty if the session is not in
+   *     the expected state
+   */
+  Optional<QosSession> markAvailable(String sessionId, Instant startedAt, Instant expiresAt);
+
+  /**
+   * Marks a session as terminated by the network, if it is not scheduled for deletion.
+   *
+   * @param sessionId the session ID
+   * @param expiresAt the expiration timestamp, after which the session is deleted
+   * @return the updated session with the {@link QosSessionRepository#SESSION_INFO_FIELDS}, or empty if the session is not in
+   *     the expected state
+   */
+  Optional<QosSession> markNetworkTerminated(String sessionId, Instant expiresAt);
+
+  /**
+   * Extends an available session, if it was not changed since it was read and is not scheduled for deletion.
+   *
+   * @param sessionId       the session ID
+   * @param expectedVersion the version of the session, when it was read
+   * @param duration        the new duration
+   * @param expiresAt       the new expiration timestamp
+   * @return the updated session with the {@link QosSessionRepository#SESSION_INFO_FIELDS}, or empty if the session was changed
+   */
+  Optional<QosSession> extend(String sessionId, long expectedVersion, int duration, Instant expiresAt);
+
+  /**
+   * Marks a session as scheduled for deletion, if it is not yet marked and still expires before the handling threshold.
+   *
+   * @param sessionId         the session ID
+   * @param handlingThreshold sessions expiring before this time are handled
+   * @return the updated session, or empty if the session is not in the expected state
+   */
+  Optional<ExpiringSession> markScheduledForDeletion(String sessionId, Instant handlingThreshold);
+}
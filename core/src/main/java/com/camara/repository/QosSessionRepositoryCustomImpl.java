@@ -0,0 +1,170 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.repository;
+
+import com.camara.entity.ExpiringSession;
+import com.camara.entity.QosSession;
+import com.camara.quality_on_demand.api.model.QosStatus;
+import com.camara.quality_on_demand.api.model.StatusInfo;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
+
+@RequiredArgsConstructor
+@Slf4j
+public class QosSessionRepositoryCustomImpl implements QosSessionRepositoryCustom {
+
+  private static final String FIELD_ID = "_id";
+  private static final String FIELD_STARTED_AT = "startedAt";
+  private static final String FIELD_EXPIRES_AT = "expiresAt";
+  private static final String FIELD_SESSION_ID = "sessionId";
+  private static final String FIELD_VERSION = "version";
+  private static final String FIELD_DURATION = "duration";
+  private static final String FIELD_QOS_STATUS = "qosStatus";
+  private static final String FIELD_STATUS_INFO = "statusInfo";
+  private static final String FIELD_SCHEDULED_FOR_DELETION = "isScheduledForDeletion";
+  private static final String[] SESSION_INFO_FIELDS =
+      Document.parse(QosSessionRepository.SESSION_INFO_FIELDS).keySet().toArray(String[]::new);
+  private static final String[] EXPIRING_SESSION_FIELDS =
+      Document.parse(QosSessionRepository.EXPIRING_SESSION_FIELDS).keySet().toArray(String[]::new);
+  private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+  private final MongoOperations mongoOperations;
+
+  @Override
+  public MigrationBatch convertLegacyTimestamps(Object after, int batchSize) {
+    Query query = Query.query(new Criteria().orOperator(
+        Criteria.where(FIELD_STARTED_AT).type(Type.STRING),
+        Criteria.where(FIELD_EXPIRES_AT).type(Type.STRING)));
+    if (after != null) {
+      query.addCriteria(Criteria.where(FIELD_ID).gt(after));
+    }
+    query.with(Sort.by(FIELD_ID)).limit(batchSize);
+    query.fields().include(FIELD_STARTED_AT, FIELD_EXPIRES_AT);
+
+    String collection = mongoOperations.getCollectionName(QosSession.class);
+    List<Document> sessions = mongoOperations.find(query, Document.class, collection);
+    if (sessions.isEmpty()) {
+      return new MigrationBatch(after, 0, 0, 0);
+    }
+
+    BulkOperations bulkOperations = mongoOperations.bulkOps(BulkMode.UNORDERED, collection);
+    int updates = 0;
+    for (Document session : sessions) {
+      Criteria unchanged = Criteria.where(FIELD_ID).is(session.get(FIELD_ID));
+      Update update = new Update();
+      convert(session, FIELD_STARTED_AT, unchanged, update);
+      convert(session, FIELD_EXPIRES_AT, unchanged, update);
+      if (!update.getUpdateObject().isEmpty()) {
+        bulkOperations.updateOne(Query.query(unchanged), update);
+        updates++;
+      }
+    }
+    int converted = updates > 0 ? bulkOperations.execute().getModifiedCount() : 0;
+    return new MigrationBatch(sessions.getLast().get(FIELD_ID), sessions.size(), updates, converted);
+  }
+
+  @Override
+  public Optional<QosSession> markAvailable(String sessionId, Instant startedAt, Instant expiresAt) {
+    Query query = Query.query(notScheduledForDeletion(sessionId).and(FIELD_QOS_STATUS).is(QosStatus.REQUESTED));
+    query.fields().include(SESSION_INFO_FIELDS);
+    Update update = new Update()
+        .set(FIELD_STARTED_AT, startedAt)
+        .set(FIELD_EXPIRES_AT, expiresAt)
+        .set(FIELD_QOS_STATUS, QosStatus.AVAILABLE)
+        .inc(FIELD_VERSION, 1);
+    return Optional.ofNullable(mongoOperations.findAndModify(query, update, RETURN_NEW, QosSession.class));
+  }
+
+  @Override
+  public Optional<QosSession> markNetworkTerminated(String sessionId, Instant expiresAt) {
+    Query query = Query.query(notScheduledForDeletion(sessionId));
+    query.fields().include(SESSION_INFO_FIELDS);
+    Update update = new Update()
+        .set(FIELD_EXPIRES_AT, expiresAt)
+        .set(FIELD_QOS_STATUS, QosStatus.UNAVAILABLE)
+        .set(FIELD_STATUS_INFO, StatusInfo.NETWORK_TERMINATED)
+        .inc(FIELD_VERSION, 1);
+    return Optional.ofNullable(mongoOperations.findAndModify(query, update, RETURN_NEW, QosSession.class));
+  }
+
+  @Override
+  public Optional<QosSession> extend(String sessionId, long expectedVersion, int duration, Instant expiresAt) {
+    // sessions stored before versioning was introduced have no version
+    Criteria version = expectedVersion == 0
+        ? Criteria.where(FIELD_VERSION).in(0L, null)
+        : Criteria.where(FIELD_VERSION).is(expectedVersion);
+    Query query = Query.query(notScheduledForDeletion(sessionId).and(FIELD_QOS_STATUS).is(QosStatus.AVAILABLE))
+        .addCriteria(version);
+    query.fields().include(SESSION_INFO_FIELDS);
+    Update update = new Update()
+        .set(FIELD_DURATION, duration)
+        .set(FIELD_EXPIRES_AT, expiresAt)
+        .inc(FIELD_VERSION, 1);
+    return Optional.ofNullable(mongoOperations.findAndModify(query, update, RETURN_NEW, QosSession.class));
+  }
+
+  @Override
+  public Optional<ExpiringSession> markScheduledForDeletion(String sessionId, Instant handlingThreshold) {
+    Query query = Query.query(notScheduledForDeletion(sessionId).and(FIELD_EXPIRES_AT).lt(handlingThreshold));
+    query.fields().include(EXPIRING_SESSION_FIELDS);
+    Update update = new Update()
+        .set(FIELD_SCHEDULED_FOR_DELETION, true)
+        .inc(FIELD_VERSION, 1);
+    return Optional.ofNullable(mongoOperations.findAndModify(query, update, RETURN_NEW, QosSession.class))
+        .map(qosSession -> new ExpiringSession(qosSession.getSessionId(), qosSession.getPartition(), qosSession.getExpiresAt(),
+            qosSession.getQosStatus(), qosSession.isScheduledForDeletion()));
+  }
+
+  private static Criteria notScheduledForDeletion(String sessionId) {
+    return Criteria.where(FIELD_SESSION_ID).is(sessionId).and(FIELD_SCHEDULED_FOR_DELETION).ne(true);
+  }
+
+  private static void convert(Document session, String field, Criteria unchanged, Update update) {
+    if (!(session.get(field) instanceof String timestamp)) {
+      return;
+    }
+    try {
+      update.set(field, Date.from(OffsetDateTime.parse(timestamp).toInstant()));
+      unchanged.and(field).is(timestamp);
+    } catch (DateTimeParseException e) {
+      log.warn("Session {} has an invalid {} <{}>, which is not converted", session.get(FIELD_ID), field, timestamp);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} that remembers tokens its delegate has already verified.
+ *
+ * <p>Entries are keyed by the SHA-256 hash of the token, so the cache never holds the raw token. A cached token is only returned while
+ * its {@code exp} claim lies in the future, tokens without {@code exp} are never cached. The cache is bounded in size and in how long an
+ * entry may be kept.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+  private final JwtDecoder delegate;
+  private final Cache<String, Jwt> verifiedTokens;
+  private final Clock clock;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  /**
+   * Creates the decoder.
+   *
+   * @param delegate the decoder that verifies tokens not yet cached
+   * @param maxSize the maximum number of cached tokens
+   * @param maxTtl the maximum time a token is kept, regardless of its expiry
+   * @param clock the clock to check the expiry against
+   * @param meterRegistry the {@link MeterRegistry}
+   */
+  public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl, Clock clock, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.verifiedTokens = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(maxTtl)
+        .build();
+    this.clock = clock;
+    this.hitCounter = meterRegistry.counter("qod.security.jwt.cache.hits");
+    this.missCounter = meterRegistry.counter("qod.security.jwt.cache.misses");
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    Jwt cachedJwt = verifiedTokens.getIfPresent(key);
+    if (cachedJwt != null && isNotExpired(cachedJwt)) {
+      hitCounter.increment();
+      return cachedJwt;
+    }
+    missCounter.increment();
+    Jwt jwt = delegate.decode(token);
+    if (isNotExpired(jwt)) {
+      verifiedTokens.put(key, jwt);
+    } else {
+      verifiedTokens.invalidate(key);
+    }
+    return jwt;
+  }
+
+  private boolean isNotExpired(Jwt jwt) {
+    Instant expiresAt = jwt.getExpiresAt();
+    return expiresAt != null && expiresAt.isAfter(clock.instant());
+  }
+}
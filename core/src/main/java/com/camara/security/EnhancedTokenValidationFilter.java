@@ -23,11 +23,7 @@
 
 package com.camara.security;
 
-import static org.springframework.http.HttpHeaders.AUTHORIZATION;
-
-import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.Claim;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -68,7 +64,7 @@ public class EnhancedTokenValidationFilter extends OncePerRequestFilter {
       @NonNull FilterChain filterChain) throws ServletException, IOException {
     log.debug("Validate request details specific token claims");
     try {
-      Map<String, Claim> claims = extractClaimsFromToken(request.getHeader(AUTHORIZATION));
+      Map<String, Claim> claims = extractClaimsFromToken(request);
       validateRequestSpecificTokenClaims(claims, request);
     } catch (TokenProcessingException e) {
       log.error(e.getMessage());
@@ -104,12 +100,11 @@ public class EnhancedTokenValidationFilter extends OncePerRequestFilter {
     }
   }
 
-  private Map<String, Claim> extractClaimsFromToken(String authorizationHeader) {
+  private Map<String, Claim> extractClaimsFromToken(HttpServletRequest request) {
     log.debug("Extracting claims from token");
-    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-      String token = authorizationHeader.substring(7);
-      DecodedJWT decodedJwt = JWT.decode(token);
-      return decodedJwt.getClaims();
+    TokenContext tokenContext = TokenContext.from(request);
+    if (tokenContext.isPresent()) {
+      return tokenContext.getClaims();
     }
     throw new TokenProcessingException("Token is absent or has incorrect format");
   }
@@ -0,0 +1,215 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * {@link JwtDecoder} for a single trusted issuer whose metadata and JWK set are fetched ahead of the first request.
+ *
+ * <p>{@link #prewarm()} resolves the issuer metadata and loads the JWK set at startup. The JWK set is then refreshed in the background
+ * shortly before its cache entry expires, so no request has to wait for the authorization server. If the issuer is not reachable at
+ * startup, the first request resolves it instead.
+ *
+ * <p>Like {@link org.springframework.security.oauth2.jwt.JwtDecoders#fromIssuerLocation(String)}, the metadata is looked up as OpenID
+ * Connect and as OAuth 2.0 authorization server metadata, and the accepted signature algorithms are taken from the keys of the JWK set.
+ */
+@Slf4j
+public class PrewarmedJwtDecoder implements JwtDecoder {
+
+  private static final String OIDC_METADATA_PATH = "/.well-known/openid-configuration";
+  private static final String OAUTH_METADATA_PATH = "/.well-known/oauth-authorization-server";
+  private static final ParameterizedTypeReference<Map<String, Object>> METADATA_TYPE = new ParameterizedTypeReference<>() {
+  };
+
+  private final String issuerUri;
+  private final Duration jwksCacheTtl;
+  private final Duration jwksRefreshAhead;
+  private final RestClient restClient;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile JwtDecoder delegate;
+
+  /**
+   * Creates the decoder, nothing is fetched until {@link #prewarm()} or the first {@link #decode(String)}.
+   *
+   * @param issuerUri the trusted issuer
+   * @param jwksCacheTtl how long a fetched JWK set is used
+   * @param jwksRefreshAhead how long before expiry the JWK set is refreshed in the background
+   */
+  public PrewarmedJwtDecoder(String issuerUri, Duration jwksCacheTtl, Duration jwksRefreshAhead) {
+    this.issuerUri = issuerUri;
+    this.jwksCacheTtl = jwksCacheTtl;
+    this.jwksRefreshAhead = jwksRefreshAhead;
+    this.restClient = RestClient.create();
+  }
+
+  /**
+   * Resolves the issuer metadata and loads the JWK set. Failures are logged only, the next request tries again.
+   */
+  public void prewarm() {
+    try {
+      resolveDelegate();
+      log.info("Issuer metadata and JWK set of <{}> loaded", issuerUri);
+    } catch (JwtException ex) {
+      log.warn("Issuer <{}> could not be prewarmed, resolving on first request: {}", issuerUri, ex.getMessage());
+    }
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    return resolveDelegate().decode(token);
+  }
+
+  private JwtDecoder resolveDelegate() {
+    JwtDecoder jwtDecoder = delegate;
+    if (jwtDecoder != null) {
+      return jwtDecoder;
+    }
+    lock.lock();
+    try {
+      if (delegate == null) {
+        delegate = createDelegate(fetchJwkSetUri());
+      }
+      return delegate;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private String fetchJwkSetUri() {
+    for (URI metadataUri : metadataUris()) {
+      Map<String, Object> metadata;
+      try {
+        metadata = restClient.get()
+            .uri(metadataUri)
+            .retrieve()
+            .body(METADATA_TYPE);
+      } catch (HttpClientErrorException ex) {
+        log.debug("No issuer metadata at <{}>: {}", metadataUri, ex.getStatusCode());
+        continue;
+      } catch (RestClientException ex) {
+        throw new JwtException("Metadata of issuer " + issuerUri + " could not be fetched", ex);
+      }
+      if (metadata == null || !Objects.equals(issuerUri, metadata.get("issuer")) || metadata.get("jwks_uri") == null) {
+        throw new JwtException("Metadata of issuer " + issuerUri + " is missing or does not match the issuer");
+      }
+      return metadata.get("jwks_uri").toString();
+    }
+    throw new JwtException("Metadata of issuer " + issuerUri + " could not be found");
+  }
+
+  /**
+   * The metadata locations in the order of Spring Security: OpenID Connect appended to the issuer, OpenID Connect and OAuth 2.0
+   * authorization server (RFC 8414) inserted before the issuer path.
+   */
+  private List<URI> metadataUris() {
+    URI issuer = URI.create(issuerUri);
+    String issuerPath = Objects.toString(issuer.getPath(), "");
+    return Stream.of(issuerPath + OIDC_METADATA_PATH, OIDC_METADATA_PATH + issuerPath, OAUTH_METADATA_PATH + issuerPath)
+        .distinct()
+        .map(path -> UriComponentsBuilder.fromUri(issuer).replacePath(path).build(Map.of()))
+        .toList();
+  }
+
+  private JwtDecoder createDelegate(String jwkSetUri) {
+    JWKSource<SecurityContext> jwkSource;
+    try {
+      jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+          .cache(jwksCacheTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+          .refreshAheadCache(jwksRefreshAhead.toMillis(), true)
+          .build();
+    } catch (MalformedURLException | IllegalArgumentException ex) {
+      throw new JwtException("Invalid JWK set uri " + jwkSetUri, ex);
+    }
+    Set<JWSAlgorithm> algorithms = signatureAlgorithms(jwkSource);
+    NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withJwkSetUri(jwkSetUri)
+        .jwtProcessorCustomizer(processor -> processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource)))
+        .build();
+    nimbusJwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+    return nimbusJwtDecoder;
+  }
+
+  /**
+   * Loads the JWK set and collects the algorithms of its signing keys. Keys without an algorithm accept all algorithms of their
+   * key type.
+   */
+  private Set<JWSAlgorithm> signatureAlgorithms(JWKSource<SecurityContext> jwkSource) {
+    JWKMatcher signingKeys = new JWKMatcher.Builder()
+        .publicOnly(true)
+        .keyUses(KeyUse.SIGNATURE, null)
+        .keyTypes(KeyType.RSA, KeyType.EC)
+        .build();
+    List<JWK> jwks;
+    try {
+      jwks = jwkSource.get(new JWKSelector(signingKeys), null);
+    } catch (KeySourceException ex) {
+      throw new JwtException("JWK set of issuer " + issuerUri + " could not be loaded", ex);
+    }
+    Set<JWSAlgorithm> algorithms = new LinkedHashSet<>();
+    for (JWK jwk : jwks) {
+      if (jwk.getAlgorithm() != null) {
+        algorithms.add(JWSAlgorithm.parse(jwk.getAlgorithm().getName()));
+      } else if (KeyType.RSA.equals(jwk.getKeyType())) {
+        algorithms.addAll(JWSAlgorithm.Family.RSA);
+      } else {
+        algorithms.addAll(JWSAlgorithm.Family.EC);
+      }
+    }
+    if (algorithms.isEmpty()) {
+      throw new JwtException("JWK set of issuer " + issuerUri + " contains no signing keys");
+    }
+    return algorithms;
+  }
+}
@@ -25,15 +25,21 @@ package com.camara.security;
 
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
-import org.springframework.security.oauth2.server.resource.authentication.JwtIssuerAuthenticationManagerResolver;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -44,14 +50,43 @@ public class SecurityConfig {
   @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
   private String issuerUri;
 
+  @Value("${enhanced-token-validation.jwks.cache-ttl}")
+  private long jwksCacheTtlInSeconds;
+
+  @Value("${enhanced-token-validation.jwks.refresh-ahead}")
+  private long jwksRefreshAheadInSeconds;
+
+  @Value("${enhanced-token-validation.jwt-cache.max-size}")
+  private long jwtCacheMaxSize;
+
+  @Value("${enhanced-token-validation.jwt-cache.max-ttl}")
+  private long jwtCacheMaxTtlInSeconds;
+
+  /**
+   * Creates the decoder of the trusted issuer, the JWK set is loaded ahead and already verified tokens are cached.
+   *
+   * @return the {@link PrewarmedJwtDecoder}
+   */
+  @Bean
+  public PrewarmedJwtDecoder prewarmedJwtDecoder() {
+    return new PrewarmedJwtDecoder(issuerUri, Duration.ofSeconds(jwksCacheTtlInSeconds), Duration.ofSeconds(jwksRefreshAheadInSeconds));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void prewarmJwtDecoder() {
+    prewarmedJwtDecoder().prewarm();
+  }
+
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-    var jwtIssuerAuthenticationManagerResolver = JwtIssuerAuthenticationManagerResolver.fromTrustedIssuers(issuerUri);
+  public SecurityFilterChain filterChain(HttpSecurity http, MeterRegistry meterRegistry) throws Exception {
+    JwtDecoder jwtDecoder = new CachingJwtDecoder(prewarmedJwtDecoder(), jwtCacheMaxSize, Duration.ofSeconds(jwtCacheMaxTtlInSeconds),
+        Clock.systemUTC(), meterRegistry);
 
     http.authorizeHttpRequests(authorizeRequest -> {
       authorizeRequest.requestMatchers(antMatcher("/swagger-ui/**")).permitAll();
       authorizeRequest.requestMatchers(antMatcher("/swagger/**")).permitAll();
       authorizeRequest.requestMatchers(antMatcher("/v3/api-docs/**")).permitAll();
+      authorizeRequest.requestMatchers(antMatcher(HttpMethod.POST, "/actuator/qosprofiles")).authenticated();
       authorizeRequest.requestMatchers(antMatcher("/actuator/**")).permitAll();
       authorizeRequest.requestMatchers(antMatcher("/qos-profiles.yaml")).permitAll();
       authorizeRequest.requestMatchers(antMatcher("/quality-on-demand.yaml")).permitAll();
@@ -60,7 +95,7 @@ public class SecurityConfig {
       authorizeRequest.anyRequest().authenticated();
     }).csrf(AbstractHttpConfigurer::disable).headers(
         httpSecurityHeadersConfigurer -> httpSecurityHeadersConfigurer.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable));
-    http.oauth2ResourceServer(oauth2 -> oauth2.authenticationManagerResolver(jwtIssuerAuthenticationManagerResolver));
+    http.oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder)));
     return http.build();
   }
 
@@ -0,0 +1,122 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * The bearer token of the current request, decoded once and kept as a request attribute.
+ *
+ * <p>The first caller within a request (usually {@link EnhancedTokenValidationFilter}) decodes the Authorization header, every later
+ * caller reads the cached claims. Because the context lives on the request and not on a shared bean, concurrent requests never see each
+ * other's token.
+ */
+@Slf4j
+public final class TokenContext {
+
+  static final String REQUEST_ATTRIBUTE = TokenContext.class.getName();
+
+  private static final String BEARER_PREFIX = "Bearer ";
+  private static final TokenContext EMPTY = new TokenContext(null);
+
+  private final DecodedJWT decodedToken;
+
+  private TokenContext(DecodedJWT decodedToken) {
+    this.decodedToken = decodedToken;
+  }
+
+  /**
+   * Returns the token context of the request bound to the current thread.
+   *
+   * @return the {@link TokenContext} of the current request
+   */
+  public static TokenContext current() {
+    RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+    return from(((ServletRequestAttributes) requestAttributes).getRequest());
+  }
+
+  /**
+   * Returns the token context of the given request, decoding the Authorization header on first access.
+   *
+   * @param request the current {@link HttpServletRequest}
+   * @return the {@link TokenContext} of the request, empty if no valid bearer token is present
+   */
+  public static TokenContext from(HttpServletRequest request) {
+    if (request.getAttribute(REQUEST_ATTRIBUTE) instanceof TokenContext tokenContext) {
+      return tokenContext;
+    }
+    TokenContext tokenContext = parse(request.getHeader(AUTHORIZATION));
+    request.setAttribute(REQUEST_ATTRIBUTE, tokenContext);
+    return tokenContext;
+  }
+
+  private static TokenContext parse(String authorizationHeader) {
+    log.debug("Decoding bearer token of the current request");
+    if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+      return EMPTY;
+    }
+    try {
+      return new TokenContext(JWT.decode(authorizationHeader.substring(BEARER_PREFIX.length())));
+    } catch (JWTDecodeException ex) {
+      log.debug("Invalid token provided: {}", ex.getMessage(), ex);
+      log.error("Invalid token in header provided. Values cannot be extracted.");
+      return EMPTY;
+    }
+  }
+
+  public boolean isPresent() {
+    return decodedToken != null;
+  }
+
+  public Map<String, Claim> getClaims() {
+    return isPresent() ? decodedToken.getClaims() : Map.of();
+  }
+
+  /**
+   * Retrieves the value of a claim as String.
+   *
+   * @param claimName the name of the claim
+   * @return the value of the claim, or null if the token or the claim is not present
+   */
+  public String getClaimAsString(String claimName) {
+    if (!isPresent()) {
+      return null;
+    }
+    Claim claim = decodedToken.getClaim(claimName);
+    if (claim.isMissing()) {
+      log.debug("The claim {} is not present in the provided token", claimName);
+    }
+    return claim.asString();
+  }
+}
@@ -0,0 +1,249 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.QodApiException;
+import com.camara.model.EventOverflowPolicy;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dispatches events to the eventhub with a fixed number of workers from a bounded queue.
+ *
+ * <p>If the queue is full, {@code qod.eventhub.dispatch.overflow-policy} decides: {@link EventOverflowPolicy#BLOCK} lets the
+ * caller wait, {@link EventOverflowPolicy#DROP_OLDEST} discards the oldest queued event and {@link EventOverflowPolicy#SPILL}
+ * stores the event in the {@link EventOutbox}, from where it is relayed later. So a burst of notifications, e.g. after a mass
+ * expiry, can not exhaust the memory.
+ */
+@Component
+@Slf4j
+public class EventDispatcher {
+
+  private final EventOutbox eventOutbox;
+  private final EventOverflowPolicy overflowPolicy;
+  private final int workerCount;
+  private final BlockingQueue<DispatchTask> queue;
+  private final ExecutorService workers;
+  private final Timer dispatchLatency;
+  private final Counter failedEvents;
+  private final Counter droppedEvents;
+  private final Counter spilledEvents;
+  private volatile Function<SessionInfo, CompletableFuture<Void>> handler;
+
+  /**
+   * Creates the dispatcher. The workers are started with {@link #start(Function)}.
+   *
+   * @param qodConfig     the {@link QodConfig}
+   * @param eventOutbox   the {@link EventOutbox} for spilled events
+   * @param meterRegistry the {@link MeterRegistry} for queue depth, dispatch latency and failed, dropped and spilled events
+   */
+  public EventDispatcher(QodConfig qodConfig, EventOutbox eventOutbox, MeterRegistry meterRegistry) {
+    this.eventOutbox = eventOutbox;
+    this.overflowPolicy = qodConfig.getEventDispatchOverflowPolicy();
+    this.workerCount = qodConfig.getEventDispatchWorkers();
+    this.queue = new ArrayBlockingQueue<>(qodConfig.getEventDispatchQueueCapacity());
+
+    ThreadFactory threadFactory = qodConfig.isVirtualThreadsEnabled()
+        ? Thread.ofVirtual().name("event-dispatcher-", 0).factory()
+        : new ThreadFactoryBuilder().setNameFormat("event-dispatcher-%d").setDaemon(true).build();
+    this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+
+    Gauge.builder("qod.eventhub.dispatch.queued", queue, BlockingQueue::size)
+        .description("Number of events waiting for dispatch")
+        .register(meterRegistry);
+    this.dispatchLatency = Timer.builder("qod.eventhub.dispatch.latency")
+        .description("Time from queueing an event until its dispatch completed")
+        .register(meterRegistry);
+    this.failedEvents = Counter.builder("qod.eventhub.dispatch.failed")
+        .description("Number of events, which could not be dispatched")
+        .register(meterRegistry);
+    this.droppedEvents = Counter.builder("qod.eventhub.dispatch.dropped")
+        .description("Number of events dropped, because the queue was full")
+        .register(meterRegistry);
+    this.spilledEvents = Counter.builder("qod.eventhub.dispatch.spilled")
+        .description("Number of events stored in the outbox, because the queue was full")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts the workers.
+   *
+   * @param handler sends a single event and completes, when it is delivered
+   */
+  public synchronized void start(Function<SessionInfo, CompletableFuture<Void>> handler) {
+    if (this.handler != null) {
+      throw new IllegalStateException("The event dispatcher is already started");
+    }
+    this.handler = handler;
+    for (int i = 0; i < workerCount; i++) {
+      workers.execute(this::work);
+    }
+  }
+
+  /**
+   * Queues an event for dispatch.
+   *
+   * @param sessionInfo the {@link SessionInfo} of the event
+   * @return completes when the event is delivered or, with {@link EventOverflowPolicy#SPILL}, stored in the outbox
+   */
+  public CompletableFuture<Void> dispatch(SessionInfo sessionInfo) {
+    DispatchTask task = new DispatchTask(sessionInfo, System.nanoTime(), new CompletableFuture<>());
+    if (queue.offer(task)) {
+      return task.result();
+    }
+    switch (overflowPolicy) {
+      case BLOCK -> enqueueBlocking(task);
+      case DROP_OLDEST -> enqueueDroppingOldest(task);
+      case SPILL -> spill(task);
+    }
+    return task.result();
+  }
+
+  /**
+   * Queues an event for dispatch, if the queue has capacity. The overflow policy is not applied.
+   *
+   * @param sessionInfo the {@link SessionInfo} of the event
+   * @return completes when the event is delivered, empty if the queue is full
+   */
+  public Optional<CompletableFuture<Void>> tryDispatch(SessionInfo sessionInfo) {
+    DispatchTask task = new DispatchTask(sessionInfo, System.nanoTime(), new CompletableFuture<>());
+    return queue.offer(task) ? Optional.of(task.result()) : Optional.empty();
+  }
+
+  /**
+   * Returns the number of queued events.
+   *
+   * @return number of queued events
+   */
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the number of events, which can be queued without reaching the capacity.
+   *
+   * @return remaining capacity of the queue
+   */
+  public int getRemainingCapacity() {
+    return queue.remainingCapacity();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.shutdownNow();
+    if (!queue.isEmpty()) {
+      log.warn("Event dispatcher stopped with <{}> undispatched events", queue.size());
+    }
+  }
+
+  private void work() {
+    while (!Thread.currentThread().isInterrupted()) {
+      DispatchTask task;
+      try {
+        task = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      deliver(task);
+    }
+  }
+
+  private void deliver(DispatchTask task) {
+    CompletableFuture<Void> delivery;
+    try {
+      delivery = handler.apply(task.sessionInfo());
+    } catch (RuntimeException e) {
+      delivery = CompletableFuture.failedFuture(e);
+    }
+    delivery.whenComplete((result, error) -> complete(task, error));
+  }
+
+  private void complete(DispatchTask task, Throwable error) {
+    dispatchLatency.record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+    if (error == null) {
+      task.result().complete(null);
+      return;
+    }
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    failedEvents.increment();
+    log.error("Dispatch of event for QoD session {} failed: {}", task.sessionInfo().getSessionId(), cause.getMessage());
+    task.result().completeExceptionally(cause);
+  }
+
+  private void enqueueBlocking(DispatchTask task) {
+    try {
+      queue.put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      task.result().completeExceptionally(e);
+    }
+  }
+
+  private void enqueueDroppingOldest(DispatchTask task) {
+    while (!queue.offer(task)) {
+      DispatchTask oldest = queue.poll();
+      if (oldest != null) {
+        droppedEvents.increment();
+        log.warn("Dropped event for QoD session {}, because the dispatch queue is full", oldest.sessionInfo().getSessionId());
+        oldest.result().completeExceptionally(
+            new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "The event was dropped, because the dispatch queue is full"));
+      }
+    }
+  }
+
+  private void spill(DispatchTask task) {
+    try {
+      eventOutbox.store(task.sessionInfo());
+      spilledEvents.increment();
+      task.result().complete(null);
+    } catch (RuntimeException e) {
+      failedEvents.increment();
+      log.error("Spilling of event for QoD session {} failed: {}", task.sessionInfo().getSessionId(), e.getMessage());
+      task.result().completeExceptionally(e);
+    }
+  }
+
+  private record DispatchTask(SessionInfo sessionInfo, long enqueuedAt, CompletableFuture<Void> result) {
+
+  }
+}
@@ -23,30 +23,25 @@
 
 package com.camara.service;
 
-import com.camara.exception.QodApiException;
-import com.camara.feign.EventHubClient;
 import com.camara.kafka.CloudEventProducer;
 import com.camara.model.CloudEventData;
+import com.camara.model.EncodedCloudEvent;
 import com.camara.quality_on_demand.api.model.CloudEvent.TypeEnum;
 import com.camara.quality_on_demand.api.model.EventQosStatus;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.SessionInfo;
 import com.camara.quality_on_demand.api.model.SinkCredential;
 import com.camara.quality_on_demand.api.model.StatusInfo;
-import com.camara.util.CloudEventSerializer;
+import com.camara.util.CloudEventEncoder;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import feign.FeignException;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
-import io.cloudevents.core.format.EventFormat;
-import io.cloudevents.core.provider.EventFormatProvider;
-import io.cloudevents.jackson.JsonFormat;
+import jakarta.annotation.PostConstruct;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import lombok.Generated;
@@ -55,9 +50,7 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
@@ -71,31 +64,78 @@ public class EventHubService {
   @Value("${qod.eventhub.horizon}")
   private boolean isEventhubHorizonConfigured;
 
-  private final EventHubClient eventHubClient;
+  @Value("${qod.eventhub.outbox.enabled}")
+  private boolean isOutboxEnabled;
+
+  private final HorizonEventSender horizonEventSender;
+
+  private final EventDispatcher eventDispatcher;
+
+  private final EventOutbox eventOutbox;
 
   @Value("${qod.cloud-event.source.url}")
   private String cloudEventSourceUrl;
 
+  @PostConstruct
+  void startDispatcher() {
+    eventDispatcher.start(this::deliverEvent);
+  }
+
   /**
-   * Sends an event with {@link StatusInfo}.
+   * Stores an event with {@link StatusInfo} in the outbox or, if the outbox is disabled, queues it for dispatch.
    *
    * @param sessionInfo {@link SessionInfo}
+   * @return completes when the event is stored or sent, or fails with the cause of the failed dispatch
    */
-  @SneakyThrows
-  @Async
   public CompletableFuture<Void> sendEvent(SessionInfo sessionInfo) {
-    CompletableFuture<Void> completableFuture = CompletableFuture.completedFuture(null);
     if (isSinkMissing(sessionInfo)) {
-      return completableFuture;
+      return CompletableFuture.completedFuture(null);
+    }
+    if (isOutboxEnabled) {
+      eventOutbox.store(sessionInfo);
+      return CompletableFuture.completedFuture(null);
+    }
+    return eventDispatcher.dispatch(sessionInfo);
+  }
+
+  /**
+   * Stores several events in the outbox with one batched write or, if the outbox is disabled, queues them for dispatch.
+   *
+   * @param sessionInfos the {@link SessionInfo} of every event
+   * @return completes when all events are stored or sent, or fails with the cause of the first failed dispatch
+   */
+  public CompletableFuture<Void> sendEvents(List<SessionInfo> sessionInfos) {
+    List<SessionInfo> events = sessionInfos.stream()
+        .filter(sessionInfo -> !isSinkMissing(sessionInfo))
+        .toList();
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
     }
-    var cloudEvent = buildCloudEvent(sessionInfo);
-    logCloudEvent(cloudEvent);
+    if (isOutboxEnabled) {
+      eventOutbox.storeAll(events);
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.allOf(events.stream()
+        .map(eventDispatcher::dispatch)
+        .toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Sends an event with {@link StatusInfo}, called by the workers of the {@link EventDispatcher}.
+   *
+   * @param sessionInfo {@link SessionInfo}
+   * @return completes when the event is acknowledged by the eventhub
+   */
+  CompletableFuture<Void> deliverEvent(SessionInfo sessionInfo) {
+    if (isSinkMissing(sessionInfo)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    var encodedEvent = CloudEventEncoder.encode(buildCloudEvent(sessionInfo));
+    log.info("Sending Cloud Event: {}", encodedEvent);
     if (isEventhubHorizonConfigured) {
-      sendCloudEventHorizon(cloudEvent);
-    } else {
-      sendCloudEventKafka(cloudEvent, sessionInfo.getSinkCredential());
+      return horizonEventSender.send(encodedEvent);
     }
-    return completableFuture;
+    return sendCloudEventKafka(sessionInfo.getSessionId().toString(), encodedEvent, sessionInfo.getSinkCredential());
   }
 
   private static boolean isSinkMissing(SessionInfo sessionInfo) {
@@ -103,22 +143,16 @@ public class EventHubService {
     return StringUtils.isEmpty(sink);
   }
 
-  private void sendCloudEventKafka(CloudEvent cloudEvent, SinkCredential sinkCredential) {
+  /**
+   * Hands the event over to the Kafka producer without blocking the worker, so that the producer can batch the events of
+   * concurrent dispatches.
+   */
+  private CompletableFuture<Void> sendCloudEventKafka(String sessionId, EncodedCloudEvent encodedEvent,
+      SinkCredential sinkCredential) {
     if (sinkCredential != null) {
-      cloudEventProducer.sendEventWithAuthorization(cloudEvent, sinkCredential);
-    } else {
-      cloudEventProducer.sendEvent(cloudEvent);
-    }
-  }
-
-  private void sendCloudEventHorizon(CloudEvent cloudEvent) {
-    try {
-      var cloudEventAsJson = writeCloudEventAsJsonString(cloudEvent);
-      eventHubClient.sendEvent(cloudEventAsJson);
-    } catch (FeignException e) {
-      log.error(e.getMessage());
-      throw new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "The eventhub service is currently not available");
+      return cloudEventProducer.sendEventWithAuthorization(sessionId, encodedEvent, sinkCredential);
     }
+    return cloudEventProducer.sendEvent(sessionId, encodedEvent);
   }
 
   @Generated
@@ -142,27 +176,7 @@ public class EventHubService {
         .withSource(URI.create(cloudEventSourceUrl + "/" + session.getSessionId()))
         .withTime(OffsetDateTime.now(ZoneOffset.UTC).withNano(0))
         .withDataContentType(MediaType.APPLICATION_JSON_VALUE)
-        .withData(objectMapper.writeValueAsString(cloudEventData).getBytes(StandardCharsets.UTF_8));
+        .withData(objectMapper.writeValueAsBytes(cloudEventData));
     return cloudEventBuilder.build();
   }
-
-
-  private void logCloudEvent(CloudEvent cloudEvent) {
-    EventFormat format = EventFormatProvider.getInstance().resolveFormat(JsonFormat.CONTENT_TYPE);
-    if (format != null) {
-      log.info("Sending Cloud Event: {}", new String(format.serialize(cloudEvent), StandardCharsets.UTF_8));
-    }
-
-  }
-
-  @Generated
-  @SneakyThrows
-  private static String writeCloudEventAsJsonString(CloudEvent cloudEvent) {
-    ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(CloudEvent.class, new CloudEventSerializer());
-    mapper.registerModule(module);
-    return mapper.writeValueAsString(cloudEvent);
-  }
-
 }
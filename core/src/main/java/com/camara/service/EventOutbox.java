@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.camara.entity.PendingEvent;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import com.camara.repository.PendingEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores events in the outbox, from where they are relayed to the eventhub by the {@link EventOutboxRelay}.
+ */
+@RequiredArgsConstructor
+@Service
+public class EventOutbox {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  private final PendingEventRepository pendingEventRepository;
+  private final ExpirationLeaseService leaseService;
+
+  /**
+   * Stores an event in the outbox.
+   *
+   * @param sessionInfo the {@link SessionInfo} of the event
+   */
+  public void store(SessionInfo sessionInfo) {
+    pendingEventRepository.save(toPendingEvent(sessionInfo, Instant.now()));
+  }
+
+  /**
+   * Stores several events in the outbox with one batched write.
+   *
+   * @param sessionInfos the {@link SessionInfo} of every event
+   */
+  public void storeAll(List<SessionInfo> sessionInfos) {
+    Instant now = Instant.now();
+    pendingEventRepository.insert(sessionInfos.stream()
+        .map(sessionInfo -> toPendingEvent(sessionInfo, now))
+        .toList());
+  }
+
+  @SneakyThrows
+  private PendingEvent toPendingEvent(SessionInfo sessionInfo, Instant now) {
+    String sessionId = String.valueOf(sessionInfo.getSessionId());
+    return PendingEvent.builder()
+        .sessionId(sessionId)
+        .partition(leaseService.partitionOf(sessionId))
+        .payload(objectMapper.writeValueAsString(sessionInfo))
+        .createdAt(now)
+        .nextAttemptAt(now)
+        .build();
+  }
+
+  /**
+   * Reads the {@link SessionInfo} of a stored event.
+   *
+   * @param pendingEvent the {@link PendingEvent}
+   * @return the {@link SessionInfo}
+   * @throws JsonProcessingException if the payload is not readable
+   */
+  public SessionInfo readSessionInfo(PendingEvent pendingEvent) throws JsonProcessingException {
+    return objectMapper.readValue(pendingEvent.getPayload(), SessionInfo.class);
+  }
+}
@@ -0,0 +1,212 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.entity.PendingEvent;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import com.camara.repository.PendingEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+/**
+ * Relays the events of the {@link EventOutbox} in batches to the {@link EventDispatcher}.
+ *
+ * <p>Only the events of the partitions leased by this node are relayed, and the events of a session are relayed one after
+ * another, so that their order is preserved. An event is removed from the outbox after its delivery. Failed events are retried
+ * with an exponential backoff, later events of the same session wait for them. After {@code qod.eventhub.outbox.max-attempts}
+ * the event is discarded.
+ */
+@Service
+@Slf4j
+public class EventOutboxRelay {
+
+  private final PendingEventRepository pendingEventRepository;
+  private final EventOutbox eventOutbox;
+  private final EventDispatcher eventDispatcher;
+  private final ExpirationLeaseService leaseService;
+  private final int batchSize;
+  private final Duration retryBackoff;
+  private final Duration maxRetryBackoff;
+  private final int maxAttempts;
+  private final ScheduledExecutorService relayThread;
+  private final Timer relayLag;
+  private final Counter retriedEvents;
+  private final Counter discardedEvents;
+
+  /**
+   * Creates and starts the relay.
+   *
+   * @param qodConfig              the {@link QodConfig}
+   * @param pendingEventRepository the {@link PendingEventRepository}
+   * @param eventOutbox            the {@link EventOutbox}
+   * @param eventDispatcher        the {@link EventDispatcher}
+   * @param leaseService           the {@link ExpirationLeaseService} for the partitions of this node
+   * @param meterRegistry          the {@link MeterRegistry} for relay lag, retried and discarded events
+   */
+  public EventOutboxRelay(QodConfig qodConfig, PendingEventRepository pendingEventRepository, EventOutbox eventOutbox,
+      EventDispatcher eventDispatcher, ExpirationLeaseService leaseService, MeterRegistry meterRegistry) {
+    this.pendingEventRepository = pendingEventRepository;
+    this.eventOutbox = eventOutbox;
+    this.eventDispatcher = eventDispatcher;
+    this.leaseService = leaseService;
+    this.batchSize = qodConfig.getEventOutboxBatchSize();
+    this.retryBackoff = Duration.ofSeconds(qodConfig.getEventOutboxRetryBackoffInSeconds());
+    this.maxRetryBackoff = Duration.ofSeconds(qodConfig.getEventOutboxMaxRetryBackoffInSeconds());
+    this.maxAttempts = qodConfig.getEventOutboxMaxAttempts();
+
+    this.relayLag = Timer.builder("qod.eventhub.outbox.lag")
+        .description("Time from storing an event in the outbox until its delivery")
+        .register(meterRegistry);
+    this.retriedEvents = Counter.builder("qod.eventhub.outbox.retried")
+        .description("Number of failed deliveries, which are retried")
+        .register(meterRegistry);
+    this.discardedEvents = Counter.builder("qod.eventhub.outbox.discarded")
+        .description("Number of events discarded after the maximum number of attempts")
+        .register(meterRegistry);
+
+    this.relayThread = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("outbox-relay").setDaemon(true).build());
+    long pollInterval = qodConfig.getEventOutboxPollIntervalInMillis();
+    relayThread.scheduleWithFixedDelay(this::relay, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    relayThread.shutdownNow();
+  }
+
+  /**
+   * Relays the oldest due events of the owned partitions and waits, until they are handled.
+   *
+   * @return the number of delivered events
+   */
+  int relayBatch() {
+    Set<Integer> partitions = leaseService.getOwnedPartitions();
+    int limit = Math.min(batchSize, eventDispatcher.getRemainingCapacity());
+    if (partitions.isEmpty() || limit <= 0) {
+      return 0;
+    }
+    Instant now = Instant.now();
+    List<PendingEvent> dueEvents = pendingEventRepository
+        .findByPartitionInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(partitions, now, Limit.of(limit));
+    if (dueEvents.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, List<PendingEvent>> eventsBySession = dueEvents.stream()
+        .collect(Collectors.groupingBy(PendingEvent::getSessionId, LinkedHashMap::new, Collectors.toList()));
+    pendingEventRepository.findBySessionIdInAndNextAttemptAtAfter(eventsBySession.keySet(), now)
+        .forEach(waitingEvent -> eventsBySession.remove(waitingEvent.getSessionId()));
+
+    List<CompletableFuture<Integer>> relayedSessions = eventsBySession.values().stream()
+        .map(sessionEvents -> relayInOrder(sessionEvents, 0))
+        .toList();
+    return relayedSessions.stream().mapToInt(CompletableFuture::join).sum();
+  }
+
+  private void relay() {
+    try {
+      relayBatch();
+    } catch (RuntimeException e) {
+      log.error("Error while relaying the event outbox", e);
+    }
+  }
+
+  /**
+   * Relays the events of a session one after another, starting at the given index. The remaining events are skipped, if an event
+   * is not delivered.
+   *
+   * @return the number of delivered events
+   */
+  private CompletableFuture<Integer> relayInOrder(List<PendingEvent> sessionEvents, int index) {
+    if (index >= sessionEvents.size()) {
+      return CompletableFuture.completedFuture(index);
+    }
+    return relay(sessionEvents.get(index)).thenCompose(delivered -> Boolean.TRUE.equals(delivered)
+        ? relayInOrder(sessionEvents, index + 1)
+        : CompletableFuture.completedFuture(index));
+  }
+
+  private CompletableFuture<Boolean> relay(PendingEvent pendingEvent) {
+    SessionInfo sessionInfo;
+    try {
+      sessionInfo = eventOutbox.readSessionInfo(pendingEvent);
+    } catch (JsonProcessingException e) {
+      discard(pendingEvent, e.getMessage());
+      return CompletableFuture.completedFuture(false);
+    }
+    return eventDispatcher.tryDispatch(sessionInfo)
+        .map(delivery -> delivery.handle((result, error) -> {
+          if (error != null) {
+            retryLater(pendingEvent, error.getMessage());
+            return false;
+          }
+          pendingEventRepository.deleteById(pendingEvent.getId());
+          relayLag.record(Duration.between(pendingEvent.getCreatedAt(), Instant.now()));
+          return true;
+        }))
+        // the queue is full, the event stays due and is relayed with the next batch
+        .orElseGet(() -> CompletableFuture.completedFuture(false));
+  }
+
+  private void retryLater(PendingEvent pendingEvent, String reason) {
+    int attempts = pendingEvent.getAttempts() + 1;
+    if (attempts >= maxAttempts) {
+      discard(pendingEvent, reason);
+      return;
+    }
+    Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+    pendingEvent.setAttempts(attempts);
+    pendingEvent.setNextAttemptAt(Instant.now().plus(backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff));
+    pendingEventRepository.save(pendingEvent);
+    retriedEvents.increment();
+    log.warn("Delivery of event for QoD session {} failed <{}> times, retry at {}", pendingEvent.getSessionId(), attempts,
+        pendingEvent.getNextAttemptAt());
+  }
+
+  private void discard(PendingEvent pendingEvent, String reason) {
+    pendingEventRepository.deleteById(pendingEvent.getId());
+    discardedEvents.increment();
+    log.error("Discarded event for QoD session {} after <{}> attempts: {}", pendingEvent.getSessionId(),
+        pendingEvent.getAttempts() + 1, reason);
+  }
+}
@@ -0,0 +1,186 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.entity.ExpirationLease;
+import com.camara.entity.ExpirationNode;
+import com.camara.repository.ExpirationLeaseRepository;
+import com.camara.repository.ExpirationLeaseRepositoryCustom.ClaimResult;
+import com.camara.repository.ExpirationNodeRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Manages the leases of this node on the partitions of the QoS sessions.
+ *
+ * <p>Every session belongs to one of {@code qod.expiration.partitions} partitions. Each node claims up to its fair share of
+ * partitions (partitions divided by live nodes) and renews the leases on every expiration check. Leases of nodes that
+ * disappear run out after {@code qod.expiration.lease-time} and are claimed by the remaining nodes.
+ */
+@Service
+@Slf4j
+public class ExpirationLeaseService {
+
+  private final ExpirationLeaseRepository leaseRepository;
+  private final ExpirationNodeRepository nodeRepository;
+  private final int partitionCount;
+  private final Duration leaseTime;
+  private final Map<Integer, Instant> ownedPartitions = new ConcurrentHashMap<>();
+
+  @Getter
+  private final String nodeId;
+
+  /**
+   * Creates the lease service with a unique ID for this node.
+   *
+   * @param qodConfig        the {@link QodConfig}
+   * @param leaseRepository  the {@link ExpirationLeaseRepository}
+   * @param nodeRepository   the {@link ExpirationNodeRepository}
+   */
+  public ExpirationLeaseService(QodConfig qodConfig, ExpirationLeaseRepository leaseRepository, ExpirationNodeRepository nodeRepository) {
+    this.leaseRepository = leaseRepository;
+    this.nodeRepository = nodeRepository;
+    this.partitionCount = qodConfig.getQosExpirationPartitions();
+    this.leaseTime = Duration.ofSeconds(qodConfig.getQosExpirationLeaseTimeInSeconds());
+    this.nodeId = Objects.requireNonNullElse(System.getenv("HOSTNAME"), "qod") + "-" + UUID.randomUUID();
+  }
+
+  /**
+   * Returns the partition of a session.
+   *
+   * @param sessionId the session-ID
+   * @return the partition
+   */
+  public int partitionOf(String sessionId) {
+    return Math.floorMod(sessionId.hashCode(), partitionCount);
+  }
+
+  /**
+   * Checks if this node holds a valid lease on the given partition.
+   *
+   * @param partition the partition
+   * @return true, if the lease is owned and not expired
+   */
+  public boolean isOwner(int partition) {
+    Instant leaseUntil = ownedPartitions.get(partition);
+    return leaseUntil != null && Instant.now().isBefore(leaseUntil);
+  }
+
+  /**
+   * Returns the partitions currently leased by this node.
+   *
+   * @return the owned partitions
+   */
+  public Set<Integer> getOwnedPartitions() {
+    return Set.copyOf(ownedPartitions.keySet());
+  }
+
+  /**
+   * Renews the leases of this node, releases partitions above the fair share and claims free partitions up to the fair share.
+   *
+   * @return the partitions which were newly acquired by this node
+   */
+  public Set<Integer> refreshLeases() {
+    Instant now = Instant.now();
+    Instant leaseUntil = now.plus(leaseTime);
+
+    nodeRepository.save(new ExpirationNode(nodeId, now));
+    long liveNodes = Math.max(1, nodeRepository.countByLastSeenAfter(now.minus(leaseTime)));
+    int fairShare = (int) Math.ceilDiv(partitionCount, liveNodes);
+
+    List<Integer> renewablePartitions = new ArrayList<>(ownedPartitions.keySet());
+    Collections.sort(renewablePartitions);
+    while (renewablePartitions.size() > fairShare) {
+      int partition = renewablePartitions.removeLast();
+      leaseRepository.release(partition, nodeId);
+      ownedPartitions.remove(partition);
+      log.info("Released expiration partition <{}> for rebalancing", partition);
+    }
+
+    for (int partition : renewablePartitions) {
+      if (leaseRepository.tryClaim(partition, nodeId, now, leaseUntil) == ClaimResult.UNAVAILABLE) {
+        ownedPartitions.remove(partition);
+        log.warn("Lost lease on expiration partition <{}>", partition);
+      } else {
+        ownedPartitions.put(partition, leaseUntil);
+      }
+    }
+
+    Set<Integer> acquiredPartitions = new HashSet<>();
+    if (ownedPartitions.size() < fairShare) {
+      Map<Integer, ExpirationLease> leases = leaseRepository.findAll().stream()
+          .collect(Collectors.toMap(ExpirationLease::getPartition, Function.identity()));
+      // start at a random partition, so that nodes do not compete for the same free partitions
+      int offset = ThreadLocalRandom.current().nextInt(partitionCount);
+      for (int i = 0; i < partitionCount && ownedPartitions.size() < fairShare; i++) {
+        int partition = (offset + i) % partitionCount;
+        ExpirationLease lease = leases.get(partition);
+        boolean isLeased = lease != null && lease.getLeaseUntil() != null && lease.getLeaseUntil().isAfter(now);
+        if (ownedPartitions.containsKey(partition) || isLeased) {
+          continue;
+        }
+        if (leaseRepository.tryClaim(partition, nodeId, now, leaseUntil) != ClaimResult.UNAVAILABLE) {
+          ownedPartitions.put(partition, leaseUntil);
+          acquiredPartitions.add(partition);
+        }
+      }
+    }
+    if (!acquiredPartitions.isEmpty()) {
+      log.info("Acquired expiration partitions {}", acquiredPartitions);
+    }
+    return acquiredPartitions;
+  }
+
+  /**
+   * Releases all leases on shutdown, so that other nodes can take over without waiting for the leases to expire.
+   */
+  @PreDestroy
+  public void releaseLeases() {
+    ownedPartitions.keySet().forEach(partition -> {
+      try {
+        leaseRepository.release(partition, nodeId);
+      } catch (RuntimeException e) {
+        log.warn("Could not release expiration partition <{}>: {}", partition, e.getMessage());
+      }
+    });
+    ownedPartitions.clear();
+  }
+}
@@ -0,0 +1,217 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashed timing wheel, which holds the deadlines of all pending expiration tasks.
+ *
+ * <p>A single ticker thread advances the wheel every tick and hands due tasks over to a small, fixed worker pool, or to a virtual
+ * thread per task if virtual threads are enabled. Tasks are identified by a key (e.g. the session-ID), scheduling a key again
+ * replaces the pending task.
+ */
+@Component
+@Slf4j
+public class ExpirationScheduler {
+
+  private final long tickMillis;
+  private final int mask;
+  private final Queue<ExpirationTimeout>[] wheel;
+  private final Queue<ExpirationTimeout> newTimeouts = new ConcurrentLinkedQueue<>();
+  private final Map<String, ExpirationTimeout> pendingTimeouts = new ConcurrentHashMap<>();
+  private final long startTime;
+  private final ScheduledExecutorService ticker;
+  private final ExecutorService workers;
+  private final Timer firingLag;
+  private long tick;
+
+  /**
+   * Creates and starts the scheduler.
+   *
+   * @param qodConfig     the {@link QodConfig}
+   * @param meterRegistry the {@link MeterRegistry} for queue depth and firing lag
+   */
+  @SuppressWarnings("unchecked")
+  public ExpirationScheduler(QodConfig qodConfig, MeterRegistry meterRegistry) {
+    this.tickMillis = qodConfig.getQosExpirationSchedulerTickMillis();
+    int wheelSize = Integer.highestOneBit(Math.max(qodConfig.getQosExpirationSchedulerWheelSize() - 1, 1)) << 1;
+    this.mask = wheelSize - 1;
+    this.wheel = new Queue[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      wheel[i] = new ArrayDeque<>();
+    }
+    this.startTime = System.currentTimeMillis();
+
+    this.workers = qodConfig.isVirtualThreadsEnabled()
+        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("expiration-worker-", 0).factory())
+        : Executors.newFixedThreadPool(qodConfig.getQosExpirationSchedulerWorkers(),
+            new ThreadFactoryBuilder().setNameFormat("expiration-worker-%d").setDaemon(true).build());
+    this.ticker = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("expiration-ticker").setDaemon(true).build());
+
+    Gauge.builder("qod.expiration.pending", pendingTimeouts, Map::size)
+        .description("Number of expiration tasks waiting for their deadline")
+        .register(meterRegistry);
+    this.firingLag = Timer.builder("qod.expiration.lag")
+        .description("Delay between the deadline of an expiration task and its execution")
+        .register(meterRegistry);
+
+    ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules a task for the given deadline. A pending task with the same key is cancelled.
+   *
+   * @param key      the key of the task, e.g. the session-ID
+   * @param deadline the time at which the task shall be executed
+   * @param task     the task
+   */
+  public void schedule(String key, Instant deadline, Runnable task) {
+    ExpirationTimeout timeout = new ExpirationTimeout(key, deadline.toEpochMilli(), task);
+    ExpirationTimeout replaced = pendingTimeouts.put(key, timeout);
+    if (replaced != null) {
+      replaced.cancelled = true;
+    }
+    newTimeouts.add(timeout);
+  }
+
+  /**
+   * Cancels the pending task with the given key.
+   *
+   * @param key the key of the task
+   * @return true, if a pending task was cancelled
+   */
+  public boolean cancel(String key) {
+    ExpirationTimeout timeout = pendingTimeouts.remove(key);
+    if (timeout == null) {
+      return false;
+    }
+    timeout.cancelled = true;
+    return true;
+  }
+
+  /**
+   * Returns the number of pending tasks.
+   *
+   * @return number of pending tasks
+   */
+  public int getPendingCount() {
+    return pendingTimeouts.size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  /**
+   * Processes all buckets up to the current time. Only called by the ticker thread.
+   */
+  private void advance() {
+    try {
+      long currentTick = (System.currentTimeMillis() - startTime) / tickMillis;
+      while (tick <= currentTick) {
+        transferNewTimeouts();
+        expireBucket(wheel[(int) (tick & mask)]);
+        tick++;
+      }
+    } catch (RuntimeException e) {
+      log.error("Error while advancing the expiration wheel", e);
+    }
+  }
+
+  private void transferNewTimeouts() {
+    ExpirationTimeout timeout;
+    while ((timeout = newTimeouts.poll()) != null) {
+      if (timeout.cancelled) {
+        continue;
+      }
+      long deadlineTick = Math.max(Math.ceilDiv(timeout.deadline - startTime, tickMillis), tick);
+      timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+      wheel[(int) (deadlineTick & mask)].add(timeout);
+    }
+  }
+
+  private void expireBucket(Queue<ExpirationTimeout> bucket) {
+    Iterator<ExpirationTimeout> iterator = bucket.iterator();
+    while (iterator.hasNext()) {
+      ExpirationTimeout timeout = iterator.next();
+      if (timeout.cancelled) {
+        iterator.remove();
+      } else if (timeout.remainingRounds <= 0) {
+        iterator.remove();
+        workers.execute(() -> fire(timeout));
+      } else {
+        timeout.remainingRounds--;
+      }
+    }
+  }
+
+  private void fire(ExpirationTimeout timeout) {
+    if (timeout.cancelled || !pendingTimeouts.remove(timeout.key, timeout)) {
+      return;
+    }
+    firingLag.record(Math.max(System.currentTimeMillis() - timeout.deadline, 0), TimeUnit.MILLISECONDS);
+    try {
+      timeout.task.run();
+    } catch (RuntimeException e) {
+      log.error("Expiration task <{}> failed", timeout.key, e);
+    }
+  }
+
+  private static final class ExpirationTimeout {
+
+    private final String key;
+    private final long deadline;
+    private final Runnable task;
+    private volatile boolean cancelled;
+    private long remainingRounds;
+
+    private ExpirationTimeout(String key, long deadline, Runnable task) {
+      this.key = key;
+      this.deadline = deadline;
+      this.task = task;
+    }
+  }
+}
@@ -23,77 +23,112 @@
 
 package com.camara.service;
 
-import com.camara.entity.QosSession;
+import com.camara.entity.ExpiringSession;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.StatusInfo;
-import java.time.OffsetDateTime;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * Takes care of sessions, that will soon expire or are already expired.
+ *
+ * <p>The sessions are distributed to expiration partitions, which are leased by the nodes (see {@link ExpirationLeaseService}).
+ * Each node only handles the sessions of its own partitions. When a node acquires a partition, it reschedules the sessions
+ * already scheduled for deletion by the previous owner, so no deadline gets lost when a node disappears.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExpiredSessionMonitor {
 
+  private static final int BACKFILL_PARTITION = 0;
+
   private final SessionService sessionService;
+  private final ExpirationScheduler expirationScheduler;
+  private final ExpirationLeaseService expirationLeaseService;
 
   /**
    * Setup expiration listener to check for (almost) expired sessions.
    */
   @Scheduled(fixedDelayString = "${qod.expiration.trigger-interval}000")
-  @SchedulerLock(name = "expiredSessionMonitor")
   public void checkForExpiredSessions() {
     log.debug("Check for (almost) expired sessions...");
 
-    List<QosSession> qosSessionExpirationList = sessionService.getExpiringQosSessions();
-
-    if (CollectionUtils.isNotEmpty(qosSessionExpirationList)) {
-      log.info("QoS sessions which will soon expire: {}",
-          qosSessionExpirationList.stream()
-              .map(QosSession::getSessionId)
-              .toList());
-      qosSessionExpirationList.forEach(qosSession -> {
-        scheduleExpirationTask(qosSession);
-        qosSession.setScheduledForDeletion(true);
-        sessionService.save(qosSession);
-      });
+    Set<Integer> acquiredPartitions = expirationLeaseService.refreshLeases();
+    Set<Integer> ownedPartitions = expirationLeaseService.getOwnedPartitions();
+    if (ownedPartitions.isEmpty()) {
+      log.debug("No expiration partitions owned by this node");
+      return;
+    }
+
+    if (ownedPartitions.contains(BACKFILL_PARTITION)) {
+      sessionService.assignMissingPartitions();
+    }
+
+    if (!acquiredPartitions.isEmpty()) {
+      try (Stream<ExpiringSession> scheduledSessions = sessionService.getScheduledQosSessions(acquiredPartitions)) {
+        scheduledSessions.forEach(this::scheduleExpirationTask);
+      }
+    }
+
+    List<String> scheduledSessionIds = new ArrayList<>();
+    try (Stream<ExpiringSession> qosSessionExpirations = sessionService.getExpiringQosSessions(ownedPartitions)) {
+      qosSessionExpirations
+          // Sessions scheduled for deletion before are overdue, the others are only scheduled if they are not extended meanwhile
+          .map(qosSession -> qosSession.scheduledForDeletion()
+              ? Optional.of(qosSession)
+              : sessionService.markScheduledForDeletion(qosSession.sessionId()))
+          .flatMap(Optional::stream)
+          .forEach(qosSession -> {
+            scheduleExpirationTask(qosSession);
+            scheduledSessionIds.add(qosSession.sessionId());
+          });
+    }
+
+    if (CollectionUtils.isNotEmpty(scheduledSessionIds)) {
+      log.info("QoS sessions which will soon expire: {}", scheduledSessionIds);
     }
   }
 
-  private void scheduleExpirationTask(QosSession expiredQosSession) {
-    var expiresAt = OffsetDateTime.parse(expiredQosSession.getExpiresAt());
-    new Timer().schedule(new ExpiredSessionTask(expiredQosSession), Date.from(expiresAt.toInstant()));
+  private void scheduleExpirationTask(ExpiringSession expiredQosSession) {
+    expirationScheduler.schedule(expiredQosSession.sessionId(), expiredQosSession.expiresAt(), new ExpiredSessionTask(expiredQosSession));
   }
 
   /**
    * Class that deletes an expired session. Every almost expired session creates an instance of this class.
    */
   @RequiredArgsConstructor
-  class ExpiredSessionTask extends TimerTask {
+  class ExpiredSessionTask implements Runnable {
 
-    private final QosSession session;
+    private final ExpiringSession session;
 
     @Override
     public void run() {
-      var sessionId = session.getSessionId();
+      var sessionId = session.sessionId();
+      int partition = session.partition() != null ? session.partition() : expirationLeaseService.partitionOf(sessionId);
+      if (!expirationLeaseService.isOwner(partition)) {
+        log.info("QoD session {} expired, but partition <{}> is no longer owned by this node", sessionId, partition);
+        return;
+      }
       log.info("QoD session {} expired, deleting...", sessionId);
       StatusInfo statusInfo = determineStatusInfo(session);
-      sessionService.deleteAndNotify(sessionId, statusInfo);
+      sessionService.deleteAndNotify(sessionId, statusInfo)
+          .exceptionally(error -> {
+            log.error("Deletion of expired QoD session {} failed", sessionId, error);
+            return null;
+          });
     }
 
-    private static StatusInfo determineStatusInfo(QosSession session) {
-      return session.getQosStatus() == QosStatus.UNAVAILABLE
+    private static StatusInfo determineStatusInfo(ExpiringSession session) {
+      return session.qosStatus() == QosStatus.UNAVAILABLE
           ? StatusInfo.NETWORK_TERMINATED
           : StatusInfo.DURATION_EXPIRED;
     }
@@ -0,0 +1,180 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.QodApiException;
+import com.camara.feign.EventHubClient;
+import com.camara.model.EncodedCloudEvent;
+import com.camara.util.CloudEventEncoder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends events to the Horizon eventhub in micro-batches.
+ *
+ * <p>Events are collected until {@code qod.eventhub.horizon-batch.max-size} events are pending or the first pending event waited
+ * {@code qod.eventhub.horizon-batch.window} milliseconds. A full batch is sent by the thread adding the last event, an expired
+ * window by the batch timer. A batch of one event is sent as a single event, larger batches in the batched content mode of
+ * CloudEvents.
+ */
+@Service
+@Slf4j
+public class HorizonEventSender {
+
+  private final EventHubClient eventHubClient;
+  private final int maxBatchSize;
+  private final long batchWindowMillis;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ScheduledExecutorService batchTimer;
+  private final DistributionSummary batchSize;
+  private final Timer batchLatency;
+  private List<PendingCloudEvent> pendingEvents = new ArrayList<>();
+
+  /**
+   * Creates the sender.
+   *
+   * @param qodConfig      the {@link QodConfig}
+   * @param eventHubClient the {@link EventHubClient}
+   * @param meterRegistry  the {@link MeterRegistry} for batch size and latency
+   */
+  public HorizonEventSender(QodConfig qodConfig, EventHubClient eventHubClient, MeterRegistry meterRegistry) {
+    this.eventHubClient = eventHubClient;
+    this.maxBatchSize = Math.max(qodConfig.getHorizonBatchMaxSize(), 1);
+    this.batchWindowMillis = qodConfig.getHorizonBatchWindowInMillis();
+    this.batchTimer = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("horizon-batcher").setDaemon(true).build());
+
+    this.batchSize = DistributionSummary.builder("qod.eventhub.horizon.batch.size")
+        .description("Number of events per request to Horizon")
+        .register(meterRegistry);
+    this.batchLatency = Timer.builder("qod.eventhub.horizon.batch.latency")
+        .description("Duration of a request to Horizon")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Adds an event to the current batch.
+   *
+   * @param encodedEvent the {@link EncodedCloudEvent}
+   * @return completes when the batch of the event is accepted by Horizon
+   */
+  public CompletableFuture<Void> send(EncodedCloudEvent encodedEvent) {
+    PendingCloudEvent pendingEvent = new PendingCloudEvent(encodedEvent, new CompletableFuture<>());
+    List<PendingCloudEvent> fullBatch = null;
+    lock.lock();
+    try {
+      pendingEvents.add(pendingEvent);
+      if (pendingEvents.size() >= maxBatchSize) {
+        fullBatch = takeBatch();
+      } else if (pendingEvents.size() == 1) {
+        List<PendingCloudEvent> batch = pendingEvents;
+        batchTimer.schedule(() -> flush(batch), batchWindowMillis, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (fullBatch != null) {
+      post(fullBatch);
+    }
+    return pendingEvent.result();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    batchTimer.shutdownNow();
+    lock.lock();
+    List<PendingCloudEvent> batch;
+    try {
+      batch = takeBatch();
+    } finally {
+      lock.unlock();
+    }
+    if (!batch.isEmpty()) {
+      post(batch);
+    }
+  }
+
+  /**
+   * Sends the given batch, if it was not sent as a full batch in the meantime.
+   */
+  private void flush(List<PendingCloudEvent> batch) {
+    lock.lock();
+    try {
+      if (batch != pendingEvents) {
+        return;
+      }
+      takeBatch();
+    } finally {
+      lock.unlock();
+    }
+    post(batch);
+  }
+
+  private List<PendingCloudEvent> takeBatch() {
+    List<PendingCloudEvent> batch = pendingEvents;
+    pendingEvents = new ArrayList<>(maxBatchSize);
+    return batch;
+  }
+
+  private void post(List<PendingCloudEvent> batch) {
+    batchSize.record(batch.size());
+    long start = System.nanoTime();
+    RuntimeException failure = null;
+    try {
+      if (batch.size() == 1) {
+        eventHubClient.sendEvent(batch.getFirst().encodedEvent().getJson());
+      } else {
+        eventHubClient.sendEvents(CloudEventEncoder.encodeBatch(batch.stream().map(PendingCloudEvent::encodedEvent).toList()));
+      }
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    if (failure == null) {
+      batch.forEach(pendingEvent -> pendingEvent.result().complete(null));
+      return;
+    }
+    log.error("Sending of <{}> events to Horizon failed: {}", batch.size(), failure.getMessage());
+    QodApiException exception = new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "The eventhub service is currently not available");
+    batch.forEach(pendingEvent -> pendingEvent.result().completeExceptionally(exception));
+  }
+
+  private record PendingCloudEvent(EncodedCloudEvent encodedEvent, CompletableFuture<Void> result) {
+
+  }
+}
@@ -0,0 +1,172 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.ErrorCode;
+import com.camara.exception.QodApiException;
+import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers retries of a session creation with the response of the first request, so that a retry storm does not create further
+ * subscriptions on the network or repeat the validation and the conflict check.
+ *
+ * <p>Requests are identified by the client ID of the caller and the idempotency key of the request. A request is registered before
+ * it is processed, so retries arriving in the meantime wait for the same response instead of being processed concurrently. Only
+ * successful responses are kept for the configured window, a failed request may be retried. The response of a session is dropped,
+ * when the session is deleted. The responses are kept in memory of the node, which processed the request.
+ */
+@Component
+@Slf4j
+public class IdempotencyCache {
+
+  private final boolean enabled;
+  private final Cache<RequestKey, Entry> responses;
+  private final Map<String, RequestKey> requestKeysBySessionId = new ConcurrentHashMap<>();
+  private final TokenService tokenService;
+  private final Counter replayedRequests;
+
+  /**
+   * Creates the cache.
+   *
+   * @param qodConfig     the {@link QodConfig}
+   * @param tokenService  the {@link TokenService} to identify the client
+   * @param meterRegistry the {@link MeterRegistry} for replayed requests
+   */
+  public IdempotencyCache(QodConfig qodConfig, TokenService tokenService, MeterRegistry meterRegistry) {
+    this.enabled = qodConfig.isIdempotencyEnabled();
+    this.responses = CacheBuilder.newBuilder()
+        .maximumSize(qodConfig.getIdempotencyMaxSize())
+        .expireAfterWrite(Duration.ofSeconds(qodConfig.getIdempotencyWindowInSeconds()))
+        .removalListener(this::onRemoval)
+        .build();
+    this.tokenService = tokenService;
+    this.replayedRequests = Counter.builder("qod.sessions.idempotency.replays")
+        .description("Number of session creations answered with the response of a previous request with the same idempotency key")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Creates a session, unless a request of the same client with the same idempotency key was already received. Must be called on
+   * the thread of the incoming request.
+   *
+   * @param idempotencyKey the idempotency key of the request, the session is always created if {@code null}
+   * @param request        the request, before it is modified by the creation
+   * @param creation       creates the session
+   * @return the response of the first request with this key
+   * @throws QodApiException with 422, if the key was used for a different request
+   */
+  public CompletableFuture<SessionInfo> createOnce(String idempotencyKey, CreateSession request,
+      Supplier<CompletableFuture<SessionInfo>> creation) {
+    String clientId = tokenService.retrieveClientId();
+    if (!enabled || StringUtils.isEmpty(idempotencyKey) || StringUtils.isEmpty(clientId)) {
+      return creation.get();
+    }
+    RequestKey key = new RequestKey(clientId, idempotencyKey);
+    Entry entry = new Entry(fingerprint(request), new CompletableFuture<>());
+    Entry existingEntry = responses.asMap().putIfAbsent(key, entry);
+    if (existingEntry != null) {
+      if (!existingEntry.fingerprint().equals(entry.fingerprint())) {
+        throw new QodApiException(HttpStatus.UNPROCESSABLE_ENTITY, "The idempotency key was already used for a different request",
+            ErrorCode.INVALID_ARGUMENT);
+      }
+      log.info("Replaying the response of the session creation with idempotency key <{}>", idempotencyKey);
+      replayedRequests.increment();
+      return existingEntry.response();
+    }
+
+    CompletableFuture<SessionInfo> response;
+    try {
+      response = creation.get();
+    } catch (RuntimeException e) {
+      response = CompletableFuture.failedFuture(e);
+    }
+    response.whenComplete((sessionInfo, error) -> {
+      if (error != null) {
+        responses.asMap().remove(key, entry);
+        entry.response().completeExceptionally(error);
+      } else {
+        entry.response().complete(sessionInfo);
+        /* the response may have expired in the meantime, then its removal missed the session */
+        String sessionId = String.valueOf(sessionInfo.getSessionId());
+        requestKeysBySessionId.put(sessionId, key);
+        if (responses.getIfPresent(key) != entry) {
+          requestKeysBySessionId.remove(sessionId, key);
+        }
+      }
+    });
+    return entry.response();
+  }
+
+  /**
+   * Drops the response of a deleted session, so a retry with the same idempotency key creates a new session instead of replaying
+   * the deleted one.
+   *
+   * @param sessionId the ID of the deleted session
+   */
+  public void forget(String sessionId) {
+    RequestKey key = requestKeysBySessionId.remove(sessionId);
+    if (key != null) {
+      responses.invalidate(key);
+    }
+  }
+
+  private void onRemoval(RemovalNotification<RequestKey, Entry> notification) {
+    CompletableFuture<SessionInfo> response = notification.getValue().response();
+    if (response.isDone() && !response.isCompletedExceptionally()) {
+      requestKeysBySessionId.remove(String.valueOf(response.join().getSessionId()), notification.getKey());
+    }
+  }
+
+  /**
+   * The hash of the request is kept instead of the request, which may contain credentials.
+   */
+  private static String fingerprint(CreateSession request) {
+    return Hashing.sha256().hashString(request.toString(), StandardCharsets.UTF_8).toString();
+  }
+
+  private record RequestKey(String clientId, String idempotencyKey) {
+
+  }
+
+  private record Entry(String fingerprint, CompletableFuture<SessionInfo> response) {
+
+  }
+}
@@ -25,8 +25,19 @@ package com.camara.service;
 
 import com.camara.config.NetworkConfig;
 import com.camara.model.AccessTokenResponse;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -37,13 +48,49 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Provides the access token for the NEF/SCEF using the oauth2 client credentials flow.
+ *
+ * <p>The token is cached until shortly before it expires. Within {@code network.auth.oauth2.refresh-margin} before its expiry,
+ * the cached token is still returned while a new one is requested in the background. Only one token request is in flight at
+ * any time, concurrent callers wait for it instead of calling the token endpoint themselves.
+ */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class NetworkAccessTokenExchanger {
 
+  private static final Duration EXPIRY_SKEW = Duration.ofSeconds(5);
+
   private final RestTemplate restTemplate;
   private final NetworkConfig networkConfig;
+  private final AtomicReference<CompletableFuture<CachedToken>> inFlightRequest = new AtomicReference<>();
+  private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("network-token-refresh").setDaemon(true).build());
+  private final Counter cacheHits;
+  private final Counter cacheMisses;
+  private final Timer refreshLatency;
+  private volatile CachedToken cachedToken;
+
+  /**
+   * Creates the token exchanger.
+   *
+   * @param restTemplate  the {@link RestTemplate} for the token endpoint
+   * @param networkConfig the {@link NetworkConfig}
+   * @param meterRegistry the {@link MeterRegistry} for cache and refresh metrics
+   */
+  public NetworkAccessTokenExchanger(RestTemplate restTemplate, NetworkConfig networkConfig, MeterRegistry meterRegistry) {
+    this.restTemplate = restTemplate;
+    this.networkConfig = networkConfig;
+    this.cacheHits = Counter.builder("qod.network.token.requests").tag("result", "hit")
+        .description("Access token lookups served from the cache")
+        .register(meterRegistry);
+    this.cacheMisses = Counter.builder("qod.network.token.requests").tag("result", "miss")
+        .description("Access token lookups waiting for the token endpoint")
+        .register(meterRegistry);
+    this.refreshLatency = Timer.builder("qod.network.token.refresh")
+        .description("Latency of access token requests to the token endpoint")
+        .register(meterRegistry);
+  }
 
   private static MultiValueMap<String, String> createForm() {
     MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -52,21 +99,81 @@ public class NetworkAccessTokenExchanger {
   }
 
   /**
-   * Gets access token using oauth2 client credentials flow.
+   * Gets access token using oauth2 client credentials flow, from the cache if possible.
+   *
+   * @return the access token
+   */
+  public String getAccessToken() {
+    CachedToken token = cachedToken;
+    Instant now = Instant.now();
+    if (token != null && now.isBefore(token.validUntil())) {
+      cacheHits.increment();
+      if (!now.isBefore(token.refreshAt()) && inFlightRequest.get() == null) {
+        CompletableFuture.runAsync(this::refresh, refreshExecutor);
+      }
+      return token.value();
+    }
+    cacheMisses.increment();
+    try {
+      return refresh().join().value();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Requests a new token, unless a request is already in flight.
+   *
+   * @return the future of the requested token
    */
-  public String exchange() {
+  private CompletableFuture<CachedToken> refresh() {
+    CompletableFuture<CachedToken> request = new CompletableFuture<>();
+    CompletableFuture<CachedToken> runningRequest = inFlightRequest.compareAndExchange(null, request);
+    if (runningRequest != null) {
+      return runningRequest;
+    }
+    try {
+      CachedToken token = refreshLatency.record(this::exchange);
+      cachedToken = token;
+      request.complete(token);
+    } catch (RuntimeException e) {
+      log.warn("Requesting an access token from the token-provider failed: {}", e.getMessage());
+      request.completeExceptionally(e);
+    } finally {
+      inFlightRequest.set(null);
+    }
+    return request;
+  }
+
+  private CachedToken exchange() {
     HttpHeaders headers = createHeaders();
     MultiValueMap<String, String> params = createForm();
     HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
+    Instant requestedAt = Instant.now();
     ResponseEntity<AccessTokenResponse> response = restTemplate.postForEntity(networkConfig.getTokenEndpoint(), request,
         AccessTokenResponse.class);
     AccessTokenResponse accessTokenResponse = response.getBody();
-    if (accessTokenResponse != null) {
-      return accessTokenResponse.getAccessToken();
-    } else {
+    if (accessTokenResponse == null) {
       log.warn("No access-token provided from the token-provider.");
-      return "";
+      return new CachedToken("", requestedAt, requestedAt);
+    }
+    if (accessTokenResponse.getExpiresIn() == null) {
+      // without a lifetime, the token can not be cached
+      return new CachedToken(accessTokenResponse.getAccessToken(), requestedAt, requestedAt);
     }
+    Duration lifetime = Duration.ofSeconds(accessTokenResponse.getExpiresIn());
+    // short-lived tokens are refreshed after half and no longer used after three quarters of their lifetime
+    Duration refreshMargin = min(Duration.ofSeconds(networkConfig.getTokenRefreshMarginInSeconds()), lifetime.dividedBy(2));
+    Duration expirySkew = min(EXPIRY_SKEW, lifetime.dividedBy(4));
+    Instant expiresAt = requestedAt.plus(lifetime);
+    return new CachedToken(accessTokenResponse.getAccessToken(), expiresAt.minus(refreshMargin), expiresAt.minus(expirySkew));
+  }
+
+  private static Duration min(Duration duration, Duration other) {
+    return duration.compareTo(other) <= 0 ? duration : other;
   }
 
   private HttpHeaders createHeaders() {
@@ -76,4 +183,13 @@ public class NetworkAccessTokenExchanger {
     headers.setBasicAuth(networkConfig.getClientId(), networkConfig.getClientSecret());
     return headers;
   }
+
+  @PreDestroy
+  void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  private record CachedToken(String value, Instant refreshAt, Instant validUntil) {
+
+  }
 }
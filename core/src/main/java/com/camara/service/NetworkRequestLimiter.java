@@ -0,0 +1,158 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import com.camara.config.NetworkConfig;
+import com.camara.exception.QodApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds the number of NEF/SCEF requests in flight without blocking the caller.
+ *
+ * <p>Requests beyond the limit are queued and started as soon as a running request completes. If the queue is full as well, the
+ * request is rejected with 503, so that a slow NEF/SCEF does not pile up an unbounded backlog.
+ */
+@Component
+@Slf4j
+public class NetworkRequestLimiter {
+
+  private final int maxConcurrentRequests;
+  private final int maxQueuedRequests;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Queue<Runnable> queuedRequests = new ArrayDeque<>();
+  private final Counter rejectedRequests;
+  private int inFlightRequests;
+
+  /**
+   * Creates the limiter.
+   *
+   * @param networkConfig the {@link NetworkConfig}
+   * @param meterRegistry the {@link MeterRegistry} for requests in flight, queued and rejected requests
+   */
+  public NetworkRequestLimiter(NetworkConfig networkConfig, MeterRegistry meterRegistry) {
+    this.maxConcurrentRequests = networkConfig.getHttpMaxConcurrentRequests();
+    this.maxQueuedRequests = networkConfig.getHttpMaxQueuedRequests();
+
+    Gauge.builder("qod.network.requests.active", this, NetworkRequestLimiter::getInFlightRequests)
+        .description("Number of NEF/SCEF requests in flight")
+        .register(meterRegistry);
+    Gauge.builder("qod.network.requests.queued", this, NetworkRequestLimiter::getQueuedRequests)
+        .description("Number of NEF/SCEF requests waiting for a free slot")
+        .register(meterRegistry);
+    this.rejectedRequests = Counter.builder("qod.network.requests.rejected")
+        .description("Number of NEF/SCEF requests rejected, because the queue was full")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts the request, as soon as the number of requests in flight permits it.
+   *
+   * @param request starts the request and returns its pending response
+   * @param <T>     the type of the response
+   * @return the response of the request
+   */
+  public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+    CompletableFuture<T> response = new CompletableFuture<>();
+    lock.lock();
+    try {
+      if (inFlightRequests >= maxConcurrentRequests) {
+        if (queuedRequests.size() >= maxQueuedRequests) {
+          rejectedRequests.increment();
+          log.warn("Rejected NEF/SCEF request: {} requests in flight and {} queued", inFlightRequests, queuedRequests.size());
+          return CompletableFuture.failedFuture(
+              new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending requests towards NEF/SCEF"));
+        }
+        queuedRequests.add(() -> start(request, response));
+        return response;
+      }
+      inFlightRequests++;
+    } finally {
+      lock.unlock();
+    }
+    start(request, response);
+    return response;
+  }
+
+  public int getInFlightRequests() {
+    lock.lock();
+    try {
+      return inFlightRequests;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueuedRequests() {
+    lock.lock();
+    try {
+      return queuedRequests.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <T> void start(Supplier<CompletableFuture<T>> request, CompletableFuture<T> response) {
+    CompletableFuture<T> pendingResponse;
+    try {
+      pendingResponse = request.get();
+    } catch (RuntimeException e) {
+      pendingResponse = CompletableFuture.failedFuture(e);
+    }
+    pendingResponse.whenComplete((result, error) -> {
+      /* Hand the slot over before completing, so that callers see the updated number of requests in flight */
+      release();
+      if (error != null) {
+        response.completeExceptionally(error);
+      } else {
+        response.complete(result);
+      }
+    });
+  }
+
+  private void release() {
+    Runnable next;
+    lock.lock();
+    try {
+      next = queuedRequests.poll();
+      if (next == null) {
+        inFlightRequests--;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (next != null) {
+      next.run();
+    }
+  }
+}
@@ -26,22 +26,22 @@ package com.camara.service;
 import com.camara.commons.Util;
 import com.camara.config.NetworkConfig;
 import com.camara.exception.QodApiException;
-import com.camara.network.api.ApiClient;
 import com.camara.network.api.AsSessionWithQoSApiSubscriptionLevelDeleteOperationApi;
 import com.camara.network.api.AsSessionWithQoSApiSubscriptionLevelPostOperationApi;
 import com.camara.network.api.model.AsSessionWithQoSSubscription;
 import com.camara.network.api.model.FlowInfo;
 import com.camara.network.api.model.ProblemDetails;
 import com.camara.quality_on_demand.api.model.CreateSession;
-import jakarta.annotation.PostConstruct;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.Generated;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.scheduler.Scheduler;
 
 @Service
 @Slf4j
@@ -50,59 +50,65 @@ public class NetworkService {
 
   private static final String OAUTH2_CLIENT_CREDENTIALS_FLOW_AUTH = "oauth2-client-credentials-flow";
   private static final String PERMANENT_FAILURES_ERROR = "Permanent Failures";
-  private final ApiClient apiClient;
   private final AsSessionWithQoSApiSubscriptionLevelPostOperationApi postApi;
   private final AsSessionWithQoSApiSubscriptionLevelDeleteOperationApi deleteApi;
   private final NetworkAccessTokenExchanger networkAccessTokenExchanger;
+  private final NetworkRequestLimiter networkRequestLimiter;
+  private final Scheduler networkResponseScheduler;
   private final NetworkConfig networkConfig;
 
-  @Generated
-  @PostConstruct
-  void setupApiClient() {
-    postApi.setApiClient(apiClient);
-    deleteApi.setApiClient(apiClient);
-  }
-
   /**
-   * Creating a subscription on the network.
+   * Creating a subscription on the network. The request does not block the calling thread, the returned future is completed on a
+   * thread which may block (e.g. for persisting the session).
    *
    * @param session      the session information from the request
    * @param flowInfo     {@link FlowInfo}
    * @param qosReference the referenced qos
    * @return {@link AsSessionWithQoSSubscription}
    */
-  public AsSessionWithQoSSubscription createQosSubscription(CreateSession session, FlowInfo flowInfo, String qosReference) {
+  public CompletableFuture<AsSessionWithQoSSubscription> createQosSubscription(CreateSession session, FlowInfo flowInfo,
+      String qosReference) {
     AsSessionWithQoSSubscription qosSubscription = buildQosSubscriptionRequest(
         session.getDevice().getIpv4Address().getPublicAddress(),
         flowInfo,
         qosReference,
         networkConfig.getSupportedFeatures());
 
-    AsSessionWithQoSSubscription response;
-    try {
-      authorize();
-      response = postApi.scsAsIdSubscriptionsPost(networkConfig.getScsAsId(), qosSubscription);
-    } catch (HttpStatusCodeException e) {
-      throw handleHttpStatusCodeException(e);
-    }
-    return response;
+    authorize();
+    return networkRequestLimiter.submit(() -> postApi.scsAsIdSubscriptionsPost(networkConfig.getScsAsId(), qosSubscription)
+            .publishOn(networkResponseScheduler)
+            .toFuture())
+        .handle((response, error) -> {
+          if (error != null) {
+            throw handleNetworkException(error);
+          }
+          return response;
+        });
   }
 
   /**
    * Deletes a QoS - subscription on the network based on the subscriptionId.
    *
    * @param subscriptionId the subscription ID on the network
+   * @return completed, when the subscription was deleted
    */
-  public void deleteNetworkSubscriptionById(String subscriptionId) {
-    try {
-      authorize();
-      deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(networkConfig.getScsAsId(), subscriptionId);
-    } catch (HttpClientErrorException.NotFound e) {
-      log.error("NEF/SCEF reported a HTTP - Not Found while deleting subscription ID");
-      log.error("Problem by calling NEF/SCEF (Possibly already deleted by NEF): <{}>", e.getMessage());
-    } catch (HttpStatusCodeException e) {
-      throw handleHttpStatusCodeException(e);
-    }
+  public CompletableFuture<Void> deleteNetworkSubscriptionById(String subscriptionId) {
+    authorize();
+    return networkRequestLimiter.submit(
+            () -> deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(networkConfig.getScsAsId(), subscriptionId)
+                .publishOn(networkResponseScheduler)
+                .toFuture())
+        .handle((response, error) -> {
+          if (error != null) {
+            if (unwrap(error) instanceof WebClientResponseException.NotFound e) {
+              log.error("NEF/SCEF reported a HTTP - Not Found while deleting subscription ID");
+              log.error("Problem by calling NEF/SCEF (Possibly already deleted by NEF): <{}>", e.getMessage());
+            } else {
+              throw handleNetworkException(error);
+            }
+          }
+          return null;
+        });
   }
 
   /**
@@ -125,14 +131,32 @@ public class NetworkService {
         .supportedFeatures(supportedFeatures);
   }
 
+  /**
+   * Converts an error of a NEF/SCEF request into the exception, which is passed on to the caller.
+   *
+   * @param error the error of the request
+   * @return the exception for the caller
+   */
+  private RuntimeException handleNetworkException(Throwable error) {
+    Throwable cause = unwrap(error);
+    if (cause instanceof WebClientResponseException e) {
+      return handleWebClientResponseException(e);
+    }
+    return cause instanceof RuntimeException e ? e : new CompletionException(cause);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+  }
 
   /**
-   * Handles {@link HttpStatusCodeException} by logging the error and throwing a {@link QodApiException} with the relevant information.
+   * Handles {@link WebClientResponseException} by logging the error and throwing a {@link QodApiException} with the relevant
+   * information.
    *
-   * @param e The {@link HttpStatusCodeException} to be handled.
+   * @param e The {@link WebClientResponseException} to be handled.
    * @return The {@link QodApiException} containing the error details.
    */
-  private QodApiException handleHttpStatusCodeException(HttpStatusCodeException e) {
+  private QodApiException handleWebClientResponseException(WebClientResponseException e) {
     int httpStatusCode = e.getStatusCode().value();
     String errorMessage = "NEF/SCEF returned error " + httpStatusCode + " while calling NEF/SCEF";
     ProblemDetails errorResponse = Util.extractProblemDetails(e);
@@ -149,7 +173,7 @@ public class NetworkService {
   @Generated
   private void authorize() {
     if (OAUTH2_CLIENT_CREDENTIALS_FLOW_AUTH.equals(networkConfig.getAuthMethod())) {
-      postApi.getApiClient().setAccessToken(networkAccessTokenExchanger.exchange());
+      postApi.getApiClient().setAccessToken(networkAccessTokenExchanger.getAccessToken());
     }
   }
 }
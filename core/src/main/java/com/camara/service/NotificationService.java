@@ -24,15 +24,12 @@
 package com.camara.service;
 
 import com.camara.config.QodConfig;
-import com.camara.entity.QosSession;
-import com.camara.mapping.SessionModelMapper;
+import com.camara.entity.SessionNotificationState;
 import com.camara.network.api.model.UserPlaneEvent;
 import com.camara.quality_on_demand.api.model.QosStatus;
-import com.camara.quality_on_demand.api.model.SessionInfo;
-import com.camara.quality_on_demand.api.model.StatusInfo;
 import jakarta.validation.constraints.NotBlank;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -46,7 +43,6 @@ public class NotificationService {
   private final QodConfig qodConfig;
   private final SessionService sessionService;
   private final EventHubService eventHubService;
-  private final SessionModelMapper sessionModelMapper;
 
   /**
    * Handles the QoS notification.
@@ -54,11 +50,11 @@ public class NotificationService {
    * @param subscriptionId the subscriptionId
    */
   public void handleQosNotification(@NotBlank String subscriptionId, UserPlaneEvent event) {
-    Optional<QosSession> sessionOptional = sessionService.findBySubscriptionId(subscriptionId);
+    Optional<SessionNotificationState> sessionOptional = sessionService.findNotificationState(subscriptionId);
     if (sessionOptional.isPresent()) {
-      QosSession session = sessionOptional.get();
-      if (session.isScheduledForDeletion()) {
-        log.warn("The session with id <{}> is already locked for deletion. Notification callback will be skipped.", session.getSessionId());
+      SessionNotificationState session = sessionOptional.get();
+      if (session.scheduledForDeletion()) {
+        log.warn("The session with id <{}> is already locked for deletion. Notification callback will be skipped.", session.sessionId());
         return;
       }
       switch (event) {
@@ -71,27 +67,25 @@ public class NotificationService {
     }
   }
 
-  private void handleNetworkTermination(QosSession session) {
+  private void handleNetworkTermination(SessionNotificationState session) {
     var deletionDelay = qodConfig.getDeletionDelay();
-    var updatedExpiration = OffsetDateTime.now(ZoneOffset.UTC).plusSeconds(deletionDelay);
-    session.setExpiresAt(updatedExpiration.toString());
-    session.setQosStatus(QosStatus.UNAVAILABLE);
-    session.setStatusInfo(StatusInfo.NETWORK_TERMINATED);
-    log.info("The Network has terminated the session. The session will be deleted in <{}> seconds.", deletionDelay);
-    sessionService.save(session);
+    var updatedExpiration = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(deletionDelay);
+    if (sessionService.markNetworkTerminated(session.sessionId(), updatedExpiration)) {
+      log.info("The Network has terminated the session. The session will be deleted in <{}> seconds.", deletionDelay);
+    } else {
+      log.info("The Network has terminated the session <{}>, which is already deleted or locked for deletion.", session.sessionId());
+    }
   }
 
-  private void handleSuccessfulAllocation(QosSession qosSession) {
-    QosStatus currentSessionStatus = qosSession.getQosStatus();
+  private void handleSuccessfulAllocation(SessionNotificationState session) {
+    QosStatus currentSessionStatus = session.qosStatus();
     if (currentSessionStatus.equals(QosStatus.REQUESTED)) {
-      OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
-      qosSession.setStartedAt(now.toString());
-      qosSession.setExpiresAt(now.plusSeconds(qosSession.getDuration()).toString());
-      qosSession.setQosStatus(QosStatus.AVAILABLE);
-      sessionService.save(qosSession);
-      log.info("QosSession with sessionId <{}> is now available.", qosSession.getSessionId());
-      SessionInfo sessionInfo = sessionModelMapper.map(qosSession);
-      eventHubService.sendEvent(sessionInfo);
+      Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+      sessionService.markAvailable(session.sessionId(), now, now.plusSeconds(session.duration()))
+          .ifPresentOrElse(sessionInfo -> {
+            log.info("QosSession with sessionId <{}> is now available.", session.sessionId());
+            eventHubService.sendEvent(sessionInfo);
+          }, () -> log.info("QosSession with sessionId <{}> was changed concurrently. No update.", session.sessionId()));
     } else {
       log.info("Network reported with SUCCESSFUL_RESOURCES_ALLOCATION, but session is in status <{}>. No update.", currentSessionStatus);
     }
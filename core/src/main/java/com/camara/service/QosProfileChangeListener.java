@@ -0,0 +1,86 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the QoS profile catalog of this node, when any node writes a new version of the QoS profiles. Only the version document
+ * is watched, so a bulk write of many profiles causes a single refresh after the write has completed.
+ *
+ * <p>Change streams require MongoDB to run as replica set. On a standalone server the subscription fails once, which is logged, and
+ * the catalog is only refreshed by the node changing the profiles.
+ */
+@Component
+@ConditionalOnProperty(prefix = "qod.profiles.change-stream", name = "enabled", havingValue = "true")
+@Slf4j
+public class QosProfileChangeListener {
+
+  private static final String CATALOG_VERSIONS_COLLECTION = "qos_profile_catalog_versions";
+
+  private final QosProfileService qosProfileService;
+  private final ExecutorService listenerThread;
+  private final MessageListenerContainer container;
+
+  /**
+   * Creates the listener, it is started after construction.
+   *
+   * @param mongoTemplate     the {@link MongoTemplate}
+   * @param qosProfileService the {@link QosProfileService} holding the catalog
+   */
+  public QosProfileChangeListener(MongoTemplate mongoTemplate, QosProfileService qosProfileService) {
+    this.qosProfileService = qosProfileService;
+    this.listenerThread = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("qos-profile-changes").setDaemon(true).build());
+    this.container = new DefaultMessageListenerContainer(mongoTemplate, listenerThread,
+        ex -> log.warn("Listening for QoS profile changes failed, the catalog is not refreshed on foreign changes: {}", ex.getMessage()));
+  }
+
+  @PostConstruct
+  void start() {
+    ChangeStreamRequest<Document> request = ChangeStreamRequest.<Document>builder(message -> {
+      log.debug("QoS profiles changed by another node, refreshing the catalog");
+      qosProfileService.refreshCatalog();
+    }).collection(CATALOG_VERSIONS_COLLECTION).build();
+    container.register(request, Document.class);
+    container.start();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    container.stop();
+    listenerThread.shutdownNow();
+  }
+}
@@ -24,24 +24,33 @@
 package com.camara.service;
 
 import com.camara.config.QodConfig;
+import com.camara.entity.QosProfileCatalogVersion;
 import com.camara.exception.QodApiException;
 import com.camara.mapping.QosProfileMapper;
+import com.camara.model.QosProfileCatalog;
 import com.camara.qos_profiles.api.model.Duration;
 import com.camara.qos_profiles.api.model.QosProfile;
 import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
 import com.camara.repository.QosProfileRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
-import lombok.Generated;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ResourceUtils;
 
 @RequiredArgsConstructor
 @Service
@@ -54,28 +63,86 @@ public class QosProfileService {
 
   private final QodConfig qodConfig;
 
+  private final ResourceLoader resourceLoader;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  private final AtomicReference<QosProfileCatalog> catalog = new AtomicReference<>(QosProfileCatalog.EMPTY);
+
   /**
-   * Loads the initial data-set for the qos-profiles.
+   * Loads the initial data-set for the qos-profiles on startup and builds the catalog. A failed load keeps the stored profiles.
    */
-  @Generated
   @PostConstruct
   public void loadQosProfiles() {
+    try {
+      reloadQosProfiles();
+    } catch (Exception e) {
+      log.error("Failed to load QOS profiles: {}", e.getMessage());
+      refreshCatalog();
+    }
+  }
+
+  /**
+   * Loads the data-set for the qos-profiles and publishes the catalog. The data-set is read from a resource location, e.g. a
+   * {@code file:} URL which can be changed at runtime, a location without prefix is looked up on the classpath. The stored profiles are
+   * only written, if the checksum of the data-set differs from the one they were loaded from. The profiles are upserted in bulk, so
+   * readers never see an empty collection.
+   *
+   * @return the published {@link QosProfileCatalog}
+   * @throws IllegalStateException if the data-set cannot be read
+   */
+  public QosProfileCatalog reloadQosProfiles() {
     String initialDataSource = qodConfig.getInitialQosProfilesDataSource();
-    try (InputStream inputStream = getClass().getResourceAsStream(initialDataSource)) {
-      if (inputStream == null) {
-        log.error("Resource '{}' not found", initialDataSource);
-        return;
+    Resource resource = resourceLoader.getResource(
+        ResourceUtils.isUrl(initialDataSource) ? initialDataSource : ResourceUtils.CLASSPATH_URL_PREFIX + initialDataSource);
+    if (!resource.exists()) {
+      throw new IllegalStateException("Resource '" + initialDataSource + "' not found");
+    }
+    reloadLock.lock();
+    try (InputStream inputStream = resource.getInputStream()) {
+      byte[] data = inputStream.readAllBytes();
+      String checksum = Hashing.sha256().hashBytes(data).toString();
+      Optional<QosProfileCatalogVersion> storedVersion = qosProfileRepository.findCatalogVersion();
+      if (storedVersion.map(version -> checksum.equals(version.getChecksum())).orElse(false)) {
+        log.info("QOS profiles unchanged (version {}), skipping the write.", storedVersion.get().getVersion());
+      } else {
+        List<QosProfile> qosProfiles = objectMapper.readValue(data, new TypeReference<>() {});
+        var entities = qosProfileMapper.mapToQosProfileEntities(qosProfiles);
+        QosProfileCatalogVersion newVersion = qosProfileRepository.replaceAll(entities, checksum);
+        log.info("QOS profiles successfully loaded into MongoDB (version {}).", newVersion == null ? null : newVersion.getVersion());
       }
-      List<QosProfile> qosProfiles = new ObjectMapper().readValue(inputStream, new TypeReference<>() {});
-      var entities = qosProfileMapper.mapToQosProfileEntities(qosProfiles);
-      qosProfileRepository.deleteAll();
-      qosProfileRepository.saveAll(entities);
-      log.info("QOS profiles successfully loaded into MongoDB.");
+    } catch (IOException e) {
+      throw new IllegalStateException("QOS profiles cannot be read from '" + initialDataSource + "'", e);
+    } finally {
+      reloadLock.unlock();
+    }
+    refreshCatalog();
+    return catalog.get();
+  }
+
+  /**
+   * Reads all QoS profiles from the database and publishes them as new catalog. A catalog is never replaced by an older version and
+   * on failure the current catalog is kept.
+   */
+  public void refreshCatalog() {
+    try {
+      long version = qosProfileRepository.findCatalogVersion().map(QosProfileCatalogVersion::getVersion).orElse(0L);
+      var qosProfiles = qosProfileMapper.mapToQosProfileList(qosProfileRepository.findAll());
+      QosProfileCatalog refreshedCatalog = QosProfileCatalog.of(version, qosProfiles, this::retrieveDurationInSeconds);
+      QosProfileCatalog publishedCatalog = catalog.accumulateAndGet(refreshedCatalog,
+          (current, refreshed) -> refreshed.getVersion() >= current.getVersion() ? refreshed : current);
+      log.info("QoS profile catalog version {} published with {} profile(s)", publishedCatalog.getVersion(), publishedCatalog.size());
     } catch (Exception e) {
-      log.error("Failed to load QOS profiles: {}", e.getMessage());
+      log.error("Failed to refresh QoS profile catalog, keeping the current one: {}", e.getMessage());
     }
   }
 
+  public QosProfileCatalog getCatalog() {
+    return catalog.get();
+  }
+
   /**
    * Retrieves a list of QoS profiles based on the provided name and status.
    *
@@ -85,22 +152,27 @@ public class QosProfileService {
    * @throws QodApiException If no matching QoS profiles are found.
    */
   public List<QosProfile> getQosProfiles(String name, QosProfileStatusEnum status) {
-    List<com.camara.entity.QosProfile> profiles;
+    QosProfileCatalog qosProfileCatalog = catalog.get();
+    List<QosProfile> profiles;
     if (StringUtils.isEmpty(name) && status == null) {
-      profiles = qosProfileRepository.findAll();
+      profiles = qosProfileCatalog.getQosProfiles();
     } else if (StringUtils.isEmpty(name)) {
-      profiles = qosProfileRepository.findAllByStatus(status);
+      profiles = qosProfileCatalog.getQosProfiles(status);
       log.info("{} QoS profile(s) found for status <{}>", profiles.size(), status);
     } else if (status == null) {
-      profiles = Collections.singletonList(getQosProfileByName(name));
+      profiles = Collections.singletonList(getQosProfile(name));
     } else {
-      profiles = qosProfileRepository.findAllByNameAndStatus(name, status);
+      profiles = qosProfileCatalog.find(name)
+          .map(QosProfileCatalog.Entry::qosProfile)
+          .filter(qosProfile -> qosProfile.getStatus() == status)
+          .map(Collections::singletonList)
+          .orElse(Collections.emptyList());
       log.info("{} QoS profile(s) found for name <{}> and status <{}>", profiles.size(), name, status);
     }
     if (profiles.isEmpty()) {
       throw new QodApiException(HttpStatus.NOT_FOUND, "No QoS Profiles found");
     }
-    return qosProfileMapper.mapToQosProfileList(profiles);
+    return profiles;
   }
 
   /**
@@ -110,8 +182,27 @@ public class QosProfileService {
    * @return The retrieved QoS profile.
    */
   public QosProfile getQosProfile(String name) {
-    var foundProfile = getQosProfileByName(name);
-    return qosProfileMapper.mapToQosProfile(foundProfile);
+    return getCatalogEntry(name).qosProfile();
+  }
+
+  /**
+   * Retrieves the min duration of a QoS profile.
+   *
+   * @param name The name of the QoS profile.
+   * @return the min duration in seconds
+   */
+  public long getMinDurationInSeconds(String name) {
+    return getCatalogEntry(name).minDurationInSeconds();
+  }
+
+  /**
+   * Retrieves the max duration of a QoS profile.
+   *
+   * @param name The name of the QoS profile.
+   * @return the max duration in seconds
+   */
+  public long getMaxDurationInSeconds(String name) {
+    return getCatalogEntry(name).maxDurationInSeconds();
   }
 
   /**
@@ -134,14 +225,14 @@ public class QosProfileService {
   }
 
   /**
-   * Retrieves a QoS profile from the repository based on its name.
+   * Retrieves a QoS profile from the catalog based on its name.
    *
    * @param name The name of the QoS profile to retrieve.
-   * @return The QoS profile with the specified name.
+   * @return The catalog entry of the QoS profile with the specified name.
    * @throws QodApiException If the QoS profile with the specified name is not found.
    */
-  private com.camara.entity.QosProfile getQosProfileByName(String name) {
-    return qosProfileRepository.findByName(name)
+  private QosProfileCatalog.Entry getCatalogEntry(String name) {
+    return catalog.get().find(name)
         .orElseThrow(() -> new QodApiException(HttpStatus.NOT_FOUND, "QosProfile Id does not exist"));
   }
 
@@ -23,12 +23,14 @@
 
 package com.camara.service;
 
-import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
-
 import com.camara.commons.Util;
 import com.camara.config.NetworkConfig;
 import com.camara.config.QodConfig;
+import com.camara.entity.ExpiringSession;
 import com.camara.entity.QosSession;
+import com.camara.entity.SessionConflictCandidate;
+import com.camara.entity.SessionConflictKey;
+import com.camara.entity.SessionNotificationState;
 import com.camara.exception.ErrorCode;
 import com.camara.exception.QodApiException;
 import com.camara.mapping.SessionModelMapper;
@@ -37,21 +39,41 @@ import com.camara.network.api.model.AsSessionWithQoSSubscription;
 import com.camara.network.api.model.FlowInfo;
 import com.camara.qos_profiles.api.model.QosProfile;
 import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.CreateSessionResult;
 import com.camara.quality_on_demand.api.model.Device;
+import com.camara.quality_on_demand.api.model.ErrorInfo;
 import com.camara.quality_on_demand.api.model.PortsSpec;
 import com.camara.quality_on_demand.api.model.PortsSpecRangesInner;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.SessionInfo;
 import com.camara.quality_on_demand.api.model.StatusInfo;
 import com.camara.repository.QosSessionRepository;
+import com.google.common.collect.Iterators;
+import inet.ipaddr.IPAddress;
 import inet.ipaddr.IPAddressString;
+import inet.ipaddr.ipv4.IPv4Address;
 import jakarta.validation.constraints.NotNull;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -68,6 +90,8 @@ public class SessionService {
   private static final String FLOW_DESCRIPTION_TEMPLATE_IN = "permit in ip from %s to %s";
   private static final String FLOW_DESCRIPTION_TEMPLATE_OUT = "permit out ip from %s to %s";
 
+  private static final int MAX_EXTENSION_ATTEMPTS = 3;
+  private static final long MAX_IPV4_ADDRESS = 0xFFFFFFFFL;
   private static final String QOS_PROFILE_UNKNOWN_ERROR_MESSAGE = "QoS profile <%s> unknown or disabled";
 
   private final EventHubService eventHubService;
@@ -79,33 +103,255 @@ public class SessionService {
   private final TokenService tokenService;
   private final ValidationService validationService;
   private final QosProfileService qosProfileService;
+  private final ExpirationLeaseService expirationLeaseService;
+  private final IdempotencyCache idempotencyCache;
 
   /**
    * Creates a session and if the {@link QosStatus} is "AVAILABLE" then send an event directly to the webhook (if configured).
    *
+   * <p>The request is validated on the calling thread, which holds the context of the incoming request. The subscription on the
+   * network is created without blocking the calling thread, the session is persisted once the network has responded.
+   *
    * @param sessionRequest       - the request for creating a session
    * @param showDeviceInResponse - {@code true}, if the device shell be shown in responses
    * @return {@link SessionInfo}
    */
-  public SessionInfo createSession(@NotNull CreateSession sessionRequest, boolean showDeviceInResponse) {
-    var qosSession = createSession(sessionRequest);
-    qosSession.setShowDeviceInResponse(showDeviceInResponse);
-    log.info("Save QoS session {}", sessionRequest);
-    save(qosSession);
+  public CompletableFuture<SessionInfo> createSession(@NotNull CreateSession sessionRequest, boolean showDeviceInResponse) {
+    PreparedSession preparedSession = prepareSession(0, sessionRequest, showDeviceInResponse);
 
-    SessionInfo sessionInfo = sessionModelMapper.map(qosSession);
-    if (sessionInfo.getQosStatus() == QosStatus.AVAILABLE) {
-      eventHubService.sendEvent(sessionInfo);
+    /* Check if a session already exists for the requested device */
+    checkExistingSessions(preparedSession.deviceIpv4Addr(), preparedSession.conflictKey());
+    String clientId = tokenService.retrieveClientId();
+
+    return networkService.createQosSubscription(sessionRequest, preparedSession.flowInfo(), preparedSession.qosReference())
+        .thenApply(response -> {
+          var qosSession = buildQosSession(preparedSession, clientId, response);
+          log.info("Save QoS session {}", sessionRequest);
+          save(qosSession);
+
+          SessionInfo sessionInfo = sessionModelMapper.map(qosSession);
+          if (sessionInfo.getQosStatus() == QosStatus.AVAILABLE) {
+            eventHubService.sendEvent(sessionInfo);
+          }
+          return sessionInfo;
+        });
+  }
+
+  /**
+   * Creates several sessions, every request is handled like in {@link #createSession(CreateSession, boolean)} and its outcome is
+   * reported in its own {@link CreateSessionResult}.
+   *
+   * <p>All requests are validated on the calling thread before any subscription is created on the network. The conflicts are checked
+   * in one pass, against the stored sessions of all requested devices and among the requests themselves. The subscriptions are created
+   * with a bounded parallelism and the created sessions are persisted with one batched write. If the write fails, the created
+   * subscriptions are deleted again and their requests are reported as failed.
+   *
+   * @param sessionRequests the requests for creating the sessions
+   * @return the results, in the order of the requests
+   */
+  public CompletableFuture<List<CreateSessionResult>> createSessions(@NotNull List<CreateSession> sessionRequests) {
+    CreateSessionResult[] results = new CreateSessionResult[sessionRequests.size()];
+    List<PreparedSession> preparedSessions = new ArrayList<>();
+    for (int index = 0; index < sessionRequests.size(); index++) {
+      CreateSession sessionRequest = sessionRequests.get(index);
+      boolean showDeviceInResponse = sessionRequest.getDevice() != null;
+      try {
+        validationService.validate(sessionRequest);
+        preparedSessions.add(prepareSession(index, sessionRequest, showDeviceInResponse));
+      } catch (QodApiException e) {
+        results[index] = failedResult(index, e);
+      }
+    }
+    List<PreparedSession> acceptedSessions = checkConflicts(preparedSessions, results);
+    String clientId = tokenService.retrieveClientId();
+
+    QosSession[] createdSessions = new QosSession[sessionRequests.size()];
+    CompletableFuture<Void> subscriptions = runBounded(acceptedSessions,
+        session -> networkService.createQosSubscription(session.request(), session.flowInfo(), session.qosReference())
+            .thenAccept(response -> createdSessions[session.index()] = buildQosSession(session, clientId, response)),
+        (session, error) -> results[session.index()] = failedResult(session.index(), error));
+
+    return subscriptions.thenCompose(done -> {
+      List<QosSession> qosSessions = Arrays.stream(createdSessions).filter(Objects::nonNull).toList();
+      if (qosSessions.isEmpty()) {
+        return CompletableFuture.completedFuture(Arrays.asList(results));
+      }
+      try {
+        log.info("Save {} QoS sessions", qosSessions.size());
+        sessionRepository.insert(qosSessions);
+      } catch (RuntimeException e) {
+        log.error("Saving {} QoS sessions failed, deleting their network subscriptions: ", qosSessions.size(), e);
+        QodApiException saveFailed = new QodApiException(HttpStatus.INTERNAL_SERVER_ERROR, "The session could not be saved");
+        for (int index = 0; index < createdSessions.length; index++) {
+          if (createdSessions[index] != null) {
+            results[index] = failedResult(index, saveFailed);
+          }
+        }
+        return deleteUnsavedSessions(qosSessions).thenApply(deleted -> Arrays.asList(results));
+      }
+
+      List<SessionInfo> availableSessions = new ArrayList<>();
+      for (int index = 0; index < createdSessions.length; index++) {
+        if (createdSessions[index] != null) {
+          SessionInfo sessionInfo = sessionModelMapper.map(createdSessions[index]);
+          if (sessionInfo.getQosStatus() == QosStatus.AVAILABLE) {
+            availableSessions.add(sessionInfo);
+          }
+          results[index] = new CreateSessionResult().index(index).sessionInfo(sessionInfo);
+        }
+      }
+      /* The sessions are created, a failed notification does not fail their creation */
+      return CompletableFuture.completedFuture(availableSessions)
+          .thenCompose(eventHubService::sendEvents)
+          .handle((sent, error) -> {
+            if (error != null) {
+              log.error("Sending the events of {} created QoS sessions failed: ", availableSessions.size(), error);
+            }
+            return Arrays.asList(results);
+          });
+    });
+  }
+
+  /**
+   * Deletes the network subscriptions of created sessions, which could not be saved. Sessions saved before the write failed are
+   * deleted as well, since their creation is reported as failed.
+   */
+  private CompletableFuture<Void> deleteUnsavedSessions(List<QosSession> qosSessions) {
+    try {
+      sessionRepository.deleteBySessionIdIn(qosSessions.stream().map(QosSession::getSessionId).toList());
+    } catch (RuntimeException e) {
+      log.error("Deleting partially saved QoS sessions failed: {}", e.getMessage());
+    }
+    return runBounded(qosSessions.stream().filter(qosSession -> qosSession.getSubscriptionId() != null).toList(),
+        qosSession -> networkService.deleteNetworkSubscriptionById(qosSession.getSubscriptionId()),
+        (qosSession, error) -> log.error("Deleting the network subscription of unsaved QoS session <{}> failed: {}",
+            qosSession.getSessionId(), error.getMessage()));
+  }
+
+  /**
+   * Deletes all sessions of the caller, which match the given networks, and notifies about the requested deletion like
+   * {@link #deleteSessionForClient(UUID)}.
+   *
+   * <p>The sessions are read with a database cursor and deleted in batches with one write per batch. The subscriptions of every
+   * batch are deleted on the network with a bounded parallelism, afterwards the events of the batch are sent with one batched send.
+   * A failed deletion on the network is logged, the session is deleted and notified anyway.
+   *
+   * @param deviceIpv4Network            only sessions of devices within this IPv4 network, all devices if {@code null}
+   * @param applicationServerIpv4Network only sessions with an application server within this IPv4 network, all if {@code null}
+   * @return the number of deleted sessions, completed when the subscriptions were deleted on the network and the events were sent
+   */
+  public CompletableFuture<Integer> deleteSessionsForClient(String deviceIpv4Network, String applicationServerIpv4Network) {
+    String clientId = tokenService.retrieveClientId();
+    if (StringUtils.isEmpty(clientId)) {
+      return CompletableFuture.completedFuture(0);
+    }
+    IPv4Address deviceNetwork = toIpv4Network(deviceIpv4Network);
+    IPv4Address applicationServerNetwork = toIpv4Network(applicationServerIpv4Network);
+    long applicationServerFrom = applicationServerNetwork == null ? 0 : applicationServerNetwork.getLower().longValue();
+    long applicationServerTo = applicationServerNetwork == null ? MAX_IPV4_ADDRESS : applicationServerNetwork.getUpper().longValue();
+    log.info("Delete QoS sessions of client <{}> for device network <{}> and application server network <{}>",
+        clientId, deviceIpv4Network, applicationServerIpv4Network);
+
+    int deletedSessions = 0;
+    CompletableFuture<Void> deletion = CompletableFuture.completedFuture(null);
+    try (Stream<QosSession> candidates = sessionRepository.findDeletionCandidates(clientId, applicationServerFrom, applicationServerTo)) {
+      Iterator<List<QosSession>> batches = Iterators.partition(candidates
+          .filter(qosSession -> isWithin(qosSession, deviceNetwork, applicationServerNetwork))
+          .iterator(), qodConfig.getBulkSessionDeletionBatchSize());
+      while (batches.hasNext()) {
+        List<QosSession> batch = batches.next();
+        List<String> sessionIds = batch.stream().map(QosSession::getSessionId).toList();
+        deletedSessions += (int) sessionRepository.deleteBySessionIdIn(sessionIds);
+        sessionIds.forEach(idempotencyCache::forget);
+        deletion = deletion.thenCompose(done -> deleteSubscriptionsAndNotify(batch));
+      }
+    }
+    int deletedSessionCount = deletedSessions;
+    return deletion.thenApply(done -> deletedSessionCount);
+  }
+
+  private CompletableFuture<Void> deleteSubscriptionsAndNotify(List<QosSession> qosSessions) {
+    List<QosSession> subscribedSessions = qosSessions.stream().filter(qosSession -> qosSession.getSubscriptionId() != null).toList();
+    return runBounded(subscribedSessions,
+        qosSession -> networkService.deleteNetworkSubscriptionById(qosSession.getSubscriptionId()),
+        (qosSession, error) -> log.error("Deleting the network subscription of QoS session <{}> failed: {}",
+            qosSession.getSessionId(), error.getMessage()))
+        .thenCompose(done -> eventHubService.sendEvents(qosSessions.stream()
+            .filter(qosSession -> qosSession.getQosStatus() == QosStatus.AVAILABLE)
+            .map(qosSession -> sessionModelMapper.map(qosSession)
+                .qosStatus(QosStatus.UNAVAILABLE)
+                .statusInfo(StatusInfo.DELETE_REQUESTED))
+            .toList()));
+  }
+
+  /**
+   * Checks if the device and the application server of a session are within the given networks. The application server range is
+   * already checked by the query for all sessions with a {@link SessionConflictKey}.
+   */
+  private static boolean isWithin(QosSession qosSession, IPv4Address deviceNetwork, IPv4Address applicationServerNetwork) {
+    if (deviceNetwork != null) {
+      IPAddress deviceAddress = qosSession.getDeviceIpv4addr() == null
+          ? null
+          : new IPAddressString(qosSession.getDeviceIpv4addr()).getAddress();
+      if (deviceAddress == null || !deviceNetwork.contains(deviceAddress)) {
+        return false;
+      }
+    }
+    if (applicationServerNetwork != null && qosSession.getConflictKey() == null) {
+      SessionConflictKey conflictKey = SessionConflictKey.of(qosSession);
+      return conflictKey != null
+          && conflictKey.getApplicationServerFrom() >= applicationServerNetwork.getLower().longValue()
+          && conflictKey.getApplicationServerTo() <= applicationServerNetwork.getUpper().longValue();
     }
-    return sessionInfo;
+    return true;
+  }
+
+  private static IPv4Address toIpv4Network(String ipv4Network) {
+    return ipv4Network == null ? null : new IPAddressString(ipv4Network).getAddress().toIPv4();
   }
 
   /**
-   * Creates & saves session in database.
+   * Runs a task for every item with the parallelism configured for bulk requests. Every lane takes the next item, which is not yet
+   * taken by another lane, once the task of its previous item has completed. So every lane has at most one request in flight.
    *
-   * @param sessionRequest The requested session
+   * @param items   the items
+   * @param task    the task for an item
+   * @param onError called with the item and the error of a failed task, the lane continues with the next item
+   * @return completed, when the tasks of all items have completed
    */
-  private QosSession createSession(CreateSession sessionRequest) {
+  private <T> CompletableFuture<Void> runBounded(List<T> items, Function<T, CompletableFuture<Void>> task,
+      BiConsumer<T, Throwable> onError) {
+    AtomicInteger nextItem = new AtomicInteger();
+    CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(qodConfig.getBulkSessionParallelism(), items.size())];
+    for (int lane = 0; lane < lanes.length; lane++) {
+      lanes[lane] = runNext(items, nextItem, task, onError);
+    }
+    return CompletableFuture.allOf(lanes);
+  }
+
+  private static <T> CompletableFuture<Void> runNext(List<T> items, AtomicInteger nextItem, Function<T, CompletableFuture<Void>> task,
+      BiConsumer<T, Throwable> onError) {
+    int next = nextItem.getAndIncrement();
+    if (next >= items.size()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    T item = items.get(next);
+    /* Starting from a completed future turns an exception thrown by the task into a failed future */
+    return CompletableFuture.completedFuture(item)
+        .thenCompose(task)
+        .handle((result, error) -> {
+          if (error != null) {
+            onError.accept(item, error);
+          }
+          return null;
+        })
+        .thenCompose(done -> runNext(items, nextItem, task, onError));
+  }
+
+  /**
+   * Validates a request against the QoS profile and derives the parameters of the network subscription.
+   */
+  private PreparedSession prepareSession(int index, CreateSession sessionRequest, boolean showDeviceInResponse) {
     SupportedQosProfiles supportedQosProfile = SupportedQosProfiles.getProfileFromString(sessionRequest.getQosProfile());
     final int flowId = getFlowId(supportedQosProfile);
 
@@ -113,29 +359,16 @@ public class SessionService {
     String deviceIpv4Addr = sessionRequest.getDevice().getIpv4Address().getPublicAddress();
     PortsSpec applicationServerPorts = sessionRequest.getApplicationServerPorts();
     PortsSpec devicePorts = sessionRequest.getDevicePorts();
-
-    /* Check if a session already exists for the requested device */
-    checkExistingSessions(deviceIpv4Addr, applicationServerIpv4Addr, devicePorts, applicationServerPorts);
+    SessionConflictKey conflictKey = SessionConflictKey.of(applicationServerIpv4Addr, devicePorts, applicationServerPorts);
 
     /* Check if the requested profile is available */
     QosProfile qosProfile = qosProfileService.getQosProfile(supportedQosProfile.name());
     validationService.validateDurationWithQosProfile(sessionRequest.getDuration(), qosProfile);
 
     applicationServerIpv4Addr = appendPortsToIpv4(applicationServerPorts, applicationServerIpv4Addr);
-    deviceIpv4Addr = appendPortsToIpv4(devicePorts, deviceIpv4Addr);
-
-    FlowInfo flowInfo = createFlowInfo(deviceIpv4Addr, applicationServerIpv4Addr, flowId);
-
+    FlowInfo flowInfo = createFlowInfo(appendPortsToIpv4(devicePorts, deviceIpv4Addr), applicationServerIpv4Addr, flowId);
     String qosReference = getReference(supportedQosProfile);
-    AsSessionWithQoSSubscription response = networkService.createQosSubscription(sessionRequest, flowInfo, qosReference);
-
-    String subscriptionId = Util.extractSubscriptionId(response.getSelf());
-    if (subscriptionId == null) {
-      throw new QodApiException(HttpStatus.INTERNAL_SERVER_ERROR, "No valid subscription ID was provided in NEF/SCEF response");
-    }
-    var qosSession = buildQosSession(sessionRequest);
-    qosSession.setSubscriptionId(subscriptionId);
-    return qosSession;
+    return new PreparedSession(index, sessionRequest, deviceIpv4Addr, conflictKey, flowInfo, qosReference, showDeviceInResponse);
   }
 
   private static String appendPortsToIpv4(PortsSpec portsSpec, String ipv4Address) {
@@ -161,21 +394,10 @@ public class SessionService {
 
   private QosSession getSessionByIdForClient(UUID sessionId) {
     String clientId = tokenService.retrieveClientId();
-    return getSessionsByClientId(clientId).stream()
-        .filter(session -> session.getSessionId().equals(sessionId.toString()))
-        .findFirst()
+    return sessionRepository.findBySessionIdAndClientId(sessionId.toString(), clientId)
         .orElseThrow(() -> new QodApiException(HttpStatus.NOT_FOUND, "The specified session does not exist"));
   }
 
-  /**
-   * Finds existing sessions by client-ID.
-   *
-   * @param clientId the requested client-ID.
-   */
-  public List<QosSession> getSessionsByClientId(String clientId) {
-    return sessionRepository.findAllByClientId(clientId);
-  }
-
   /**
    * Finds existing session by id.
    *
@@ -199,8 +421,7 @@ public class SessionService {
     }
     String publicIpv4Address = device.getIpv4Address().getPublicAddress();
     log.debug("Fetching sessions for clientId: {} and public IPv4: {}", clientId, publicIpv4Address);
-    return getSessionsByPublicIpv4(publicIpv4Address).stream()
-        .filter(qosSession -> qosSession.getClientId().equals(clientId))
+    return sessionRepository.findByDeviceIpv4addrAndClientId(publicIpv4Address, clientId).stream()
         .map(sessionModelMapper::map)
         .toList();
   }
@@ -210,17 +431,34 @@ public class SessionService {
    *
    * @param sessionId  the session ID
    * @param statusInfo the {@link StatusInfo}
+   * @return completed, when the session was deleted on the network and the notification was sent
    */
-  public void deleteAndNotify(String sessionId, StatusInfo statusInfo) {
-    var qosSession = deleteSessionById(sessionId);
-    SessionInfo sessionInfo = sessionModelMapper.map(qosSession);
-    sessionInfo.statusInfo(statusInfo);
-    if (statusInfo == StatusInfo.DELETE_REQUESTED) {
-      handleRequestedDelete(sessionInfo);
-    } else {
-      sessionInfo.setQosStatus(QosStatus.UNAVAILABLE);
-      eventHubService.sendEvent(sessionInfo);
-    }
+  public CompletableFuture<Void> deleteAndNotify(String sessionId, StatusInfo statusInfo) {
+    return deleteAndNotify(getSessionById(sessionId), statusInfo);
+  }
+
+  /**
+   * Deletes a session, which was created by the caller, and notifies about the requested deletion.
+   *
+   * @param sessionId the session ID
+   * @return completed, when the session was deleted on the network and the notification was sent
+   * @throws QodApiException with 404, if no session with this ID exists for the caller
+   */
+  public CompletableFuture<Void> deleteSessionForClient(UUID sessionId) {
+    return deleteAndNotify(getSessionByIdForClient(sessionId), StatusInfo.DELETE_REQUESTED);
+  }
+
+  private CompletableFuture<Void> deleteAndNotify(QosSession qosSession, StatusInfo statusInfo) {
+    return deleteSession(qosSession).thenRun(() -> {
+      SessionInfo sessionInfo = sessionModelMapper.map(qosSession);
+      sessionInfo.statusInfo(statusInfo);
+      if (statusInfo == StatusInfo.DELETE_REQUESTED) {
+        handleRequestedDelete(sessionInfo);
+      } else {
+        sessionInfo.setQosStatus(QosStatus.UNAVAILABLE);
+        eventHubService.sendEvent(sessionInfo);
+      }
+    });
   }
 
   /**
@@ -231,24 +469,26 @@ public class SessionService {
    * @return A {@link SessionInfo} object representing the extended QoS session.
    */
   public SessionInfo extendQosSession(@NotNull UUID sessionId, @NotNull Integer additionalDuration) {
-    // Retrieve QoS session and validate its extendability
-    QosSession qosSession = getSessionByIdForClient(sessionId);
-    validationService.isSessionExtendable(qosSession);
-
     log.info("Extending session <{}> with additional duration <{}>", sessionId, additionalDuration);
-
-    // Calculate new duration and validate it
-    int newDuration = calculateNewDuration(qosSession, additionalDuration);
-
-    // Update session attributes
-    qosSession.setDuration(newDuration);
-    var newExpiresAt = OffsetDateTime.parse(qosSession.getStartedAt()).plusSeconds(newDuration);
-    qosSession.setExpiresAt(newExpiresAt.toString());
-
-    log.info("Updated QoS session <{}> with new duration <{}> and expiresAt <{}>.",
-        sessionId, newDuration, qosSession.getExpiresAt());
-
-    return sessionModelMapper.map(save(qosSession));
+    for (int attempt = 1; attempt <= MAX_EXTENSION_ATTEMPTS; attempt++) {
+      // Retrieve QoS session and validate its extendability
+      QosSession qosSession = getSessionByIdForClient(sessionId);
+      validationService.isSessionExtendable(qosSession);
+
+      // Calculate new duration and validate it
+      int newDuration = calculateNewDuration(qosSession, additionalDuration);
+      Instant newExpiresAt = qosSession.getStartedAt().plusSeconds(newDuration);
+
+      // Only applies, if the session was not changed since it was read
+      Optional<QosSession> extendedSession =
+          sessionRepository.extend(qosSession.getSessionId(), qosSession.getVersion(), newDuration, newExpiresAt);
+      if (extendedSession.isPresent()) {
+        log.info("Updated QoS session <{}> with new duration <{}> and expiresAt <{}>.", sessionId, newDuration, newExpiresAt);
+        return sessionModelMapper.map(extendedSession.get());
+      }
+      log.debug("QoS session <{}> was changed concurrently, extension attempt {} is repeated", sessionId, attempt);
+    }
+    throw new QodApiException(HttpStatus.CONFLICT, "The session was changed concurrently, please retry the extension.");
   }
 
   /**
@@ -266,7 +506,7 @@ public class SessionService {
     log.debug("Current duration: {}, additional: {}, calculated new duration: {}", oldDuration, additionalDuration, newDuration);
 
     QosProfile qosProfile = getValidatedQosProfile(qosSession);
-    long maxDuration = qosProfileService.retrieveDurationInSeconds(qosProfile.getMaxDuration());
+    long maxDuration = qosProfileService.getMaxDurationInSeconds(qosProfile.getName());
 
     if (oldDuration == maxDuration) {
       throw new QodApiException(HttpStatus.BAD_REQUEST,
@@ -297,50 +537,81 @@ public class SessionService {
   }
 
   /**
-   * Retrieves all Qos-Sessions which are expiring soon.
+   * Retrieves all Qos-Sessions of the given expiration partitions which are expiring soon. The sessions are read with a database
+   * cursor, so the returned stream must be closed after use.
    *
-   * @return list of almost expired {@link QosSession}
+   * @param partitions the expiration partitions
+   * @return stream of almost expired sessions
    */
-  public List<QosSession> getExpiringQosSessions() {
-    // Filter subscriptions based on their expiry time and deletion status
-    return sessionRepository.findAll().stream()
-        .filter(this::isExpiringSoon)
-        .toList();
-  }
+  public Stream<ExpiringSession> getExpiringQosSessions(Collection<Integer> partitions) {
+    Instant now = Instant.now();
 
-  private boolean isExpiringSoon(QosSession qosSession) {
-    // Get the current time in UTC
-    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    // Sessions which are not yet scheduled for deletion are handled shortly before their expiration,
+    // sessions which are scheduled for deletion only if the deletion did not happen in time
+    Instant timeOfExpiration = now.plusSeconds(qodConfig.getQosExpirationTimeBeforeHandling());
+    return sessionRepository.findExpiringSessions(partitions, timeOfExpiration, now);
+  }
 
-    // Calculate the time when a subscription is considered as expiring soon
-    OffsetDateTime timeOfExpiration = now.plusSeconds(qodConfig.getQosExpirationTimeBeforeHandling());
+  /**
+   * Retrieves all Qos-Sessions of the given expiration partitions which are already scheduled for deletion. The returned stream
+   * must be closed after use.
+   *
+   * @param partitions the expiration partitions
+   * @return stream of sessions scheduled for deletion
+   */
+  public Stream<ExpiringSession> getScheduledQosSessions(Collection<Integer> partitions) {
+    return sessionRepository.findScheduledSessions(partitions);
+  }
 
-    var expiresAt = OffsetDateTime.parse(qosSession.getExpiresAt());
-    boolean isScheduledForDeletion = qosSession.isScheduledForDeletion();
+  /**
+   * Marks a session as scheduled for deletion, if it is not yet marked and still expires soon, so that a concurrent extension
+   * is not overruled.
+   *
+   * @param sessionId the session ID
+   * @return the marked session, or empty if it was marked or extended in the meantime
+   */
+  public Optional<ExpiringSession> markScheduledForDeletion(String sessionId) {
+    Instant handlingThreshold = Instant.now().plusSeconds(qodConfig.getQosExpirationTimeBeforeHandling());
+    return sessionRepository.markScheduledForDeletion(sessionId, handlingThreshold);
+  }
 
-    // Return true if the expiration date is before the calculated expiration time and the subscription is not scheduled for deletion
-    if (expiresAt.isBefore(timeOfExpiration) && !isScheduledForDeletion) {
-      return true;
+  /**
+   * Assigns an expiration partition to all sessions, which were stored before partitioning was introduced.
+   */
+  public void assignMissingPartitions() {
+    try (Stream<ExpiringSession> qosSessions = sessionRepository.findWithoutPartition()) {
+      qosSessions.forEach(qosSession ->
+          sessionRepository.updatePartition(qosSession.sessionId(), expirationLeaseService.partitionOf(qosSession.sessionId())));
     }
-
-    // Return true if the subscription is scheduled for deletion and the expiration is in the past
-    return isScheduledForDeletion && expiresAt.isBefore(now);
   }
 
   public QosSession save(QosSession qosSession) {
     return sessionRepository.save(qosSession);
   }
 
-  private QosSession buildQosSession(CreateSession sessionRequest) {
-    String clientId = tokenService.retrieveClientId();
+  private QosSession buildQosSession(PreparedSession preparedSession, String clientId, AsSessionWithQoSSubscription response) {
+    String subscriptionId = Util.extractSubscriptionId(response.getSelf());
+    if (subscriptionId == null) {
+      throw new QodApiException(HttpStatus.INTERNAL_SERVER_ERROR, "No valid subscription ID was provided in NEF/SCEF response");
+    }
+    var qosSession = buildQosSession(preparedSession.request(), clientId);
+    qosSession.setSubscriptionId(subscriptionId);
+    qosSession.setConflictKey(preparedSession.conflictKey());
+    qosSession.setShowDeviceInResponse(preparedSession.showDeviceInResponse());
+    return qosSession;
+  }
+
+  private QosSession buildQosSession(CreateSession sessionRequest, String clientId) {
     long defaultExpirationTimeInSeconds = qodConfig.getDefaultExpirationTimeInSeconds();
-    var now = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    String sessionId = UUID.randomUUID().toString();
 
     QosSession qosSession =
         QosSession.builder()
             .clientId(clientId)
-            .sessionId(UUID.randomUUID().toString())
-            .expiresAt(now.plusSeconds(defaultExpirationTimeInSeconds).format(ISO_DATE_TIME))
+            .sessionId(sessionId)
+            .partition(expirationLeaseService.partitionOf(sessionId))
+            .expiresAt(now.plusSeconds(defaultExpirationTimeInSeconds))
             .duration(sessionRequest.getDuration())
             .deviceIpv4addr(sessionRequest.getDevice().getIpv4Address().getPublicAddress())
             .device(sessionRequest.getDevice())
@@ -356,24 +627,39 @@ public class SessionService {
       qosSession.setQosStatus(QosStatus.REQUESTED);
     } else {
       int duration = sessionRequest.getDuration();
-      var expiresAt = now.plusSeconds(duration).format(ISO_DATE_TIME);
       qosSession.setQosStatus(QosStatus.AVAILABLE);
-      qosSession.setStartedAt(now.format(ISO_DATE_TIME));
-      qosSession.setExpiresAt(expiresAt);
+      qosSession.setStartedAt(now);
+      qosSession.setExpiresAt(now.plusSeconds(duration));
     }
 
     return qosSession;
   }
 
-  private List<QosSession> getSessionsByPublicIpv4(String publicIpv4Address) {
-    return sessionRepository
-        .findByDeviceIpv4addr(publicIpv4Address)
-        .stream()
-        .toList();
+  public Optional<SessionNotificationState> findNotificationState(String subscriptionId) {
+    return sessionRepository.findNotificationStateBySubscriptionId(subscriptionId);
+  }
+
+  /**
+   * Marks a session as available after the network allocated its resources.
+   *
+   * @param sessionId the session ID
+   * @param startedAt the start timestamp
+   * @param expiresAt the expiration timestamp
+   * @return the updated {@link SessionInfo}, or empty if the session is no longer requested or is scheduled for deletion
+   */
+  public Optional<SessionInfo> markAvailable(String sessionId, Instant startedAt, Instant expiresAt) {
+    return sessionRepository.markAvailable(sessionId, startedAt, expiresAt).map(sessionModelMapper::map);
   }
 
-  public Optional<QosSession> findBySubscriptionId(String subscriptionId) {
-    return sessionRepository.findBySubscriptionId(subscriptionId);
+  /**
+   * Marks a session as terminated by the network, so that it is deleted after the given expiration.
+   *
+   * @param sessionId the session ID
+   * @param expiresAt the new expiration timestamp
+   * @return true, if the session was updated, false if it no longer exists or is scheduled for deletion
+   */
+  public boolean markNetworkTerminated(String sessionId, Instant expiresAt) {
+    return sessionRepository.markNetworkTerminated(sessionId, expiresAt).isPresent();
   }
 
   private void handleRequestedDelete(SessionInfo sessionInfo) {
@@ -384,20 +670,19 @@ public class SessionService {
   }
 
   /**
-   * Finds & removes session from the database.
+   * Removes session from the database and its subscription from the network.
    */
-  private QosSession deleteSessionById(String sessionId) {
-    QosSession qosSession = getSessionById(sessionId);
-
+  private CompletableFuture<Void> deleteSession(QosSession qosSession) {
+    String sessionId = qosSession.getSessionId();
     log.info("Delete QoS session for sessionId <{}>", sessionId);
     sessionRepository.deleteBySessionId(sessionId);
+    idempotencyCache.forget(sessionId);
 
     if (qosSession.getSubscriptionId() != null) {
-      networkService.deleteNetworkSubscriptionById(sessionId);
-    } else {
-      log.info("A corresponding network-subscription for this session does not exist - no network subscription-deletion performed");
+      return networkService.deleteNetworkSubscriptionById(qosSession.getSubscriptionId());
     }
-    return qosSession;
+    log.info("A corresponding network-subscription for this session does not exist - no network subscription-deletion performed");
+    return CompletableFuture.completedFuture(null);
   }
 
   /**
@@ -435,36 +720,97 @@ public class SessionService {
   /**
    * Looks for existing sessions with the same ipv4 address, if existing network or ports intersect with the given parameters.
    *
-   * @param deviceIpv4             the user equipment address
-   * @param applicationServerIpv4  the application server address
-   * @param devicePorts            the user equipment ports
-   * @param applicationServerPorts the application server ports
-   */
-  private void checkExistingSessions(String deviceIpv4,
-      String applicationServerIpv4,
-      PortsSpec devicePorts,
-      PortsSpec applicationServerPorts) {
-
-    List<QosSession> qosSessions = getSessionsByPublicIpv4(deviceIpv4);
-
-    Optional<QosSession> sessionOptional = qosSessions.stream()
-        .filter(qosSession -> checkNetworkIntersection(applicationServerIpv4, qosSession.getApplicationServer().getIpv4Address()))
-        .filter(qosSession -> checkPortIntersection(
-            isPortsSpecNotDefined(devicePorts)
-                ? new PortsSpec().ranges(Collections.singletonList(new PortsSpecRangesInner().from(0).to(65535)))
-                : devicePorts, (isPortsSpecNotDefined(qosSession.getDevicePorts())) ? new PortsSpec().ranges(
-                Collections.singletonList(new PortsSpecRangesInner().from(0).to(65535))) : qosSession.getDevicePorts()))
-        .filter(qosSession -> checkPortIntersection(
-            isPortsSpecNotDefined(applicationServerPorts)
-                ? new PortsSpec().ranges(Collections.singletonList(new PortsSpecRangesInner().from(0).to(65535)))
-                : applicationServerPorts, (isPortsSpecNotDefined(qosSession.getApplicationServerPorts())) ? new PortsSpec().ranges(
-                Collections.singletonList(new PortsSpecRangesInner().from(0).to(65535))) : qosSession.getApplicationServerPorts()))
-        .findFirst();
+   * @param deviceIpv4  the user equipment address
+   * @param conflictKey the {@link SessionConflictKey} of the requested session
+   */
+  private void checkExistingSessions(String deviceIpv4, SessionConflictKey conflictKey) {
+    if (conflictKey == null) {
+      return;
+    }
+    List<SessionConflictCandidate> candidates = sessionRepository.findConflictCandidates(
+        deviceIpv4, conflictKey.getApplicationServerFrom(), conflictKey.getApplicationServerTo());
+
+    Optional<SessionConflictCandidate> sessionOptional = findConflict(candidates, conflictKey);
     if (sessionOptional.isPresent()) {
-      QosSession session = sessionOptional.get();
-      String sessionId = qodConfig.isQosMaskSensibleData() ? maskString(session.getSessionId()) : session.getSessionId();
-      throw new QodApiException(HttpStatus.CONFLICT, "Found session " + sessionId + " already active until " + session.getExpiresAt());
+      throw conflictException(sessionOptional.get());
+    }
+  }
+
+  /**
+   * Checks the requests of a bulk creation for conflicts with the existing sessions of their devices, which are read with one query,
+   * and with the preceding requests. Conflicting requests are reported in the results.
+   *
+   * @param preparedSessions the valid requests, in the order of the bulk request
+   * @param results          the results of the bulk request
+   * @return the requests without conflict
+   */
+  private List<PreparedSession> checkConflicts(List<PreparedSession> preparedSessions, CreateSessionResult[] results) {
+    Set<String> deviceIpv4Addrs = preparedSessions.stream()
+        .filter(session -> session.conflictKey() != null)
+        .map(PreparedSession::deviceIpv4Addr)
+        .collect(Collectors.toSet());
+    Map<String, List<SessionConflictCandidate>> candidatesByDevice = deviceIpv4Addrs.isEmpty()
+        ? Map.of()
+        : sessionRepository.findConflictCandidatesByDevices(deviceIpv4Addrs).stream()
+            .collect(Collectors.groupingBy(SessionConflictCandidate::deviceIpv4addr));
+
+    Map<String, List<PreparedSession>> acceptedByDevice = new HashMap<>();
+    List<PreparedSession> acceptedSessions = new ArrayList<>();
+    for (PreparedSession session : preparedSessions) {
+      SessionConflictKey conflictKey = session.conflictKey();
+      if (conflictKey != null) {
+        Optional<SessionConflictCandidate> existingSession =
+            findConflict(candidatesByDevice.getOrDefault(session.deviceIpv4Addr(), List.of()), conflictKey);
+        if (existingSession.isPresent()) {
+          results[session.index()] = failedResult(session.index(), conflictException(existingSession.get()));
+          continue;
+        }
+        List<PreparedSession> acceptedOfDevice = acceptedByDevice.computeIfAbsent(session.deviceIpv4Addr(), device -> new ArrayList<>());
+        Optional<PreparedSession> requestedSession = acceptedOfDevice.stream()
+            .filter(accepted -> accepted.conflictKey().conflictsWith(conflictKey))
+            .findFirst();
+        if (requestedSession.isPresent()) {
+          results[session.index()] = failedResult(session.index(), new QodApiException(HttpStatus.CONFLICT,
+              "Conflicts with the session requested at index " + requestedSession.get().index()));
+          continue;
+        }
+        acceptedOfDevice.add(session);
+      }
+      acceptedSessions.add(session);
     }
+    return acceptedSessions;
+  }
+
+  private Optional<SessionConflictCandidate> findConflict(List<SessionConflictCandidate> candidates, SessionConflictKey conflictKey) {
+    return candidates.stream()
+        .filter(candidate -> {
+          SessionConflictKey existingKey = candidate.resolveConflictKey();
+          return existingKey != null && conflictKey.conflictsWith(existingKey);
+        })
+        .findFirst();
+  }
+
+  private QodApiException conflictException(SessionConflictCandidate session) {
+    String sessionId = qodConfig.isQosMaskSensibleData() ? maskString(session.sessionId()) : session.sessionId();
+    return new QodApiException(HttpStatus.CONFLICT, "Found session " + sessionId + " already active until " + session.expiresAt());
+  }
+
+  /**
+   * Converts the error of a single request of a bulk creation into its result.
+   */
+  private static CreateSessionResult failedResult(int index, Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    ErrorInfo errorInfo;
+    if (cause instanceof QodApiException e) {
+      errorInfo = new ErrorInfo().status(e.getHttpStatus().value()).code(e.getErrorCode()).message(e.getMessage());
+    } else {
+      log.error("Unhandled exception occurred while creating session at index {}: ", index, cause);
+      errorInfo = new ErrorInfo()
+          .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+          .code(HttpStatus.INTERNAL_SERVER_ERROR.name())
+          .message("Internal Server Error");
+    }
+    return new CreateSessionResult().index(index).error(errorInfo);
   }
 
   /**
@@ -513,19 +859,6 @@ public class SessionService {
     return unmaskedString.substring(0, indexOfMaskDelimiter).replaceAll("[^-]", "X") + unmaskedString.substring(indexOfMaskDelimiter);
   }
 
-  /**
-   * Check if the given networks intersect.
-   *
-   * @param network1 single IP address or network
-   * @param network2 single IP address or network
-   * @return true for intersecting networks, false otherwise
-   */
-  private static boolean checkNetworkIntersection(String network1, String network2) {
-    IPAddressString one = new IPAddressString(network1);
-    IPAddressString two = new IPAddressString(network2);
-    return one.contains(two) || two.contains(one);
-  }
-
   /**
    * Checks if ports range is ordered from lower to higher and are in 0-65535.
    *
@@ -552,50 +885,6 @@ public class SessionService {
     }
   }
 
-  /**
-   * Check if the ports of a new requested session are already defined in an active Session.
-   *
-   * @param newSessionPorts Ports of the new requested Session
-   * @param existingPorts   Ports of active sessions
-   * @return true for ports which are already in use, false for ports not in use
-   */
-  private static boolean checkPortIntersection(PortsSpec newSessionPorts, PortsSpec existingPorts) {
-    // ports list comparison
-    if (newSessionPorts.getPorts() != null && existingPorts.getPorts() != null
-        && newSessionPorts.getPorts().stream().anyMatch(existingPorts.getPorts()::contains)) {
-      return true;
-    }
-
-    // ports list & ports range comparison
-    if (checkPortRanges(newSessionPorts, existingPorts)) {
-      return true;
-    }
-    if (checkPortRanges(existingPorts, newSessionPorts)) {
-      return true;
-    }
-
-    // ports range comparison
-    if (newSessionPorts.getRanges() != null && existingPorts.getRanges() != null) {
-      for (var range : existingPorts.getRanges()) {
-        if (newSessionPorts.getRanges().stream().anyMatch(port -> port.getTo() >= range.getFrom() && port.getFrom() <= range.getTo())) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
-  private static boolean checkPortRanges(PortsSpec portSpecs1, PortsSpec portSpecs2) {
-    if (portSpecs1.getPorts() != null && portSpecs2.getRanges() != null) {
-      for (var range : portSpecs2.getRanges()) {
-        if (portSpecs1.getPorts().stream().anyMatch(port -> range.getFrom() <= port && range.getTo() >= port)) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
   /**
    * Returns the reference to the corresponding QosProfile.
    *
@@ -625,4 +914,20 @@ public class SessionService {
         .addFlowDescriptionsItem(String.format(FLOW_DESCRIPTION_TEMPLATE_OUT, asAddr, ueAddr));
   }
 
+
+  /**
+   * A validated request with the derived parameters of its network subscription.
+   *
+   * @param index                the position of the request within a bulk request, 0 for a single request
+   * @param request              the request
+   * @param deviceIpv4Addr       the public IPv4 address of the device
+   * @param conflictKey          the {@link SessionConflictKey}, {@code null} if the application server is no IPv4 address or network
+   * @param flowInfo             the {@link FlowInfo} of the subscription
+   * @param qosReference         the QoS reference of the subscription
+   * @param showDeviceInResponse {@code true}, if the device shell be shown in responses
+   */
+  private record PreparedSession(int index, CreateSession request, String deviceIpv4Addr, SessionConflictKey conflictKey,
+                                 FlowInfo flowInfo, String qosReference, boolean showDeviceInResponse) {
+
+  }
 }
@@ -0,0 +1,133 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import com.camara.repository.QosSessionRepository;
+import com.camara.repository.QosSessionRepositoryCustom.MigrationBatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converts the {@code startedAt} and {@code expiresAt} timestamps of sessions stored by previous versions from ISO-8601 strings
+ * into dates. The sessions are converted in small batches by a background thread while the service is online, every node can run
+ * the migration concurrently. The sessions are scanned in passes, each pass starts again with the first session, so sessions skipped
+ * by a concurrent write or stored with string timestamps by nodes of the previous version during a rolling upgrade are converted by
+ * a later pass. After a full pass, which found no session with a convertible string timestamp, the sessions are checked again in a
+ * longer interval, as nodes of the previous version may still store string timestamps.
+ *
+ * <p>Until a session is converted, it is read by a converter, but it is not found by the expiration scan, which compares dates.
+ */
+@Service
+@ConditionalOnProperty(prefix = "qod.migration.session-timestamps", name = "enabled", havingValue = "true")
+@Slf4j
+public class SessionTimestampMigration {
+
+  private final QosSessionRepository sessionRepository;
+  private final int batchSize;
+  private final long batchIntervalInMillis;
+  private final long recheckIntervalInMillis;
+  private final ScheduledExecutorService migrationThread;
+  private Object lastId;
+  private long convertibleInPass;
+  private long converted;
+
+  /**
+   * Creates and starts the migration.
+   *
+   * @param qodConfig         the {@link QodConfig}
+   * @param sessionRepository the {@link QosSessionRepository}
+   */
+  public SessionTimestampMigration(QodConfig qodConfig, QosSessionRepository sessionRepository) {
+    this.sessionRepository = sessionRepository;
+    this.batchSize = qodConfig.getSessionTimestampMigrationBatchSize();
+    this.batchIntervalInMillis = qodConfig.getSessionTimestampMigrationBatchIntervalInMillis();
+    this.recheckIntervalInMillis = TimeUnit.SECONDS.toMillis(qodConfig.getSessionTimestampMigrationRecheckIntervalInSeconds());
+
+    this.migrationThread = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("session-timestamp-migration").setDaemon(true).build());
+    migrationThread.schedule(this::migrate, batchIntervalInMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    migrationThread.shutdownNow();
+  }
+
+  /**
+   * Converts the next batch of sessions. At the end of a pass, the next pass starts again with the first session, unless the
+   * pass found no session with a convertible string timestamp.
+   *
+   * @return true, if sessions with string timestamps may be left
+   */
+  boolean migrateBatch() {
+    MigrationBatch batch = sessionRepository.convertLegacyTimestamps(lastId, batchSize);
+    if (batch.scanned() == 0) {
+      boolean passStartedAtFirstSession = lastId == null;
+      boolean anotherPassNeeded = convertibleInPass > 0;
+      lastId = null;
+      convertibleInPass = 0;
+      return !passStartedAtFirstSession && anotherPassNeeded;
+    }
+    lastId = batch.lastId();
+    convertibleInPass += batch.convertible();
+    converted += batch.converted();
+    log.debug("Converted the timestamps of {} of {} sessions", batch.converted(), batch.scanned());
+    return true;
+  }
+
+  /**
+   * Runs the next batch.
+   *
+   * @return the delay in milliseconds until the next batch, the recheck interval after a pass without convertible sessions
+   */
+  long runBatch() {
+    try {
+      if (migrateBatch()) {
+        return batchIntervalInMillis;
+      }
+      if (converted > 0) {
+        log.info("Migration of session timestamps completed, {} sessions converted", converted);
+        converted = 0;
+      }
+      return recheckIntervalInMillis;
+    } catch (RuntimeException e) {
+      log.error("Error while migrating session timestamps, retrying with the next batch", e);
+      return batchIntervalInMillis;
+    }
+  }
+
+  private void migrate() {
+    long delay = runBatch();
+    if (!migrationThread.isShutdown()) {
+      migrationThread.schedule(this::migrate, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+}
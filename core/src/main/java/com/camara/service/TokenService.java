@@ -23,23 +23,14 @@
 
 package com.camara.service;
 
-import static org.springframework.http.HttpHeaders.AUTHORIZATION;
-
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.exceptions.JWTDecodeException;
-import com.auth0.jwt.interfaces.Claim;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.camara.config.QodConfig;
 import com.camara.model.Device;
 import com.camara.model.Device.DeviceIpv4Addr;
-import jakarta.servlet.http.HttpServletRequest;
+import com.camara.security.TokenContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestAttributes;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 @Service
 @Slf4j
@@ -52,7 +43,6 @@ public class TokenService {
   private static final String DEVICE_IPV4_PRIVATE_ADDRESS_CLAIM = "ipv4Address_private";
 
   private final QodConfig qodConfig;
-  private DecodedJWT decodedToken;
 
   /**
    * Retrieves device identifiers from the token.
@@ -60,11 +50,12 @@ public class TokenService {
    * @return a filled in {@link Device} based on device identifiers in the token
    */
   public Device retrieveDevice() {
-    if (!isValidToken()) {
+    TokenContext tokenContext = TokenContext.current();
+    if (!tokenContext.isPresent()) {
       return null;
     }
-    String publicIpv4 = retrieveIpv4PublicAddress();
-    String privateIpv4 = retrieveIpv4PrivateAddress();
+    String publicIpv4 = retrieveValueFromClaim(tokenContext, DEVICE_IPV4_PUBLIC_ADDRESS_CLAIM);
+    String privateIpv4 = retrieveValueFromClaim(tokenContext, DEVICE_IPV4_PRIVATE_ADDRESS_CLAIM);
     if (StringUtils.isAllEmpty(publicIpv4, privateIpv4)) {
       log.info("No device contained in access-token");
       return null;
@@ -85,10 +76,7 @@ public class TokenService {
    * @return A String that represents the required value for the claim. If it is not present, then return null.
    */
   public String retrieveClientId() {
-    String clientId = null;
-    if (isValidToken()) {
-      clientId = retrieveValueFromClaim(CLIENT_ID_CLAIM);
-    }
+    String clientId = retrieveValueFromClaim(TokenContext.current(), CLIENT_ID_CLAIM);
 
     if (StringUtils.isBlank(clientId)
         && qodConfig.isAllowAnonymousClients()) {
@@ -97,58 +85,8 @@ public class TokenService {
     return clientId;
   }
 
-  /**
-   * Retrieves the IPv4 public address from the token.
-   *
-   * @return A String that represents the required value for the claim. If it is not present, then return null.
-   */
-  private String retrieveIpv4PublicAddress() {
-    return retrieveValueFromClaim(DEVICE_IPV4_PUBLIC_ADDRESS_CLAIM);
-  }
-
-  /**
-   * Retrieves the IPv4 private address from the token.
-   *
-   * @return A String that represents the required value for the claim. If it is not present, then return null.
-   */
-  private String retrieveIpv4PrivateAddress() {
-    return retrieveValueFromClaim(DEVICE_IPV4_PRIVATE_ADDRESS_CLAIM);
-  }
-
-  private boolean isValidToken() {
-    log.debug("Retrieving authorization header");
-    var authorizationHeader = retrieveAuthorizationHeader();
-    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-      String token = authorizationHeader.substring(7);
-      decodedToken = decodeJwt(token);
-      return decodedToken != null;
-    } else {
-      return false;
-    }
-  }
-
-  private DecodedJWT decodeJwt(String token) {
-    try {
-      return JWT.decode(token);
-    } catch (JWTDecodeException ex) {
-      log.debug("Invalid token provided: {}", ex.getMessage(), ex);
-      log.error("Invalid token in header provided. Values cannot be extracted.");
-      return null;
-    }
-  }
-
-  private String retrieveValueFromClaim(String claimName) {
+  private static String retrieveValueFromClaim(TokenContext tokenContext, String claimName) {
     log.debug("Retrieving value from claim {} from token", claimName);
-    Claim claim = decodedToken.getClaim(claimName);
-    if (claim.isMissing()) {
-      log.debug("The claim {} is not present in the provided token", claimName);
-    }
-    return claim.asString();
-  }
-
-  private static String retrieveAuthorizationHeader() {
-    RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
-    HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
-    return request.getHeader(AUTHORIZATION);
+    return tokenContext.getClaimAsString(claimName);
   }
 }
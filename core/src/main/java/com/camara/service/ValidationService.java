@@ -36,6 +36,7 @@ import com.camara.model.DeviceIdentifierTypes;
 import com.camara.qos_profiles.api.model.QosProfile;
 import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
 import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.DeleteSessionsInput;
 import com.camara.quality_on_demand.api.model.Device;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.RetrieveSessionsInput;
@@ -47,7 +48,6 @@ import java.net.URI;
 import java.net.URL;
 import java.util.Objects;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -88,8 +88,8 @@ public class ValidationService {
   }
 
   private void checkDurationInProfileRange(Integer duration, QosProfile qosProfile) {
-    long minDurationSeconds = qosProfileService.retrieveDurationInSeconds(qosProfile.getMinDuration());
-    long maxDurationSeconds = qosProfileService.retrieveDurationInSeconds(qosProfile.getMaxDuration());
+    long minDurationSeconds = qosProfileService.getMinDurationInSeconds(qosProfile.getName());
+    long maxDurationSeconds = qosProfileService.getMaxDurationInSeconds(qosProfile.getName());
     if (duration < minDurationSeconds || maxDurationSeconds < duration) {
       throw new QodApiException(HttpStatus.BAD_REQUEST,
           "The requested duration is out of the allowed range for the specific QoS profile: " + qosProfile.getName(),
@@ -163,6 +163,16 @@ public class ValidationService {
     validateSinkCredential(request.getSinkCredential());
   }
 
+  /**
+   * Validates a {@link DeleteSessionsInput} request.
+   *
+   * @param request {@link DeleteSessionsInput}
+   */
+  public void validate(DeleteSessionsInput request) {
+    validateIpv4Network(request.getDeviceIpv4Network(), "deviceIpv4Network");
+    validateIpv4Network(request.getApplicationServerIpv4Network(), "applicationServerIpv4Network");
+  }
+
   private void validateDeviceAndToken(com.camara.model.Device requestDevice, com.camara.model.Device tokenDevice,
       Consumer<Device> request) {
     if (requestDevice != null && tokenDevice != null) {
@@ -203,11 +213,21 @@ public class ValidationService {
     if (ipAddress != null) {
       // if multiple device.Ipv4Addr are not allowed and specified device.Ipv4Addr is a network segment, return error
       validateNetworkSegment(ipAddress);
-      Matcher matcher = IPV4_PATTERN.matcher(ipAddress);
-      if (!matcher.matches()) {
-        throw new QodApiException(HttpStatus.BAD_REQUEST, "Network specification for " + parameterName + " not valid: <" + ipAddress + ">",
-            ErrorCode.VALIDATION_FAILED);
-      }
+      validateIpv4Network(ipAddress, parameterName);
+    }
+  }
+
+  /**
+   * Validates a single IPv4 address or an IPv4 network in form {@code address/mask} against a specified regular expression pattern.
+   *
+   * @param ipv4Network   The IPv4 address or network to validate, ignored if {@code null}.
+   * @param parameterName The name of the parameter associated with the IPv4 address or network.
+   * @throws QodApiException if the provided IPv4 address or network is not valid, according to the pattern.
+   */
+  private void validateIpv4Network(String ipv4Network, String parameterName) {
+    if (ipv4Network != null && !IPV4_PATTERN.matcher(ipv4Network).matches()) {
+      throw new QodApiException(HttpStatus.BAD_REQUEST, "Network specification for " + parameterName + " not valid: <" + ipv4Network + ">",
+          ErrorCode.VALIDATION_FAILED);
     }
   }
 
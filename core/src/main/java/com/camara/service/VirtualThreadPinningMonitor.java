@@ -0,0 +1,121 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import com.camara.config.QodConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads, which are pinned to their carrier thread while blocking, e.g. inside a {@code synchronized} block of a
+ * client library. A pinned virtual thread blocks its carrier, so pinning in hot paths limits the number of concurrent requests.
+ *
+ * <p>The JFR event {@code jdk.VirtualThreadPinned} is streamed in-process. Each event is logged and recorded by the timer
+ * {@code qod.threads.virtual.pinned}, tagged with the innermost application frame (or the innermost frame, if no application code is
+ * involved).
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String APPLICATION_PACKAGE = "com.camara.";
+  private static final String UNKNOWN_LOCATION = "unknown";
+
+  private final MeterRegistry meterRegistry;
+  private final RecordingStream recordingStream;
+
+  /**
+   * Creates the monitor.
+   *
+   * @param qodConfig     the {@link QodConfig}
+   * @param meterRegistry the {@link MeterRegistry}
+   */
+  public VirtualThreadPinningMonitor(QodConfig qodConfig, MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT)
+        .withThreshold(Duration.ofMillis(qodConfig.getVirtualThreadsPinnedThresholdMillis()))
+        .withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::report);
+  }
+
+  @PostConstruct
+  void start() {
+    recordingStream.startAsync();
+  }
+
+  @PreDestroy
+  void stop() {
+    recordingStream.close();
+  }
+
+  void report(RecordedEvent event) {
+    String location = findLocation(event.getStackTrace());
+    Timer.builder("qod.threads.virtual.pinned")
+        .description("Time virtual threads were pinned to their carrier thread while blocking")
+        .tag("location", location)
+        .register(meterRegistry)
+        .record(event.getDuration());
+    log.warn("Virtual thread was pinned for {} ms at {}", event.getDuration().toMillis(), location);
+    if (log.isDebugEnabled() && event.getStackTrace() != null) {
+      event.getStackTrace().getFrames().forEach(frame -> log.debug("  at {}", toLocation(frame)));
+    }
+  }
+
+  /**
+   * Returns the innermost frame of the application, because the pinning frame itself is usually inside the JDK or a library.
+   *
+   * @param stackTrace the stack trace of the pinned thread
+   * @return the location as {@code class.method}
+   */
+  static String findLocation(RecordedStackTrace stackTrace) {
+    if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+      return UNKNOWN_LOCATION;
+    }
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    return frames.stream()
+        .filter(RecordedFrame::isJavaFrame)
+        .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+        .findFirst()
+        .map(VirtualThreadPinningMonitor::toLocation)
+        .orElseGet(() -> toLocation(frames.getFirst()));
+  }
+
+  private static String toLocation(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+  }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.util;
+
+import com.camara.model.EncodedCloudEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.CloudEventData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * Encodes {@link CloudEvent}s in the structured JSON format. The data of the event is already JSON and copied as raw bytes.
+ */
+public final class CloudEventEncoder {
+
+  private static final JsonFactory jsonFactory = new JsonFactory();
+  private static final int ENVELOPE_SIZE = 384;
+
+  private CloudEventEncoder() {
+  }
+
+  /**
+   * Encodes a {@link CloudEvent}.
+   *
+   * @param cloudEvent the {@link CloudEvent}
+   * @return the {@link EncodedCloudEvent}
+   */
+  public static EncodedCloudEvent encode(CloudEvent cloudEvent) {
+    CloudEventData cloudEventData = cloudEvent.getData();
+    byte[] data = cloudEventData != null ? cloudEventData.toBytes() : null;
+    ByteArrayOutputStream out = new ByteArrayOutputStream(ENVELOPE_SIZE + (data != null ? data.length : 0));
+    try (JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+      gen.writeStartObject();
+      gen.writeStringField("id", cloudEvent.getId());
+      gen.writeStringField("source", cloudEvent.getSource().toString());
+      gen.writeStringField("type", cloudEvent.getType());
+      gen.writeStringField("datacontenttype", cloudEvent.getDataContentType());
+      gen.writeStringField("subject", cloudEvent.getSubject());
+      OffsetDateTime time = cloudEvent.getTime();
+      if (time != null) {
+        gen.writeStringField("time", time.toString());
+      }
+      gen.writeStringField("specversion", cloudEvent.getSpecVersion().toString());
+      gen.writeFieldName("data");
+      if (data != null) {
+        // writes the separator of the field, the data itself is appended to the stream without decoding it
+        gen.writeRawValue("");
+        gen.flush();
+        out.write(data);
+      } else {
+        gen.writeNull();
+      }
+      gen.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new EncodedCloudEvent(cloudEvent.getId(), out.toByteArray());
+  }
+
+  /**
+   * Joins encoded events to a JSON array, as used by the batched content mode.
+   *
+   * @param encodedEvents the {@link EncodedCloudEvent}s
+   * @return the JSON array as UTF-8 bytes
+   */
+  public static byte[] encodeBatch(Collection<EncodedCloudEvent> encodedEvents) {
+    int size = encodedEvents.stream().mapToInt(EncodedCloudEvent::size).sum() + encodedEvents.size() + 1;
+    ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+    out.write('[');
+    boolean first = true;
+    for (EncodedCloudEvent encodedEvent : encodedEvents) {
+      if (!first) {
+        out.write(',');
+      }
+      out.writeBytes(encodedEvent.getJson());
+      first = false;
+    }
+    out.write(']');
+    return out.toByteArray();
+  }
+}
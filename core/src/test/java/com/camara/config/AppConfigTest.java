@@ -0,0 +1,198 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.reactive.HttpComponentsClientHttpConnector;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+class AppConfigTest {
+
+  private static final int MAX_CONNECTIONS = 4;
+  private static final int MAX_CONNECTIONS_PER_ROUTE = 2;
+  private static final long READ_TIMEOUT_IN_MILLIS = 300;
+
+  private final AppConfig appConfig = new AppConfig();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private NetworkConfig networkConfig;
+  private SimpleMeterRegistry meterRegistry;
+  private ExecutorService serverExecutor;
+  private HttpServer server;
+  private String serverUri;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    networkConfig = new NetworkConfig();
+    networkConfig.setHttpMaxConnections(MAX_CONNECTIONS);
+    networkConfig.setHttpMaxConnectionsPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+    networkConfig.setHttpConnectTimeoutInMillis(1000);
+    networkConfig.setHttpReadTimeoutInMillis(READ_TIMEOUT_IN_MILLIS);
+    networkConfig.setHttpIdleTimeoutInMillis(60_000);
+    meterRegistry = new SimpleMeterRegistry();
+
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext("/ok", exchange -> respond(exchange, 0));
+    server.createContext("/slow", exchange -> respond(exchange, READ_TIMEOUT_IN_MILLIS * 5));
+    server.start();
+    serverUri = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void testNetworkConnectionManager_PoolLimitsAndMetrics() {
+    try (PoolingAsyncClientConnectionManager connectionManager = appConfig.networkConnectionManager(networkConfig, meterRegistry)) {
+      assertEquals(MAX_CONNECTIONS, connectionManager.getMaxTotal());
+      assertEquals(MAX_CONNECTIONS_PER_ROUTE, connectionManager.getDefaultMaxPerRoute());
+      assertPoolMetrics("network");
+    }
+  }
+
+  @Test
+  void testTokenConnectionManager_PoolLimitsAndMetrics() {
+    try (PoolingHttpClientConnectionManager connectionManager = appConfig.tokenConnectionManager(networkConfig, meterRegistry)) {
+      assertEquals(MAX_CONNECTIONS, connectionManager.getMaxTotal());
+      assertEquals(MAX_CONNECTIONS_PER_ROUTE, connectionManager.getDefaultMaxPerRoute());
+      assertPoolMetrics("network-token");
+    }
+  }
+
+  @Test
+  void testNetworkHttpClient_KeepsConnectionsAlive() throws IOException {
+    PoolingAsyncClientConnectionManager connectionManager = appConfig.networkConnectionManager(networkConfig, meterRegistry);
+    try (CloseableHttpAsyncClient httpClient = appConfig.networkHttpClient(networkConfig, connectionManager)) {
+      WebClient webClient = WebClient.builder().clientConnector(new HttpComponentsClientHttpConnector(httpClient)).build();
+
+      for (int i = 0; i < 3; i++) {
+        assertEquals("ok", webClient.get().uri(serverUri + "/ok").retrieve().bodyToMono(String.class).block());
+        /* the connection is released to the pool asynchronously after the body was received */
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> connectionManager.getTotalStats().getLeased() == 0);
+      }
+
+      assertEquals(1, clientPorts.size());
+      assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    } finally {
+      connectionManager.close(CloseMode.IMMEDIATE);
+    }
+  }
+
+  @Test
+  void testNetworkHttpClient_ResponseTimeout() throws IOException {
+    PoolingAsyncClientConnectionManager connectionManager = appConfig.networkConnectionManager(networkConfig, meterRegistry);
+    try (CloseableHttpAsyncClient httpClient = appConfig.networkHttpClient(networkConfig, connectionManager)) {
+      WebClient webClient = WebClient.builder().clientConnector(new HttpComponentsClientHttpConnector(httpClient)).build();
+
+      assertThrows(WebClientRequestException.class,
+          () -> webClient.get().uri(serverUri + "/slow").retrieve().bodyToMono(String.class).block());
+    } finally {
+      connectionManager.close(CloseMode.IMMEDIATE);
+    }
+  }
+
+  @Test
+  void testRestTemplate_KeepsConnectionsAlive() {
+    try (PoolingHttpClientConnectionManager connectionManager = appConfig.tokenConnectionManager(networkConfig, meterRegistry)) {
+      RestTemplate restTemplate = appConfig.restTemplate(networkConfig, provide(connectionManager));
+
+      for (int i = 0; i < 3; i++) {
+        assertEquals("ok", restTemplate.getForObject(serverUri + "/ok", String.class));
+      }
+
+      assertEquals(1, clientPorts.size());
+      assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+  }
+
+  @Test
+  void testRestTemplate_ReadTimeout() {
+    try (PoolingHttpClientConnectionManager connectionManager = appConfig.tokenConnectionManager(networkConfig, meterRegistry)) {
+      RestTemplate restTemplate = appConfig.restTemplate(networkConfig, provide(connectionManager));
+
+      assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(serverUri + "/slow", String.class));
+    }
+  }
+
+  private void assertPoolMetrics(String poolName) {
+    assertEquals(MAX_CONNECTIONS,
+        meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", poolName).gauge().value());
+    assertEquals(MAX_CONNECTIONS_PER_ROUTE,
+        meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").tag("httpclient", poolName).gauge().value());
+    assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending").tag("httpclient", poolName).gauge().value());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<PoolingHttpClientConnectionManager> provide(PoolingHttpClientConnectionManager connectionManager) {
+    ObjectProvider<PoolingHttpClientConnectionManager> provider = mock(ObjectProvider.class);
+    when(provider.getObject()).thenReturn(connectionManager);
+    return provider;
+  }
+
+  private void respond(HttpExchange exchange, long delayInMillis) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    try {
+      Thread.sleep(delayInMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "text/plain");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(body);
+    }
+  }
+}
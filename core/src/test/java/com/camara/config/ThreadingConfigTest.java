@@ -0,0 +1,59 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class ThreadingConfigTest {
+
+  @Test
+  void testDisposeSchedulers_VirtualThreadSchedulerDisposed() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setVirtualThreadsEnabled(true);
+    ThreadingConfig threadingConfig = new ThreadingConfig();
+    Scheduler scheduler = threadingConfig.networkResponseScheduler(qodConfig);
+
+    threadingConfig.disposeSchedulers();
+
+    assertTrue(scheduler.isDisposed());
+  }
+
+  @Test
+  void testDisposeSchedulers_SharedSchedulerNotDisposed() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setVirtualThreadsEnabled(false);
+    ThreadingConfig threadingConfig = new ThreadingConfig();
+    Scheduler scheduler = threadingConfig.networkResponseScheduler(qodConfig);
+
+    threadingConfig.disposeSchedulers();
+
+    assertSame(Schedulers.boundedElastic(), scheduler);
+    assertFalse(scheduler.isDisposed());
+  }
+}
@@ -23,6 +23,8 @@
 
 package com.camara.controller;
 
+import static com.camara.util.SessionsTestData.QOD_SESSIONS_CREATE_URI;
+import static com.camara.util.SessionsTestData.QOD_SESSIONS_DELETE_URI;
 import static com.camara.util.SessionsTestData.QOD_SESSIONS_RETRIEVE_URI;
 import static com.camara.util.SessionsTestData.QOD_SESSIONS_URI;
 import static com.camara.util.SessionsTestData.SESSION_UUID;
@@ -33,29 +35,41 @@ import static com.camara.util.TestData.getAsJsonFormat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.camara.annotation.UnsecuredWebMvcTest;
 import com.camara.exception.ExceptionHandlerAdvice;
 import com.camara.exception.QodApiException;
 import com.camara.quality_on_demand.api.QoSSessionsApiController;
+import com.camara.quality_on_demand.api.model.CreateSessionResult;
+import com.camara.quality_on_demand.api.model.CreateSessionsInput;
+import com.camara.quality_on_demand.api.model.DeleteSessionsInput;
 import com.camara.quality_on_demand.api.model.Device;
+import com.camara.quality_on_demand.api.model.ErrorInfo;
 import com.camara.quality_on_demand.api.model.ExtendSessionDuration;
 import com.camara.quality_on_demand.api.model.RetrieveSessionsInput;
+import com.camara.quality_on_demand.api.model.SessionInfo;
 import com.camara.security.SecurityStandardConfig;
+import com.camara.service.IdempotencyCache;
 import com.camara.service.SessionService;
 import com.camara.service.ValidationService;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,6 +79,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
 @UnsecuredWebMvcTest(controllers = QoSSessionsApiController.class)
@@ -81,16 +96,28 @@ class SessionsControllerTest {
   @MockitoBean
   private ValidationService validationService;
 
+  @MockitoBean
+  private IdempotencyCache idempotencyCache;
+
+  @BeforeEach
+  void setUp() {
+    when(idempotencyCache.createOnce(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<CompletableFuture<SessionInfo>>>getArgument(2).get());
+  }
+
   @Nested
   class CreateSessionTests {
 
     @Test
     void testCreateSession_Created_201() throws Exception {
-      when(sessionService.createSession(any(), anyBoolean())).thenReturn(createSessionInfoSample());
-      mockMvc.perform(post(QOD_SESSIONS_URI)
+      when(sessionService.createSession(any(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(createSessionInfoSample()));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI)
               .accept(MediaType.APPLICATION_JSON_VALUE)
               .contentType(MediaType.APPLICATION_JSON_VALUE)
               .content(getAsJsonFormat(createValidTestSession())))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isCreated())
           .andExpect(jsonPath("$.sessionId").value(SESSION_UUID));
@@ -99,11 +126,15 @@ class SessionsControllerTest {
 
     @Test
     void testCreateSession_Created_WithoutDeviceInRequest_201() throws Exception {
-      when(sessionService.createSession(any(), anyBoolean())).thenReturn(createSessionInfoSample().device(null));
-      mockMvc.perform(post(QOD_SESSIONS_URI)
+      when(sessionService.createSession(any(), anyBoolean()))
+          .thenReturn(CompletableFuture.completedFuture(createSessionInfoSample().device(null)));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI)
               .accept(MediaType.APPLICATION_JSON_VALUE)
               .contentType(MediaType.APPLICATION_JSON_VALUE)
               .content(getAsJsonFormat(createValidTestSession().device(null))))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isCreated())
           .andExpect(jsonPath("$.sessionId").value(SESSION_UUID))
@@ -111,6 +142,53 @@ class SessionsControllerTest {
       verify(sessionService, times(1)).createSession(any(), eq(false));
     }
 
+    @Test
+    void testCreateSession_IdempotencyKey() throws Exception {
+      when(sessionService.createSession(any(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(createSessionInfoSample()));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI)
+              .header("Idempotency-Key", "key-1")
+              .header("x-correlator", "correlator-1")
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(createValidTestSession())))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
+          .andExpect(status().isCreated());
+      verify(idempotencyCache, times(1)).createOnce(eq("key-1"), any(), any());
+    }
+
+    @Test
+    void testCreateSession_CorrelatorIsNoIdempotencyKey() throws Exception {
+      when(sessionService.createSession(any(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(createSessionInfoSample()));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI)
+              .header("x-correlator", "correlator-1")
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(createValidTestSession())))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
+          .andExpect(status().isCreated());
+      verify(idempotencyCache, times(1)).createOnce(isNull(), any(), any());
+    }
+
+    @Test
+    void testCreateSession_ServiceUnavailable_NetworkFailedAsynchronously_503() throws Exception {
+      when(sessionService.createSession(any(), anyBoolean())).thenReturn(CompletableFuture.failedFuture(
+          new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "NEF/SCEF returned error 503 while calling NEF/SCEF")));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI)
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(createValidTestSession())))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
+          .andDo(MockMvcResultHandlers.print())
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(jsonPath("$.message").value("NEF/SCEF returned error 503 while calling NEF/SCEF"));
+    }
+
     @Test
     void testCreateSession_BadRequest_InvalidDuration_400() throws Exception {
       mockMvc.perform(post(QOD_SESSIONS_URI)
@@ -132,13 +210,54 @@ class SessionsControllerTest {
     }
   }
 
+  @Nested
+  class CreateSessionsTests {
+
+    @Test
+    void testCreateSessions_Ok_200() throws Exception {
+      when(sessionService.createSessions(any())).thenReturn(CompletableFuture.completedFuture(List.of(
+          new CreateSessionResult().index(0).sessionInfo(createSessionInfoSample()),
+          new CreateSessionResult().index(1).error(new ErrorInfo().status(409).code("CONFLICT").message("Conflict")))));
+
+      var input = new CreateSessionsInput().sessions(List.of(createValidTestSession(), createValidTestSession()));
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_CREATE_URI)
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(input)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
+          .andDo(MockMvcResultHandlers.print())
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].sessionInfo.sessionId").value(SESSION_UUID))
+          .andExpect(jsonPath("$[1].index").value(1))
+          .andExpect(jsonPath("$[1].error.status").value(409));
+      verify(sessionService, times(1)).createSessions(any());
+    }
+
+    @Test
+    void testCreateSessions_BadRequest_NoSessions_400() throws Exception {
+      mockMvc.perform(post(QOD_SESSIONS_CREATE_URI)
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(new CreateSessionsInput().sessions(List.of()))))
+          .andDo(MockMvcResultHandlers.print())
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Validation failed for parameter 'sessions'"));
+    }
+  }
+
   @Nested
   class DeleteSessionTests {
 
     @Test
     void testDeleteSession_Ok_204() throws Exception {
-      mockMvc.perform(delete(QOD_SESSIONS_URI + "/" + SESSION_UUID)
+      when(sessionService.deleteSessionForClient(any(UUID.class))).thenReturn(CompletableFuture.completedFuture(null));
+      MvcResult mvcResult = mockMvc.perform(delete(QOD_SESSIONS_URI + "/" + SESSION_UUID)
               .accept(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isNoContent());
     }
@@ -146,7 +265,7 @@ class SessionsControllerTest {
     @Test
     void testDeleteSession_NotFound_404() throws Exception {
       doThrow(new QodApiException(HttpStatus.NOT_FOUND, "Session not found"))
-          .when(sessionService).getSessionInfoById(any(UUID.class));
+          .when(sessionService).deleteSessionForClient(any(UUID.class));
 
       mockMvc.perform(delete(QOD_SESSIONS_URI + "/" + SESSION_UUID)
               .accept(MediaType.APPLICATION_JSON_VALUE))
@@ -156,14 +275,40 @@ class SessionsControllerTest {
     }
   }
 
+  @Nested
+  class DeleteSessionsTests {
+
+    @Test
+    void testDeleteSessions_Ok_200() throws Exception {
+      when(sessionService.deleteSessionsForClient(any(), any())).thenReturn(CompletableFuture.completedFuture(3));
+
+      var input = new DeleteSessionsInput().applicationServerIpv4Network("198.51.100.0/24");
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_DELETE_URI)
+              .accept(MediaType.APPLICATION_JSON_VALUE)
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .content(getAsJsonFormat(input)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
+          .andDo(MockMvcResultHandlers.print())
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.deletedSessions").value(3));
+      verify(validationService, times(1)).validate(any(DeleteSessionsInput.class));
+      verify(sessionService, times(1)).deleteSessionsForClient(null, "198.51.100.0/24");
+    }
+  }
+
   @Nested
   class GetSessionTests {
 
     @Test
     void testGetSession_Ok_200() throws Exception {
       when(sessionService.getSessionInfoById(any(UUID.class))).thenReturn(createSessionInfoSample());
-      mockMvc.perform(get(QOD_SESSIONS_URI + "/" + SESSION_UUID)
+      MvcResult mvcResult = mockMvc.perform(get(QOD_SESSIONS_URI + "/" + SESSION_UUID)
               .accept(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isOk())
           .andExpect(jsonPath("$.sessionId").value(SESSION_UUID));
@@ -178,10 +323,13 @@ class SessionsControllerTest {
       when(sessionService.extendQosSession(any(), any())).thenReturn(createSessionInfoSample());
 
       var request = new ExtendSessionDuration().requestedAdditionalDuration(60);
-      mockMvc.perform(post(QOD_SESSIONS_URI + "/" + SESSION_UUID + "/extend")
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_URI + "/" + SESSION_UUID + "/extend")
               .accept(MediaType.APPLICATION_JSON_VALUE)
               .contentType(MediaType.APPLICATION_JSON_VALUE)
               .content(getAsJsonFormat(request)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isOk())
           .andExpect(jsonPath("$.sessionId").value(SESSION_UUID))
@@ -197,10 +345,13 @@ class SessionsControllerTest {
       when(sessionService.getSessionsByDevice(any())).thenReturn(List.of(createSessionInfoSample()));
 
       var input = new RetrieveSessionsInput().device(new Device());
-      mockMvc.perform(post(QOD_SESSIONS_RETRIEVE_URI)
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_RETRIEVE_URI)
               .accept(MediaType.APPLICATION_JSON_VALUE)
               .contentType(MediaType.APPLICATION_JSON_VALUE)
               .content(getAsJsonFormat(input)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isOk())
           .andExpect(jsonPath("$[0].sessionId").value(SESSION_UUID));
@@ -211,10 +362,13 @@ class SessionsControllerTest {
       when(sessionService.getSessionsByDevice(any())).thenReturn(Collections.emptyList());
 
       var input = new RetrieveSessionsInput().device(new Device());
-      mockMvc.perform(post(QOD_SESSIONS_RETRIEVE_URI)
+      MvcResult mvcResult = mockMvc.perform(post(QOD_SESSIONS_RETRIEVE_URI)
               .accept(MediaType.APPLICATION_JSON_VALUE)
               .contentType(MediaType.APPLICATION_JSON_VALUE)
               .content(getAsJsonFormat(input)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(mvcResult))
           .andDo(MockMvcResultHandlers.print())
           .andExpect(status().isOk())
           .andExpect(jsonPath("$.length()").value(0));
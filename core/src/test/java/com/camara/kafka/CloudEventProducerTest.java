@@ -24,25 +24,32 @@
 package com.camara.kafka;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.camara.exception.EventProducerException;
+import com.camara.model.EncodedCloudEvent;
 import com.camara.quality_on_demand.api.model.AccessTokenCredential;
 import com.camara.quality_on_demand.api.model.CloudEvent.TypeEnum;
 import com.camara.quality_on_demand.api.model.PlainCredential;
 import com.camara.quality_on_demand.api.model.RefreshTokenCredential;
 import com.camara.quality_on_demand.api.model.SinkCredential;
-import io.cloudevents.CloudEvent;
+import com.camara.util.CloudEventEncoder;
 import io.cloudevents.core.builder.CloudEventBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -54,11 +61,11 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.messaging.Message;
 
@@ -69,36 +76,61 @@ class CloudEventProducerTest {
   private static final String KAFKA_TOPIC = "kafka_topic";
   private static final String DEFAULT_QOD_TOPIC = "callback";
 
-  @InjectMocks
+  private static final String KAFKA_KEY = "kafka_messageKey";
+  private static final String SESSION_ID = UUID.randomUUID().toString();
+
   private CloudEventProducer cloudEventProducer;
 
+  private SimpleMeterRegistry meterRegistry;
+
   @Mock
-  private KafkaTemplate<String, CloudEvent> kafkaTemplate;
+  private KafkaTemplate<String, byte[]> kafkaTemplate;
 
   @Captor
-  private ArgumentCaptor<Message<CloudEvent>> captor;
+  private ArgumentCaptor<Message<byte[]>> captor;
 
   @BeforeEach
   void setup() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    cloudEventProducer = new CloudEventProducer(kafkaTemplate, meterRegistry);
     FieldUtils.writeField(cloudEventProducer, "qodTopic", DEFAULT_QOD_TOPIC, true);
     lenient().when(kafkaTemplate.send(any(Message.class))).thenReturn(completedFuture());
-    lenient().when(kafkaTemplate.send(anyString(), any())).thenReturn(completedFuture());
-  }
+      }
 
   @Test
   void testSendEvent() {
-    cloudEventProducer.sendEvent(createTestCloudEvent());
-    verify(kafkaTemplate, times(1)).send(anyString(), any());
+    var encodedEvent = createTestCloudEvent();
+    cloudEventProducer.sendEvent(SESSION_ID, encodedEvent).join();
+    verify(kafkaTemplate, times(1)).send(captor.capture());
+    Message<byte[]> capturedMessage = captor.getValue();
+    assertSame(encodedEvent.getJson(), capturedMessage.getPayload());
+    assertEquals(DEFAULT_QOD_TOPIC, capturedMessage.getHeaders().get(KAFKA_TOPIC));
+    assertEquals(SESSION_ID, capturedMessage.getHeaders().get(KAFKA_KEY));
+    assertEquals(EncodedCloudEvent.CONTENT_TYPE, capturedMessage.getHeaders().get(CloudEventProducer.CONTENT_TYPE_HEADER));
+    assertEquals(1.0, meterRegistry.get("qod.kafka.events.sent").counter().count());
+  }
+
+  @Test
+  void testSendEvent_Failed() {
+    KafkaException kafkaException = new KafkaException("broker unavailable");
+    when(kafkaTemplate.send(any(Message.class))).thenReturn(CompletableFuture.failedFuture(kafkaException));
+
+    CompletionException exception = assertThrows(CompletionException.class,
+        () -> cloudEventProducer.sendEvent(SESSION_ID, createTestCloudEvent()).join());
+
+    assertInstanceOf(EventProducerException.class, exception.getCause());
+    assertSame(kafkaException, exception.getCause().getCause());
+    assertEquals(1.0, meterRegistry.get("qod.kafka.events.failed").counter().count());
   }
 
   @ParameterizedTest
   @MethodSource("provideCredentials")
   void testSendEventWithAuthorization(SinkCredential credential, String expectedAuthorizationHeader) {
     var cloudEvent = createTestCloudEvent();
-    cloudEventProducer.sendEventWithAuthorization(cloudEvent, credential);
+    cloudEventProducer.sendEventWithAuthorization(SESSION_ID, cloudEvent, credential);
 
     verify(kafkaTemplate, times(1)).send(captor.capture());
-    Message<CloudEvent> capturedMessage = captor.getValue();
+    Message<byte[]> capturedMessage = captor.getValue();
 
     assertCapturedMessage(capturedMessage, cloudEvent, expectedAuthorizationHeader);
   }
@@ -116,7 +148,7 @@ class CloudEventProducerTest {
         .refreshTokenEndpoint(new URI(refreshTokenEndpoint));
 
     var cloudEvent = createTestCloudEvent();
-    cloudEventProducer.sendEventWithAuthorization(cloudEvent, refreshTokenCredential);
+    cloudEventProducer.sendEventWithAuthorization(SESSION_ID, cloudEvent, refreshTokenCredential);
     verify(kafkaTemplate, times(1)).send(captor.capture());
 
     assertTrue(capturedOutput.getAll().contains("Unsupported SinkCredential type: "));
@@ -140,15 +172,13 @@ class CloudEventProducerTest {
   }
 
   private void assertCapturedMessage(
-      Message<CloudEvent> capturedMessage,
-      CloudEvent expectedEvent,
+      Message<byte[]> capturedMessage,
+      EncodedCloudEvent expectedEvent,
       String expectedAuthorizationHeader
   ) {
-    CloudEvent capturedCloudEvent = capturedMessage.getPayload();
-    assertEquals(expectedEvent.getId(), capturedCloudEvent.getId());
-    assertEquals(expectedEvent.getSource(), capturedCloudEvent.getSource());
-    assertEquals(expectedEvent.getType(), capturedCloudEvent.getType());
+    assertSame(expectedEvent.getJson(), capturedMessage.getPayload());
     assertEquals(DEFAULT_QOD_TOPIC, capturedMessage.getHeaders().get(KAFKA_TOPIC));
+    assertEquals(SESSION_ID, capturedMessage.getHeaders().get(KAFKA_KEY));
     assertTrue(Objects.requireNonNull(capturedMessage.getHeaders()
             .get(AUTHORIZATION))
         .toString()
@@ -159,12 +189,12 @@ class CloudEventProducerTest {
     return CompletableFuture.completedFuture(null);
   }
 
-  private static CloudEvent createTestCloudEvent() {
-    return CloudEventBuilder.v1()
+  private static EncodedCloudEvent createTestCloudEvent() {
+    return CloudEventEncoder.encode(CloudEventBuilder.v1()
         .withId(UUID.randomUUID().toString())
         .withSource(URI.create(""))
         .withType(TypeEnum.ORG_CAMARAPROJECT_QUALITY_ON_DEMAND_V0_QOS_STATUS_CHANGED.getValue())
-        .build();
+        .build());
   }
 }
 
@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.entity.QosSession;
+import com.camara.repository.QosSessionRepositoryCustom.MigrationBatch;
+import com.mongodb.bulk.BulkWriteResult;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+class QosSessionRepositoryCustomImplTest {
+
+  private static final String COLLECTION = "qos_sessions";
+
+  @Mock
+  private MongoOperations mongoOperations;
+
+  @Mock
+  private BulkOperations bulkOperations;
+
+  private QosSessionRepositoryCustomImpl repository;
+
+  @BeforeEach
+  void setUp() {
+    when(mongoOperations.getCollectionName(QosSession.class)).thenReturn(COLLECTION);
+    repository = new QosSessionRepositoryCustomImpl(mongoOperations);
+  }
+
+  @Test
+  void testConvertLegacyTimestamps_ConcurrentWriteSkipsSession() {
+    ObjectId first = new ObjectId();
+    ObjectId second = new ObjectId();
+    when(mongoOperations.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of(
+        new Document("_id", first).append("startedAt", "2025-01-01T12:00:00Z").append("expiresAt", "2025-01-01T12:01:00Z"),
+        new Document("_id", second).append("expiresAt", "2025-01-01T12:01:00Z")));
+    when(mongoOperations.bulkOps(BulkMode.UNORDERED, COLLECTION)).thenReturn(bulkOperations);
+    /* the second session was changed after the scan, its conditional update does not match */
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 1, 0, 1, List.of(), List.of()));
+
+    MigrationBatch batch = repository.convertLegacyTimestamps(null, 10);
+
+    assertEquals(new MigrationBatch(second, 2, 2, 1), batch);
+    ArgumentCaptor<Query> conditions = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOperations, times(2)).updateOne(conditions.capture(), updates.capture());
+    assertEquals(new Document("_id", second).append("expiresAt", "2025-01-01T12:01:00Z"), conditions.getAllValues().get(1).getQueryObject());
+    assertEquals(Date.from(Instant.parse("2025-01-01T12:01:00Z")),
+        updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("expiresAt"));
+  }
+
+  @Test
+  void testConvertLegacyTimestamps_InvalidTimestampIsNotConvertible() {
+    ObjectId session = new ObjectId();
+    when(mongoOperations.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+        .thenReturn(List.of(new Document("_id", session).append("expiresAt", "tomorrow")));
+
+    MigrationBatch batch = repository.convertLegacyTimestamps(null, 10);
+
+    assertEquals(new MigrationBatch(session, 1, 0, 0), batch);
+  }
+}
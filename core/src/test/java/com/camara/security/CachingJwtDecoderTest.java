@@ -0,0 +1,123 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+  private static final String TOKEN = "header.payload.signature";
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+  @Mock
+  private JwtDecoder delegate;
+
+  @Mock
+  private Clock clock;
+
+  private SimpleMeterRegistry meterRegistry;
+  private CachingJwtDecoder cachingJwtDecoder;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    lenient().when(clock.instant()).thenReturn(NOW);
+    cachingJwtDecoder = new CachingJwtDecoder(delegate, 10, Duration.ofMinutes(5), clock, meterRegistry);
+  }
+
+  @Test
+  void testDecode_VerifiedTokenIsCached() {
+    Jwt jwt = createJwt(NOW.plusSeconds(60));
+    when(delegate.decode(TOKEN)).thenReturn(jwt);
+
+    assertSame(jwt, cachingJwtDecoder.decode(TOKEN));
+    assertSame(jwt, cachingJwtDecoder.decode(TOKEN));
+
+    verify(delegate, times(1)).decode(TOKEN);
+    assertEquals(1.0, meterRegistry.counter("qod.security.jwt.cache.hits").count());
+    assertEquals(1.0, meterRegistry.counter("qod.security.jwt.cache.misses").count());
+  }
+
+  @Test
+  void testDecode_ExpiredCachedTokenIsVerifiedAgain() {
+    Jwt jwt = createJwt(NOW.plusSeconds(60));
+    when(delegate.decode(TOKEN)).thenReturn(jwt);
+    cachingJwtDecoder.decode(TOKEN);
+
+    when(clock.instant()).thenReturn(NOW.plusSeconds(61));
+    when(delegate.decode(TOKEN)).thenThrow(new BadJwtException("expired"));
+    assertThrows(BadJwtException.class, () -> cachingJwtDecoder.decode(TOKEN));
+  }
+
+  @Test
+  void testDecode_TokenWithoutExpiryIsNotCached() {
+    Jwt jwt = createJwt(null);
+    when(delegate.decode(TOKEN)).thenReturn(jwt);
+
+    cachingJwtDecoder.decode(TOKEN);
+    cachingJwtDecoder.decode(TOKEN);
+
+    verify(delegate, times(2)).decode(TOKEN);
+  }
+
+  @Test
+  void testDecode_InvalidTokenIsNotCached() {
+    when(delegate.decode(TOKEN)).thenThrow(new BadJwtException("invalid signature"));
+
+    assertThrows(BadJwtException.class, () -> cachingJwtDecoder.decode(TOKEN));
+    assertThrows(BadJwtException.class, () -> cachingJwtDecoder.decode(TOKEN));
+
+    verify(delegate, times(2)).decode(TOKEN);
+  }
+
+  private static Jwt createJwt(Instant expiresAt) {
+    var builder = Jwt.withTokenValue(TOKEN)
+        .header("alg", "RS256")
+        .claim("clientId", "client-id")
+        .issuedAt(NOW.minusSeconds(10));
+    if (expiresAt != null) {
+      builder.expiresAt(expiresAt);
+    }
+    return builder.build();
+  }
+}
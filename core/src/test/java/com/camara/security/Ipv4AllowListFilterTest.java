@@ -50,7 +50,9 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest(properties = {
-    "device-location.notifications.ip-filter.enabled=true"
+    "device-location.notifications.ip-filter.enabled=true",
+    "qod.profiles.change-stream.enabled=false",
+    "qod.migration.session-timestamps.enabled=false"
 })
 @EnableAutoConfiguration(exclude = {OAuth2ClientAutoConfiguration.class, OAuth2ResourceServerAutoConfiguration.class})
 @AutoConfigureMockMvc
@@ -0,0 +1,177 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+class PrewarmedJwtDecoderTest {
+
+  private static final String REALM_PATH = "/realms/qod";
+  private static final Duration JWKS_CACHE_TTL = Duration.ofMinutes(5);
+  private static final Duration JWKS_REFRESH_AHEAD = Duration.ofSeconds(30);
+
+  private final Map<String, String> documents = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+  private HttpServer server;
+  private String issuerUri;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::respond);
+    server.start();
+    issuerUri = "http://localhost:" + server.getAddress().getPort() + REALM_PATH;
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void testPrewarm_LoadsMetadataAndJwkSetBeforeFirstRequest() throws JOSEException {
+    RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+    serveOidcMetadata(REALM_PATH + "/.well-known/openid-configuration", rsaKey);
+    PrewarmedJwtDecoder decoder = new PrewarmedJwtDecoder(issuerUri, JWKS_CACHE_TTL, JWKS_REFRESH_AHEAD);
+
+    decoder.prewarm();
+    assertEquals(1, requestCount(REALM_PATH + "/.well-known/openid-configuration"));
+    assertEquals(1, requestCount("/jwks"));
+
+    assertEquals("client", decoder.decode(sign(new RSASSASigner(rsaKey), JWSAlgorithm.RS256, "rsa")).getSubject());
+    assertEquals(1, requestCount(REALM_PATH + "/.well-known/openid-configuration"));
+    assertEquals(1, requestCount("/jwks"));
+  }
+
+  @Test
+  void testPrewarm_IssuerUnavailable_ResolvedOnFirstRequest() throws JOSEException {
+    PrewarmedJwtDecoder decoder = new PrewarmedJwtDecoder(issuerUri, JWKS_CACHE_TTL, JWKS_REFRESH_AHEAD);
+    assertDoesNotThrow(decoder::prewarm);
+
+    ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+    serveOidcMetadata(REALM_PATH + "/.well-known/openid-configuration", ecKey);
+    assertEquals("client", decoder.decode(sign(new ECDSASigner(ecKey), JWSAlgorithm.ES256, "ec")).getSubject());
+  }
+
+  @Test
+  void testDecode_OAuthAuthorizationServerMetadataFallback() throws JOSEException {
+    RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+    serveOidcMetadata("/.well-known/oauth-authorization-server" + REALM_PATH, rsaKey);
+    PrewarmedJwtDecoder decoder = new PrewarmedJwtDecoder(issuerUri, JWKS_CACHE_TTL, JWKS_REFRESH_AHEAD);
+
+    assertEquals("client", decoder.decode(sign(new RSASSASigner(rsaKey), JWSAlgorithm.RS256, "rsa")).getSubject());
+    assertEquals(1, requestCount(REALM_PATH + "/.well-known/openid-configuration"));
+    assertEquals(1, requestCount("/.well-known/openid-configuration" + REALM_PATH));
+  }
+
+  @Test
+  void testDecode_AlgorithmsOfKeyTypeWithoutKeyAlgorithm() throws JOSEException {
+    RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+    ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+    serveOidcMetadata(REALM_PATH + "/.well-known/openid-configuration", rsaKey, ecKey);
+    PrewarmedJwtDecoder decoder = new PrewarmedJwtDecoder(issuerUri, JWKS_CACHE_TTL, JWKS_REFRESH_AHEAD);
+
+    assertEquals("client", decoder.decode(sign(new ECDSASigner(ecKey), JWSAlgorithm.ES256, "ec")).getSubject());
+    assertEquals("client", decoder.decode(sign(new RSASSASigner(rsaKey), JWSAlgorithm.PS256, "rsa")).getSubject());
+  }
+
+  @Test
+  void testDecode_OnlyAlgorithmOfKey() throws JOSEException {
+    RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("rsa").algorithm(JWSAlgorithm.RS256).generate();
+    serveOidcMetadata(REALM_PATH + "/.well-known/openid-configuration", rsaKey);
+    PrewarmedJwtDecoder decoder = new PrewarmedJwtDecoder(issuerUri, JWKS_CACHE_TTL, JWKS_REFRESH_AHEAD);
+
+    assertEquals("client", decoder.decode(sign(new RSASSASigner(rsaKey), JWSAlgorithm.RS256, "rsa")).getSubject());
+    String ps256Token = sign(new RSASSASigner(rsaKey), JWSAlgorithm.PS256, "rsa");
+    assertThrows(JwtException.class, () -> decoder.decode(ps256Token));
+  }
+
+  private void serveOidcMetadata(String metadataPath, JWK... keys) {
+    String serverUri = "http://localhost:" + server.getAddress().getPort();
+    documents.put(metadataPath, "{\"issuer\":\"" + issuerUri + "\",\"jwks_uri\":\"" + serverUri + "/jwks\"}");
+    documents.put("/jwks", new JWKSet(List.of(keys)).toPublicJWKSet().toString());
+  }
+
+  private String sign(JWSSigner signer, JWSAlgorithm algorithm, String keyId) throws JOSEException {
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .issuer(issuerUri)
+        .subject("client")
+        .issueTime(Date.from(Instant.now()))
+        .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+        .build();
+    SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(keyId).build(), claims);
+    jwt.sign(signer);
+    return jwt.serialize();
+  }
+
+  private int requestCount(String path) {
+    return requests.getOrDefault(path, new AtomicInteger()).get();
+  }
+
+  private void respond(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+    String document = documents.get(path);
+    byte[] body = document == null ? new byte[0] : document.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(document == null ? 404 : 200, document == null ? -1 : body.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(body);
+    }
+  }
+}
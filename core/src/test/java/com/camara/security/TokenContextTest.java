@@ -0,0 +1,107 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.security;
+
+import static com.camara.util.TokenTestData.INVALID_BEARER_TOKEN;
+import static com.camara.util.TokenTestData.TEST_BEARER_TOKEN;
+import static com.camara.util.TokenTestData.TEST_CLIENT_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class TokenContextTest {
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void testFrom_DecodesOncePerRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(AUTHORIZATION, TEST_BEARER_TOKEN);
+
+    TokenContext tokenContext = TokenContext.from(request);
+
+    assertTrue(tokenContext.isPresent());
+    assertEquals(TEST_CLIENT_ID, tokenContext.getClaimAsString("clientId"));
+    assertSame(tokenContext, request.getAttribute(TokenContext.REQUEST_ATTRIBUTE));
+    assertSame(tokenContext, TokenContext.from(request));
+  }
+
+  @Test
+  void testCurrent_SharesContextWithFilterChain() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(AUTHORIZATION, TEST_BEARER_TOKEN);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    TokenContext tokenContext = TokenContext.from(request);
+
+    assertSame(tokenContext, TokenContext.current());
+  }
+
+  @Test
+  void testFrom_SeparateRequestsDoNotShareContext() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(AUTHORIZATION, TEST_BEARER_TOKEN);
+    MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+
+    assertTrue(TokenContext.from(request).isPresent());
+    assertFalse(TokenContext.from(otherRequest).isPresent());
+  }
+
+  @Test
+  @ExtendWith(OutputCaptureExtension.class)
+  void testFrom_InvalidToken_CachedAsEmpty(CapturedOutput output) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(AUTHORIZATION, INVALID_BEARER_TOKEN);
+
+    TokenContext tokenContext = TokenContext.from(request);
+
+    assertFalse(tokenContext.isPresent());
+    assertTrue(tokenContext.getClaims().isEmpty());
+    assertNull(tokenContext.getClaimAsString("clientId"));
+    assertSame(tokenContext, TokenContext.from(request));
+    assertTrue(output.getAll().contains("Invalid token in header provided"));
+  }
+
+  @Test
+  void testFrom_WithoutBearerPrefix_Empty() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(AUTHORIZATION, "invalid");
+
+    assertFalse(TokenContext.from(request).isPresent());
+  }
+}
@@ -0,0 +1,175 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import static com.camara.util.SessionsTestData.createTestSessionInfo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.QodApiException;
+import com.camara.model.EventOverflowPolicy;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EventDispatcherTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final EventOutbox eventOutbox = mock(EventOutbox.class);
+  private EventDispatcher eventDispatcher;
+
+  @AfterEach
+  void tearDown() {
+    eventDispatcher.shutdown();
+  }
+
+  @Test
+  void testDispatch_Delivered() {
+    List<SessionInfo> delivered = new CopyOnWriteArrayList<>();
+    eventDispatcher = createDispatcher(EventOverflowPolicy.BLOCK, 10);
+    eventDispatcher.start(sessionInfo -> {
+      delivered.add(sessionInfo);
+      return CompletableFuture.completedFuture(null);
+    });
+
+    SessionInfo sessionInfo = createTestSessionInfo();
+    eventDispatcher.dispatch(sessionInfo).orTimeout(5, TimeUnit.SECONDS).join();
+
+    assertEquals(List.of(sessionInfo), delivered);
+    assertEquals(1, meterRegistry.get("qod.eventhub.dispatch.latency").timer().count());
+  }
+
+  @Test
+  void testDispatch_Failed() {
+    eventDispatcher = createDispatcher(EventOverflowPolicy.BLOCK, 10);
+    eventDispatcher.start(sessionInfo -> {
+      throw new IllegalStateException("eventhub unavailable");
+    });
+
+    CompletableFuture<Void> result = eventDispatcher.dispatch(createTestSessionInfo()).orTimeout(5, TimeUnit.SECONDS);
+
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+    assertEquals(1.0, meterRegistry.get("qod.eventhub.dispatch.failed").counter().count());
+  }
+
+  @Test
+  void testDispatch_DeliveryFailedAsynchronously() {
+    eventDispatcher = createDispatcher(EventOverflowPolicy.BLOCK, 10);
+    eventDispatcher.start(sessionInfo -> CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+    CompletableFuture<Void> result = eventDispatcher.dispatch(createTestSessionInfo()).orTimeout(5, TimeUnit.SECONDS);
+
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+    assertEquals(1.0, meterRegistry.get("qod.eventhub.dispatch.failed").counter().count());
+  }
+
+  @Test
+  void testTryDispatch_QueueFull() {
+    eventDispatcher = createDispatcher(EventOverflowPolicy.SPILL, 1);
+
+    assertTrue(eventDispatcher.tryDispatch(createTestSessionInfo(UUID.randomUUID())).isPresent());
+    assertTrue(eventDispatcher.tryDispatch(createTestSessionInfo(UUID.randomUUID())).isEmpty());
+    assertEquals(0, eventDispatcher.getRemainingCapacity());
+    verifyNoInteractions(eventOutbox);
+  }
+
+  @Test
+  void testDispatch_DropOldest() {
+    eventDispatcher = createDispatcher(EventOverflowPolicy.DROP_OLDEST, 1);
+
+    CompletableFuture<Void> oldest = eventDispatcher.dispatch(createTestSessionInfo(UUID.randomUUID()));
+    CompletableFuture<Void> newest = eventDispatcher.dispatch(createTestSessionInfo(UUID.randomUUID()));
+
+    CompletionException exception = assertThrows(CompletionException.class, oldest::join);
+    assertInstanceOf(QodApiException.class, exception.getCause());
+    assertFalse(newest.isDone());
+    assertEquals(1, eventDispatcher.getQueuedCount());
+    assertEquals(1.0, meterRegistry.get("qod.eventhub.dispatch.dropped").counter().count());
+  }
+
+  @Test
+  void testDispatch_Block() throws InterruptedException {
+    CountDownLatch delivered = new CountDownLatch(2);
+    eventDispatcher = createDispatcher(EventOverflowPolicy.BLOCK, 1);
+    eventDispatcher.dispatch(createTestSessionInfo(UUID.randomUUID()));
+
+    Thread producer = Thread.ofPlatform().start(() -> eventDispatcher.dispatch(createTestSessionInfo(UUID.randomUUID())));
+    producer.join(200);
+    assertTrue(producer.isAlive());
+
+    eventDispatcher.start(sessionInfo -> {
+      delivered.countDown();
+      return CompletableFuture.completedFuture(null);
+    });
+    assertTrue(await(delivered));
+    producer.join(5000);
+  }
+
+  @Test
+  void testDispatch_Spill() {
+    eventDispatcher = createDispatcher(EventOverflowPolicy.SPILL, 1);
+    eventDispatcher.dispatch(createTestSessionInfo(UUID.randomUUID()));
+
+    SessionInfo spilledSessionInfo = createTestSessionInfo(UUID.randomUUID());
+    eventDispatcher.dispatch(spilledSessionInfo).join();
+
+    verify(eventOutbox, times(1)).store(spilledSessionInfo);
+    assertEquals(1, eventDispatcher.getQueuedCount());
+    assertEquals(1.0, meterRegistry.get("qod.eventhub.dispatch.spilled").counter().count());
+  }
+
+  private EventDispatcher createDispatcher(EventOverflowPolicy overflowPolicy, int queueCapacity) {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setEventDispatchOverflowPolicy(overflowPolicy);
+    qodConfig.setEventDispatchQueueCapacity(queueCapacity);
+    qodConfig.setEventDispatchWorkers(1);
+    return new EventDispatcher(qodConfig, eventOutbox, meterRegistry);
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
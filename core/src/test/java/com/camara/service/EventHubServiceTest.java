@@ -25,23 +25,25 @@ package com.camara.service;
 
 import static com.camara.util.SessionsTestData.createTestSessionInfo;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
-import com.camara.exception.QodApiException;
-import com.camara.feign.EventHubClient;
 import com.camara.kafka.CloudEventProducer;
 import com.camara.quality_on_demand.api.model.AccessTokenCredential;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.SessionInfo;
 import com.camara.quality_on_demand.api.model.StatusInfo;
-import feign.FeignException;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,7 +54,6 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
 
 @ExtendWith(MockitoExtension.class)
 class EventHubServiceTest {
@@ -61,25 +62,91 @@ class EventHubServiceTest {
   private EventHubService eventHubService;
 
   @Mock
-  private EventHubClient eventHubClient;
+  private HorizonEventSender horizonEventSender;
 
   @Mock
   private CloudEventProducer cloudEventProducer;
 
+  @Mock
+  private EventDispatcher eventDispatcher;
+
+  @Mock
+  private EventOutbox eventOutbox;
+
   @SneakyThrows
   @BeforeEach
   public void setup() {
     FieldUtils.writeField(eventHubService,
         "cloudEventSourceUrl", "http://localhost:9091/quality-on-demand/v0.11/sessions", true);
     FieldUtils.writeField(eventHubService, "isEventhubHorizonConfigured", false, true);
+    FieldUtils.writeField(eventHubService, "isOutboxEnabled", false, true);
+  }
+
+  @Test
+  @SneakyThrows
+  void testSendEvent_Outbox() {
+    FieldUtils.writeField(eventHubService, "isOutboxEnabled", true, true);
+    SessionInfo sessionInfo = createTestSessionInfo();
+    assertTrue(eventHubService.sendEvent(sessionInfo).isDone());
+    verify(eventOutbox, times(1)).store(sessionInfo);
+    verifyNoInteractions(eventDispatcher);
+  }
+
+  @Test
+  void testSendEvent_Dispatched() {
+    SessionInfo sessionInfo = createTestSessionInfo();
+    CompletableFuture<Void> dispatched = new CompletableFuture<>();
+    when(eventDispatcher.dispatch(sessionInfo)).thenReturn(dispatched);
+    assertSame(dispatched, eventHubService.sendEvent(sessionInfo));
+    verifyNoInteractions(cloudEventProducer, horizonEventSender);
+  }
+
+  @Test
+  void testSendEvent_MissingSinkUrl_NotDispatched() {
+    SessionInfo sessionInfo = createTestSessionInfo(UUID.randomUUID());
+    sessionInfo.sink(null);
+    assertTrue(eventHubService.sendEvent(sessionInfo).isDone());
+    verifyNoInteractions(eventDispatcher, eventOutbox);
+  }
+
+  @Test
+  @SneakyThrows
+  void testSendEvents_Outbox() {
+    FieldUtils.writeField(eventHubService, "isOutboxEnabled", true, true);
+    SessionInfo sessionInfo = createTestSessionInfo();
+    SessionInfo withoutSink = createTestSessionInfo(UUID.randomUUID()).sink(null);
+    assertTrue(eventHubService.sendEvents(List.of(sessionInfo, withoutSink)).isDone());
+    verify(eventOutbox, times(1)).storeAll(List.of(sessionInfo));
+    verifyNoInteractions(eventDispatcher);
+  }
+
+  @Test
+  void testSendEvents_Dispatched() {
+    SessionInfo sessionInfo = createTestSessionInfo(UUID.randomUUID());
+    SessionInfo otherSessionInfo = createTestSessionInfo(UUID.randomUUID());
+    CompletableFuture<Void> dispatched = new CompletableFuture<>();
+    when(eventDispatcher.dispatch(sessionInfo)).thenReturn(dispatched);
+    when(eventDispatcher.dispatch(otherSessionInfo)).thenReturn(CompletableFuture.completedFuture(null));
+
+    CompletableFuture<Void> sent = eventHubService.sendEvents(List.of(sessionInfo, otherSessionInfo));
+    assertFalse(sent.isDone());
+    dispatched.complete(null);
+    assertTrue(sent.isDone());
+    verifyNoInteractions(eventOutbox);
+  }
+
+  @Test
+  void testSendEvents_NoEvents() {
+    assertTrue(eventHubService.sendEvents(List.of()).isDone());
+    verifyNoInteractions(eventDispatcher, eventOutbox);
   }
 
   @Test
   void testSendEvent_Kafka_MissingSinkUrl() {
     SessionInfo sessionInfo = createTestSessionInfo(UUID.randomUUID());
     sessionInfo.sink(null);
-    eventHubService.sendEvent(sessionInfo);
-    verify(cloudEventProducer, times(0)).sendEvent(any());
+    eventHubService.deliverEvent(sessionInfo);
+    verify(cloudEventProducer, times(0)).sendEvent(any(), any());
   }
 
   @ParameterizedTest
@@ -88,8 +155,8 @@ class EventHubServiceTest {
     SessionInfo sessionInfo = createTestSessionInfo();
     sessionInfo.setQosStatus(qosStatus);
     sessionInfo.statusInfo(StatusInfo.NETWORK_TERMINATED);
-    assertDoesNotThrow(() -> eventHubService.sendEvent(sessionInfo));
-    verify(cloudEventProducer, times(1)).sendEvent(any());
+    assertDoesNotThrow(() -> eventHubService.deliverEvent(sessionInfo));
+    verify(cloudEventProducer, times(1)).sendEvent(eq(sessionInfo.getSessionId().toString()), any());
   }
 
   @ParameterizedTest
@@ -102,8 +169,8 @@ class EventHubServiceTest {
         .accessToken("123ABC")
         .accessTokenExpiresUtc(OffsetDateTime.now());
     sessionInfo.setSinkCredential(accessTokenCredential);
-    assertDoesNotThrow(() -> eventHubService.sendEvent(sessionInfo));
-    verify(cloudEventProducer, times(1)).sendEventWithAuthorization(any(), any());
+    assertDoesNotThrow(() -> eventHubService.deliverEvent(sessionInfo));
+    verify(cloudEventProducer, times(1)).sendEventWithAuthorization(eq(sessionInfo.getSessionId().toString()), any(), any());
   }
 
   @Test
@@ -112,22 +179,8 @@ class EventHubServiceTest {
     FieldUtils.writeField(eventHubService, "isEventhubHorizonConfigured", true, true);
     SessionInfo sessionInfo = createTestSessionInfo();
     sessionInfo.statusInfo(StatusInfo.NETWORK_TERMINATED);
-    eventHubService.sendEvent(sessionInfo);
-    verify(eventHubClient, times(1)).sendEvent(any());
-  }
-
-  @Test
-  @SneakyThrows
-  void testSendEvent_Horizon_FeignException() {
-    doThrow(FeignException.class)
-        .when(eventHubClient).sendEvent(any());
-    FieldUtils.writeField(eventHubService, "isEventhubHorizonConfigured", true, true);
-    SessionInfo sessionInfo = createTestSessionInfo();
-    sessionInfo.statusInfo(StatusInfo.NETWORK_TERMINATED);
-    QodApiException qodApiException = assertThrows(QodApiException.class,
-        () -> eventHubService.sendEvent(sessionInfo));
-    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, qodApiException.getHttpStatus());
-    assertEquals("The eventhub service is currently not available", qodApiException.getMessage());
-    verify(eventHubClient, times(1)).sendEvent(any());
+    eventHubService.deliverEvent(sessionInfo);
+    verify(horizonEventSender, times(1)).send(any());
+    verifyNoInteractions(cloudEventProducer);
   }
 }
@@ -0,0 +1,183 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import static com.camara.util.SessionsTestData.createTestSessionInfo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.QodConfig;
+import com.camara.entity.PendingEvent;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import com.camara.repository.PendingEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class EventOutboxRelayTest {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final PendingEventRepository pendingEventRepository = mock(PendingEventRepository.class);
+  private final EventDispatcher eventDispatcher = mock(EventDispatcher.class);
+  private final ExpirationLeaseService leaseService = mock(ExpirationLeaseService.class);
+  private final EventOutbox eventOutbox = new EventOutbox(pendingEventRepository, leaseService);
+  private EventOutboxRelay eventOutboxRelay;
+
+  @BeforeEach
+  void setUp() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setEventOutboxPollIntervalInMillis(3_600_000);
+    qodConfig.setEventOutboxBatchSize(100);
+    qodConfig.setEventOutboxRetryBackoffInSeconds(1);
+    qodConfig.setEventOutboxMaxRetryBackoffInSeconds(300);
+    qodConfig.setEventOutboxMaxAttempts(3);
+    eventOutboxRelay = new EventOutboxRelay(qodConfig, pendingEventRepository, eventOutbox, eventDispatcher, leaseService,
+        meterRegistry);
+
+    when(leaseService.getOwnedPartitions()).thenReturn(Set.of(0));
+    when(eventDispatcher.getRemainingCapacity()).thenReturn(1000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventOutboxRelay.shutdown();
+  }
+
+  @Test
+  void testRelayBatch_NoOwnedPartitions() {
+    when(leaseService.getOwnedPartitions()).thenReturn(Set.of());
+
+    assertEquals(0, eventOutboxRelay.relayBatch());
+    verify(pendingEventRepository, never()).findByPartitionInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(any(), any(), any());
+  }
+
+  @Test
+  void testRelayBatch_DeliveredInOrder() {
+    SessionInfo sessionInfo = createTestSessionInfo();
+    PendingEvent first = createPendingEvent("1", sessionInfo, 0);
+    PendingEvent second = createPendingEvent("2", sessionInfo, 0);
+    mockDueEvents(first, second);
+    when(eventDispatcher.tryDispatch(any())).thenReturn(Optional.of(CompletableFuture.completedFuture(null)));
+
+    assertEquals(2, eventOutboxRelay.relayBatch());
+
+    InOrder inOrder = inOrder(pendingEventRepository);
+    inOrder.verify(pendingEventRepository).deleteById("1");
+    inOrder.verify(pendingEventRepository).deleteById("2");
+    assertEquals(2, meterRegistry.get("qod.eventhub.outbox.lag").timer().count());
+  }
+
+  @Test
+  void testRelayBatch_FailedEventIsRetriedAndBlocksSession() {
+    SessionInfo sessionInfo = createTestSessionInfo();
+    PendingEvent first = createPendingEvent("1", sessionInfo, 0);
+    PendingEvent second = createPendingEvent("2", sessionInfo, 0);
+    mockDueEvents(first, second);
+    when(eventDispatcher.tryDispatch(any()))
+        .thenReturn(Optional.of(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))));
+
+    assertEquals(0, eventOutboxRelay.relayBatch());
+
+    verify(eventDispatcher, times(1)).tryDispatch(any());
+    ArgumentCaptor<PendingEvent> captor = ArgumentCaptor.forClass(PendingEvent.class);
+    verify(pendingEventRepository).save(captor.capture());
+    assertEquals("1", captor.getValue().getId());
+    assertEquals(1, captor.getValue().getAttempts());
+    assertTrue(captor.getValue().getNextAttemptAt().isAfter(Instant.now()));
+    verify(pendingEventRepository, never()).deleteById(any());
+  }
+
+  @Test
+  void testRelayBatch_SessionWaitingForRetryIsSkipped() {
+    SessionInfo sessionInfo = createTestSessionInfo();
+    PendingEvent laterEvent = createPendingEvent("2", sessionInfo, 0);
+    mockDueEvents(laterEvent);
+    when(pendingEventRepository.findBySessionIdInAndNextAttemptAtAfter(anyCollection(), any()))
+        .thenReturn(List.of(createPendingEvent("1", sessionInfo, 1)));
+
+    assertEquals(0, eventOutboxRelay.relayBatch());
+    verify(eventDispatcher, never()).tryDispatch(any());
+  }
+
+  @Test
+  void testRelayBatch_DiscardedAfterMaxAttempts() {
+    PendingEvent pendingEvent = createPendingEvent("1", createTestSessionInfo(), 2);
+    mockDueEvents(pendingEvent);
+    when(eventDispatcher.tryDispatch(any()))
+        .thenReturn(Optional.of(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))));
+
+    eventOutboxRelay.relayBatch();
+
+    verify(pendingEventRepository).deleteById("1");
+    verify(pendingEventRepository, never()).save(any());
+    assertEquals(1.0, meterRegistry.get("qod.eventhub.outbox.discarded").counter().count());
+  }
+
+  @Test
+  void testRelayBatch_QueueFull() {
+    mockDueEvents(createPendingEvent("1", createTestSessionInfo(), 0));
+    when(eventDispatcher.tryDispatch(any())).thenReturn(Optional.empty());
+
+    assertEquals(0, eventOutboxRelay.relayBatch());
+    verify(pendingEventRepository, never()).save(any());
+    verify(pendingEventRepository, never()).deleteById(any());
+  }
+
+  private void mockDueEvents(PendingEvent... pendingEvents) {
+    when(pendingEventRepository.findByPartitionInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(any(), any(), any()))
+        .thenReturn(List.of(pendingEvents));
+  }
+
+  @SneakyThrows
+  private static PendingEvent createPendingEvent(String id, SessionInfo sessionInfo, int attempts) {
+    return PendingEvent.builder()
+        .id(id)
+        .sessionId(sessionInfo.getSessionId().toString())
+        .payload(objectMapper.writeValueAsString(sessionInfo))
+        .createdAt(Instant.now())
+        .attempts(attempts)
+        .nextAttemptAt(Instant.now())
+        .build();
+  }
+}
@@ -0,0 +1,149 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.QodConfig;
+import com.camara.entity.ExpirationLease;
+import com.camara.repository.ExpirationLeaseRepository;
+import com.camara.repository.ExpirationLeaseRepositoryCustom.ClaimResult;
+import com.camara.repository.ExpirationNodeRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExpirationLeaseServiceTest {
+
+  private static final int PARTITIONS = 4;
+
+  @Mock
+  private ExpirationLeaseRepository leaseRepository;
+
+  @Mock
+  private ExpirationNodeRepository nodeRepository;
+
+  private ExpirationLeaseService expirationLeaseService;
+
+  @BeforeEach
+  void setUp() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setQosExpirationPartitions(PARTITIONS);
+    qodConfig.setQosExpirationLeaseTimeInSeconds(30);
+    expirationLeaseService = new ExpirationLeaseService(qodConfig, leaseRepository, nodeRepository);
+  }
+
+  @Test
+  void testRefreshLeases_SingleNodeClaimsAllPartitions() {
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(1L);
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+
+    assertEquals(Set.of(0, 1, 2, 3), expirationLeaseService.refreshLeases());
+    assertEquals(Set.of(0, 1, 2, 3), expirationLeaseService.getOwnedPartitions());
+    assertTrue(expirationLeaseService.isOwner(2));
+
+    // leases are renewed on the next run, nothing is acquired again
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.RENEWED);
+    assertTrue(expirationLeaseService.refreshLeases().isEmpty());
+    assertEquals(Set.of(0, 1, 2, 3), expirationLeaseService.getOwnedPartitions());
+  }
+
+  @Test
+  void testRefreshLeases_PartitionsLeasedByOtherNodesAreSkipped() {
+    Instant leaseUntil = Instant.now().plusSeconds(30);
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(2L);
+    when(leaseRepository.findAll()).thenReturn(List.of(
+        new ExpirationLease(0, "other", leaseUntil),
+        new ExpirationLease(1, "other", leaseUntil)));
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+
+    assertEquals(Set.of(2, 3), expirationLeaseService.refreshLeases());
+    verify(leaseRepository, never()).tryClaim(eq(0), any(), any(), any());
+    verify(leaseRepository, never()).tryClaim(eq(1), any(), any(), any());
+    assertFalse(expirationLeaseService.isOwner(0));
+  }
+
+  @Test
+  void testRefreshLeases_ReleasesPartitionsAboveFairShare() {
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(1L);
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+    expirationLeaseService.refreshLeases();
+
+    // a second node joined
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(2L);
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.RENEWED);
+    expirationLeaseService.refreshLeases();
+
+    assertEquals(Set.of(0, 1), expirationLeaseService.getOwnedPartitions());
+    verify(leaseRepository, times(1)).release(2, expirationLeaseService.getNodeId());
+    verify(leaseRepository, times(1)).release(3, expirationLeaseService.getNodeId());
+  }
+
+  @Test
+  void testRefreshLeases_LostLease() {
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(4L);
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+    Set<Integer> acquiredPartitions = expirationLeaseService.refreshLeases();
+    assertEquals(1, acquiredPartitions.size());
+    int partition = acquiredPartitions.iterator().next();
+
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.UNAVAILABLE);
+    expirationLeaseService.refreshLeases();
+    assertFalse(expirationLeaseService.isOwner(partition));
+  }
+
+  @Test
+  void testPartitionOf_IsStable() {
+    String sessionId = "3fa85f64-5717-4562-b3fc-2c963f66afa6";
+    int partition = expirationLeaseService.partitionOf(sessionId);
+    assertTrue(partition >= 0 && partition < PARTITIONS);
+    assertEquals(partition, expirationLeaseService.partitionOf(sessionId));
+  }
+
+  @Test
+  void testReleaseLeases() {
+    when(nodeRepository.countByLastSeenAfter(any())).thenReturn(1L);
+    when(leaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+    expirationLeaseService.refreshLeases();
+
+    expirationLeaseService.releaseLeases();
+    verify(leaseRepository, times(PARTITIONS)).release(anyInt(), eq(expirationLeaseService.getNodeId()));
+    assertTrue(expirationLeaseService.getOwnedPartitions().isEmpty());
+  }
+}
@@ -0,0 +1,135 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.camara.config.QodConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExpirationSchedulerTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExpirationScheduler expirationScheduler;
+
+  @BeforeEach
+  void setUp() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setQosExpirationSchedulerTickMillis(10);
+    qodConfig.setQosExpirationSchedulerWheelSize(8);
+    qodConfig.setQosExpirationSchedulerWorkers(2);
+    meterRegistry = new SimpleMeterRegistry();
+    expirationScheduler = new ExpirationScheduler(qodConfig, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    expirationScheduler.shutdown();
+  }
+
+  @Test
+  void testSchedule_FiresInDeadlineOrder() {
+    List<String> fired = new CopyOnWriteArrayList<>();
+    Instant now = Instant.now();
+    // deadlines beyond one wheel rotation (8 * 10ms) must wait for their round
+    expirationScheduler.schedule("late", now.plusMillis(300), () -> fired.add("late"));
+    expirationScheduler.schedule("early", now.plusMillis(50), () -> fired.add("early"));
+    expirationScheduler.schedule("overdue", now.minusSeconds(1), () -> fired.add("overdue"));
+    assertEquals(3, expirationScheduler.getPendingCount());
+
+    Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> fired.size() == 3);
+    assertEquals(List.of("overdue", "early", "late"), fired);
+    assertEquals(0, expirationScheduler.getPendingCount());
+    assertEquals(3, meterRegistry.get("qod.expiration.lag").timer().count());
+    assertEquals(0, meterRegistry.get("qod.expiration.pending").gauge().value());
+  }
+
+  @Test
+  void testSchedule_SameKeyReplacesPendingTask() {
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+    expirationScheduler.schedule("session", Instant.now().plusMillis(20), first::incrementAndGet);
+    expirationScheduler.schedule("session", Instant.now().plusMillis(40), second::incrementAndGet);
+    assertEquals(1, expirationScheduler.getPendingCount());
+
+    Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> second.get() == 1);
+    assertEquals(0, first.get());
+  }
+
+  @Test
+  void testCancel() {
+    AtomicInteger counter = new AtomicInteger();
+    expirationScheduler.schedule("session", Instant.now().plusMillis(50), counter::incrementAndGet);
+    assertTrue(expirationScheduler.cancel("session"));
+    assertFalse(expirationScheduler.cancel("session"));
+
+    Awaitility.await().pollDelay(200, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> true);
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  void testFailingTaskDoesNotStopTheWheel() {
+    AtomicInteger counter = new AtomicInteger();
+    expirationScheduler.schedule("failing", Instant.now(), () -> {
+      throw new IllegalStateException("failure");
+    });
+    expirationScheduler.schedule("session", Instant.now().plusMillis(30), counter::incrementAndGet);
+
+    Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> counter.get() == 1);
+  }
+
+  @Test
+  void testSchedule_VirtualThreads() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setQosExpirationSchedulerTickMillis(10);
+    qodConfig.setQosExpirationSchedulerWheelSize(8);
+    qodConfig.setVirtualThreadsEnabled(true);
+    ExpirationScheduler virtualThreadScheduler = new ExpirationScheduler(qodConfig, new SimpleMeterRegistry());
+    try {
+      AtomicBoolean virtual = new AtomicBoolean();
+      AtomicInteger counter = new AtomicInteger();
+      virtualThreadScheduler.schedule("session", Instant.now().plusMillis(20), () -> {
+        virtual.set(Thread.currentThread().isVirtual());
+        counter.incrementAndGet();
+      });
+
+      Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> counter.get() == 1);
+      assertTrue(virtual.get());
+    } finally {
+      virtualThreadScheduler.shutdown();
+    }
+  }
+}
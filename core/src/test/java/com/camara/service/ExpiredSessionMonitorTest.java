@@ -24,47 +24,53 @@
 package com.camara.service;
 
 import static com.camara.util.SessionsTestData.SESSION_UUID;
-import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.camara.entity.ExpiringSession;
 import com.camara.entity.QosSession;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.SessionInfo;
 import com.camara.quality_on_demand.api.model.StatusInfo;
+import com.camara.repository.ExpirationLeaseRepository;
+import com.camara.repository.ExpirationLeaseRepositoryCustom.ClaimResult;
+import com.camara.repository.ExpirationNodeRepository;
 import com.camara.repository.QosProfileRepository;
 import com.camara.repository.QosSessionRepository;
-import java.time.OffsetDateTime;
-import java.util.Collections;
-import java.util.List;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import net.javacrumbs.shedlock.core.LockProvider;
-import net.javacrumbs.shedlock.core.SimpleLock;
+import java.util.stream.Stream;
 import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
-import org.mockito.Mock;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
-@SpringBootTest(properties = "qod.expiration.trigger-interval=1")
+@SpringBootTest(properties = {"qod.expiration.trigger-interval=1", "qod.profiles.change-stream.enabled=false",
+    "qod.migration.session-timestamps.enabled=false"})
 @DirtiesContext
 class ExpiredSessionMonitorTest {
 
-  private QosSession expiringSession;
+  private QosSession qosSession;
 
   @MockitoBean
   private EventHubService eventHubService;
@@ -79,21 +85,31 @@ class ExpiredSessionMonitorTest {
   private NetworkService networkService;
 
   @MockitoBean
-  private LockProvider lockProvider;
+  private ExpirationLeaseRepository expirationLeaseRepository;
 
-  @Mock
-  private SimpleLock lock;
+  @MockitoBean
+  private ExpirationNodeRepository expirationNodeRepository;
+
+  @Autowired
+  private ExpirationScheduler expirationScheduler;
 
   @BeforeEach
   public void setUp() {
-    expiringSession = new QosSession();
-    expiringSession.setSessionId(SESSION_UUID);
-    expiringSession.setExpiresAt(OffsetDateTime.now().plusSeconds(1).format(ISO_DATE_TIME));
-    expiringSession.setQosStatus(QosStatus.AVAILABLE);
-
-    when(qosSessionRepository.findBySessionId(any())).thenReturn(Optional.of(expiringSession));
-    when(qosSessionRepository.findAll()).thenReturn(List.of(expiringSession));
-    when(lockProvider.lock(any())).thenReturn(Optional.of(lock));
+    /* Tasks scheduled during a previous test must not fire with the session data of this test */
+    expirationScheduler.cancel(SESSION_UUID);
+    qosSession = new QosSession();
+    qosSession.setSessionId(SESSION_UUID);
+    qosSession.setExpiresAt(Instant.now().plusSeconds(1));
+    qosSession.setQosStatus(QosStatus.AVAILABLE);
+
+    when(qosSessionRepository.findBySessionId(any())).thenReturn(Optional.of(qosSession));
+    stubExpiringSession();
+    when(expirationLeaseRepository.tryClaim(anyInt(), any(), any(), any())).thenReturn(ClaimResult.ACQUIRED);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    expirationScheduler.cancel(SESSION_UUID);
   }
 
   @Test
@@ -102,21 +118,32 @@ class ExpiredSessionMonitorTest {
     Awaitility.await().atMost(5, TimeUnit.SECONDS)
         .untilAsserted(() -> verify(qosSessionRepository, times(1)).deleteBySessionId(any()));
     assertTrue(output.getAll().contains("QoS sessions which will soon expire: [" + SESSION_UUID + "]"));
+    verify(qosSessionRepository, atLeastOnce()).markScheduledForDeletion(eq(SESSION_UUID), any());
+  }
+
+  @Test
+  void testExpiringSession_ExtendedAfterScan() {
+    /* The session was extended or marked by another node between the scan and the conditional update */
+    when(qosSessionRepository.markScheduledForDeletion(any(), any())).thenReturn(Optional.empty());
+
+    Awaitility.await().during(2, TimeUnit.SECONDS).atMost(5, TimeUnit.SECONDS)
+        .untilAsserted(() -> verify(qosSessionRepository, atLeastOnce()).markScheduledForDeletion(eq(SESSION_UUID), any()));
+    verify(qosSessionRepository, never()).deleteBySessionId(any());
   }
 
   @Test
   void testExpiringSession_SessionIsAlreadyMarkedForDeletion() {
-    expiringSession.setScheduledForDeletion(true);
-    when(qosSessionRepository.findAll()).thenReturn(List.of(expiringSession));
+    qosSession.setScheduledForDeletion(true);
+    /* The query only returns sessions scheduled for deletion, if they are already expired */
+    when(qosSessionRepository.findExpiringSessions(any(), any(), any())).thenAnswer(invocation -> Stream.empty());
     Awaitility.await().atMost(5, TimeUnit.SECONDS)
         .untilAsserted(() -> verify(qosSessionRepository, times(0)).deleteBySessionId(any()));
-    expiringSession.setScheduledForDeletion(false);
   }
 
   @Test
   @ExtendWith(OutputCaptureExtension.class)
   void testExpiringSession_NothingExpiresSoon(CapturedOutput output) {
-    when(qosSessionRepository.findAll()).thenReturn(Collections.emptyList());
+    when(qosSessionRepository.findExpiringSessions(any(), any(), any())).thenAnswer(invocation -> Stream.empty());
 
     Awaitility.await().atMost(5, TimeUnit.SECONDS)
         .untilAsserted(() -> verify(qosSessionRepository, times(0)).deleteBySessionId(any()));
@@ -126,14 +153,16 @@ class ExpiredSessionMonitorTest {
   @ParameterizedTest
   @EnumSource(names = {"AVAILABLE", "REQUESTED"})
   void testExpiringSession_DurationExpiration(QosStatus qosStatus) {
-    expiringSession.setQosStatus(qosStatus);
-    when(qosSessionRepository.findAll()).thenReturn(List.of(expiringSession));
-
-    Awaitility.await().atMost(5, TimeUnit.SECONDS)
-        .untilAsserted(() -> verify(qosSessionRepository, times(1)).deleteBySessionId(any()));
+    qosSession.setQosStatus(qosStatus);
+    stubExpiringSession();
 
+    /* The event is sent after the deletion on the network completed, deleteAndNotify is asynchronous */
     ArgumentCaptor<SessionInfo> sessionInfoCaptor = ArgumentCaptor.forClass(SessionInfo.class);
-    verify(eventHubService, times(1)).sendEvent(sessionInfoCaptor.capture());
+    Awaitility.await().atMost(5, TimeUnit.SECONDS)
+        .untilAsserted(() -> {
+          verify(qosSessionRepository, times(1)).deleteBySessionId(any());
+          verify(eventHubService, times(1)).sendEvent(sessionInfoCaptor.capture());
+        });
 
     SessionInfo capturedSessionInfo = sessionInfoCaptor.getValue();
     assertEquals(QosStatus.UNAVAILABLE, capturedSessionInfo.getQosStatus());
@@ -142,17 +171,28 @@ class ExpiredSessionMonitorTest {
 
   @Test
   void testExpiringSession_NetworkTerminated() {
-    expiringSession.setQosStatus(QosStatus.UNAVAILABLE);
-    when(qosSessionRepository.findAll()).thenReturn(List.of(expiringSession));
-
-    Awaitility.await().atMost(5, TimeUnit.SECONDS)
-        .untilAsserted(() -> verify(qosSessionRepository, times(1)).deleteBySessionId(any()));
+    qosSession.setQosStatus(QosStatus.UNAVAILABLE);
+    stubExpiringSession();
 
+    /* The event is sent after the deletion on the network completed, deleteAndNotify is asynchronous */
     ArgumentCaptor<SessionInfo> sessionInfoCaptor = ArgumentCaptor.forClass(SessionInfo.class);
-    verify(eventHubService, times(1)).sendEvent(sessionInfoCaptor.capture());
+    Awaitility.await().atMost(5, TimeUnit.SECONDS)
+        .untilAsserted(() -> {
+          verify(qosSessionRepository, times(1)).deleteBySessionId(any());
+          verify(eventHubService, times(1)).sendEvent(sessionInfoCaptor.capture());
+        });
 
     SessionInfo capturedSessionInfo = sessionInfoCaptor.getValue();
     assertEquals(QosStatus.UNAVAILABLE, capturedSessionInfo.getQosStatus());
     assertEquals(StatusInfo.NETWORK_TERMINATED, capturedSessionInfo.getStatusInfo());
   }
+
+  private void stubExpiringSession() {
+    var expiringSession = new ExpiringSession(qosSession.getSessionId(), qosSession.getPartition(), qosSession.getExpiresAt(),
+        qosSession.getQosStatus(), false);
+    var markedSession = new ExpiringSession(qosSession.getSessionId(), qosSession.getPartition(), qosSession.getExpiresAt(),
+        qosSession.getQosStatus(), true);
+    when(qosSessionRepository.findExpiringSessions(any(), any(), any())).thenAnswer(invocation -> Stream.of(expiringSession));
+    when(qosSessionRepository.markScheduledForDeletion(eq(SESSION_UUID), any())).thenReturn(Optional.of(markedSession));
+  }
 }
@@ -0,0 +1,130 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.QodApiException;
+import com.camara.feign.EventHubClient;
+import com.camara.model.EncodedCloudEvent;
+import com.camara.quality_on_demand.api.model.CloudEvent.TypeEnum;
+import com.camara.util.CloudEventEncoder;
+import feign.FeignException;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+class HorizonEventSenderTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final EventHubClient eventHubClient = mock(EventHubClient.class);
+  private HorizonEventSender horizonEventSender;
+
+  @AfterEach
+  void tearDown() {
+    horizonEventSender.shutdown();
+  }
+
+  @Test
+  void testSend_FullBatch() {
+    horizonEventSender = createSender(2, 60_000);
+
+    CompletableFuture<Void> first = horizonEventSender.send(createTestCloudEvent());
+    assertFalse(first.isDone());
+    CompletableFuture<Void> second = horizonEventSender.send(createTestCloudEvent());
+
+    assertTrue(first.isDone());
+    assertTrue(second.isDone());
+    ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+    verify(eventHubClient, times(1)).sendEvents(captor.capture());
+    assertTrue(new String(captor.getValue(), StandardCharsets.UTF_8).startsWith("[{"));
+    verify(eventHubClient, never()).sendEvent(any());
+    assertEquals(2.0, meterRegistry.get("qod.eventhub.horizon.batch.size").summary().totalAmount());
+  }
+
+  @Test
+  void testSend_WindowExpired() {
+    horizonEventSender = createSender(10, 10);
+
+    horizonEventSender.send(createTestCloudEvent()).orTimeout(5, TimeUnit.SECONDS).join();
+
+    verify(eventHubClient, times(1)).sendEvent(any());
+    verify(eventHubClient, never()).sendEvents(any());
+    assertEquals(1, meterRegistry.get("qod.eventhub.horizon.batch.latency").timer().count());
+  }
+
+  @Test
+  void testSend_FeignException() {
+    when(eventHubClient.sendEvents(any())).thenThrow(FeignException.class);
+    horizonEventSender = createSender(2, 60_000);
+
+    CompletableFuture<Void> first = horizonEventSender.send(createTestCloudEvent());
+    CompletableFuture<Void> second = horizonEventSender.send(createTestCloudEvent());
+
+    for (CompletableFuture<Void> result : List.of(first, second)) {
+      CompletionException exception = assertThrows(CompletionException.class, result::join);
+      QodApiException qodApiException = assertInstanceOf(QodApiException.class, exception.getCause());
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE, qodApiException.getHttpStatus());
+      assertEquals("The eventhub service is currently not available", qodApiException.getMessage());
+    }
+  }
+
+  private HorizonEventSender createSender(int maxBatchSize, long batchWindowMillis) {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setHorizonBatchMaxSize(maxBatchSize);
+    qodConfig.setHorizonBatchWindowInMillis(batchWindowMillis);
+    return new HorizonEventSender(qodConfig, eventHubClient, meterRegistry);
+  }
+
+  private static EncodedCloudEvent createTestCloudEvent() {
+    return CloudEventEncoder.encode(CloudEventBuilder.v1()
+        .withId(UUID.randomUUID().toString())
+        .withSource(URI.create("http://localhost/sessions/" + UUID.randomUUID()))
+        .withType(TypeEnum.ORG_CAMARAPROJECT_QUALITY_ON_DEMAND_V0_QOS_STATUS_CHANGED.getValue())
+        .withSubject("")
+        .withDataContentType("application/json")
+        .withData("{}".getBytes(StandardCharsets.UTF_8))
+        .build());
+  }
+}
@@ -0,0 +1,190 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.service;
+
+import static com.camara.util.SessionsTestData.createSessionInfoSample;
+import static com.camara.util.SessionsTestData.createTestSession;
+import static com.camara.util.SessionsTestData.createValidTestSession;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.QodConfig;
+import com.camara.exception.QodApiException;
+import com.camara.quality_on_demand.api.model.SessionInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class IdempotencyCacheTest {
+
+  private QodConfig qodConfig;
+  private TokenService tokenService;
+  private SimpleMeterRegistry meterRegistry;
+  private IdempotencyCache idempotencyCache;
+  private AtomicInteger creations;
+
+  @BeforeEach
+  void setUp() {
+    qodConfig = new QodConfig();
+    qodConfig.setIdempotencyEnabled(true);
+    qodConfig.setIdempotencyWindowInSeconds(600);
+    qodConfig.setIdempotencyMaxSize(100);
+    tokenService = mock(TokenService.class);
+    when(tokenService.retrieveClientId()).thenReturn("client-1");
+    meterRegistry = new SimpleMeterRegistry();
+    idempotencyCache = new IdempotencyCache(qodConfig, tokenService, meterRegistry);
+    creations = new AtomicInteger();
+  }
+
+  @Test
+  void testCreateOnce_ReplaysResponse() {
+    SessionInfo sessionInfo = createSessionInfoSample();
+    SessionInfo first = idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(sessionInfo)).join();
+    SessionInfo replayed = idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(sessionInfo)).join();
+
+    assertSame(first, replayed);
+    assertEquals(1, creations.get());
+    assertEquals(1, meterRegistry.counter("qod.sessions.idempotency.replays").count());
+  }
+
+  @Test
+  void testCreateOnce_WaitsForRequestInProgress() {
+    CompletableFuture<SessionInfo> pending = new CompletableFuture<>();
+    CompletableFuture<SessionInfo> first = idempotencyCache.createOnce("key-1", createValidTestSession(), creation(pending));
+    CompletableFuture<SessionInfo> retried = idempotencyCache.createOnce("key-1", createValidTestSession(), creation(pending));
+    assertFalse(retried.isDone());
+
+    SessionInfo sessionInfo = createSessionInfoSample();
+    pending.complete(sessionInfo);
+    assertSame(sessionInfo, first.join());
+    assertSame(sessionInfo, retried.join());
+    assertEquals(1, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_DifferentRequest_422() {
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+
+    QodApiException exception = assertThrows(QodApiException.class,
+        () -> idempotencyCache.createOnce("key-1", createTestSession(120), completedCreation(createSessionInfoSample())));
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getHttpStatus());
+    assertEquals(1, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_FailedRequestIsNotReplayed() {
+    CompletableFuture<SessionInfo> failed = idempotencyCache.createOnce("key-1", createValidTestSession(),
+        creation(CompletableFuture.failedFuture(new QodApiException(HttpStatus.SERVICE_UNAVAILABLE, "Network unavailable"))));
+    CompletionException exception = assertThrows(CompletionException.class, failed::join);
+    assertInstanceOf(QodApiException.class, exception.getCause());
+
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+    assertEquals(2, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_SynchronousFailureIsNotReplayed() {
+    CompletableFuture<SessionInfo> failed = idempotencyCache.createOnce("key-1", createValidTestSession(), () -> {
+      creations.incrementAndGet();
+      throw new QodApiException(HttpStatus.BAD_REQUEST, "Invalid request");
+    });
+    assertThrows(CompletionException.class, failed::join);
+
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+    assertEquals(2, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_KeysAreScopedToClient() {
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+    when(tokenService.retrieveClientId()).thenReturn("client-2");
+    idempotencyCache.createOnce("key-1", createTestSession(120), completedCreation(createSessionInfoSample())).join();
+
+    assertEquals(2, creations.get());
+  }
+
+  @Test
+  void testForget_DeletedSessionIsNotReplayed() {
+    SessionInfo sessionInfo = createSessionInfoSample();
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(sessionInfo)).join();
+
+    idempotencyCache.forget(sessionInfo.getSessionId().toString());
+    SessionInfo created = idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample()))
+        .join();
+
+    assertNotSame(sessionInfo, created);
+    assertEquals(2, creations.get());
+  }
+
+  @Test
+  void testForget_OtherSessionIsReplayed() {
+    SessionInfo sessionInfo = createSessionInfoSample();
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(sessionInfo)).join();
+
+    idempotencyCache.forget(UUID.randomUUID().toString());
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+
+    assertEquals(1, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_WithoutKey() {
+    idempotencyCache.createOnce(null, createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+    idempotencyCache.createOnce(null, createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+
+    assertEquals(2, creations.get());
+  }
+
+  @Test
+  void testCreateOnce_Disabled() {
+    qodConfig.setIdempotencyEnabled(false);
+    idempotencyCache = new IdempotencyCache(qodConfig, tokenService, meterRegistry);
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+    idempotencyCache.createOnce("key-1", createValidTestSession(), completedCreation(createSessionInfoSample())).join();
+
+    assertEquals(2, creations.get());
+  }
+
+  private Supplier<CompletableFuture<SessionInfo>> completedCreation(SessionInfo sessionInfo) {
+    return creation(CompletableFuture.completedFuture(sessionInfo));
+  }
+
+  private Supplier<CompletableFuture<SessionInfo>> creation(CompletableFuture<SessionInfo> response) {
+    return () -> {
+      creations.incrementAndGet();
+      return response;
+    };
+  }
+}
@@ -0,0 +1,151 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.NetworkConfig;
+import com.camara.model.AccessTokenResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class NetworkAccessTokenExchangerTest {
+
+  private static final String TOKEN_ENDPOINT = "http://localhost/token";
+
+  @Mock
+  private RestTemplate restTemplate;
+
+  private SimpleMeterRegistry meterRegistry;
+  private NetworkAccessTokenExchanger tokenExchanger;
+
+  @BeforeEach
+  void setUp() {
+    NetworkConfig networkConfig = new NetworkConfig();
+    networkConfig.setTokenEndpoint(TOKEN_ENDPOINT);
+    networkConfig.setClientId("client");
+    networkConfig.setClientSecret("secret");
+    networkConfig.setTokenRefreshMarginInSeconds(60);
+    meterRegistry = new SimpleMeterRegistry();
+    tokenExchanger = new NetworkAccessTokenExchanger(restTemplate, networkConfig, meterRegistry);
+  }
+
+  @Test
+  void testGetAccessToken_IsCachedUntilExpiry() {
+    mockTokenResponse(new AccessTokenResponse("token-1", 3600L));
+
+    assertEquals("token-1", tokenExchanger.getAccessToken());
+    assertEquals("token-1", tokenExchanger.getAccessToken());
+    assertEquals("token-1", tokenExchanger.getAccessToken());
+
+    verify(restTemplate, times(1)).postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class));
+    assertEquals(2, meterRegistry.get("qod.network.token.requests").tag("result", "hit").counter().count());
+    assertEquals(1, meterRegistry.get("qod.network.token.requests").tag("result", "miss").counter().count());
+    assertEquals(1, meterRegistry.get("qod.network.token.refresh").timer().count());
+  }
+
+  @Test
+  void testGetAccessToken_RefreshedInBackgroundBeforeExpiry() {
+    // the refresh margin is capped to half of the lifetime, so the token is due for refresh after 1 second
+    when(restTemplate.postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class)))
+        .thenReturn(ResponseEntity.ok(new AccessTokenResponse("token-1", 2L)))
+        .thenReturn(ResponseEntity.ok(new AccessTokenResponse("token-2", 3600L)));
+
+    assertEquals("token-1", tokenExchanger.getAccessToken());
+    assertEquals("token-1", tokenExchanger.getAccessToken());
+    Awaitility.await().atMost(3, TimeUnit.SECONDS).until(() -> "token-2".equals(tokenExchanger.getAccessToken()));
+    verify(restTemplate, times(2)).postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class));
+  }
+
+  @Test
+  void testGetAccessToken_NotCachedWithoutExpiresIn() {
+    mockTokenResponse(new AccessTokenResponse("token-1", null));
+
+    tokenExchanger.getAccessToken();
+    tokenExchanger.getAccessToken();
+    verify(restTemplate, times(2)).postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class));
+  }
+
+  @Test
+  void testGetAccessToken_ConcurrentCallersShareOneRequest() throws Exception {
+    CountDownLatch requestStarted = new CountDownLatch(1);
+    CountDownLatch releaseResponse = new CountDownLatch(1);
+    when(restTemplate.postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class))).thenAnswer(invocation -> {
+      requestStarted.countDown();
+      releaseResponse.await(2, TimeUnit.SECONDS);
+      return ResponseEntity.ok(new AccessTokenResponse("token-1", 3600L));
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<CompletableFuture<String>> tokens = IntStream.range(0, 8)
+          .mapToObj(i -> CompletableFuture.supplyAsync(tokenExchanger::getAccessToken, executor))
+          .toList();
+      requestStarted.await(2, TimeUnit.SECONDS);
+      releaseResponse.countDown();
+      for (CompletableFuture<String> token : tokens) {
+        assertEquals("token-1", token.get(2, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(restTemplate, times(1)).postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class));
+  }
+
+  @Test
+  void testGetAccessToken_ErrorIsPropagated() {
+    when(restTemplate.postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class)))
+        .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+
+    assertThrows(HttpClientErrorException.class, () -> tokenExchanger.getAccessToken());
+  }
+
+  private void mockTokenResponse(AccessTokenResponse response) {
+    when(restTemplate.postForEntity(eq(TOKEN_ENDPOINT), any(), eq(AccessTokenResponse.class)))
+        .thenReturn(ResponseEntity.ok(response));
+  }
+}
@@ -0,0 +1,96 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.camara.config.NetworkConfig;
+import com.camara.exception.QodApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class NetworkRequestLimiterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private NetworkRequestLimiter networkRequestLimiter;
+
+  @BeforeEach
+  void setUp() {
+    NetworkConfig networkConfig = new NetworkConfig();
+    networkConfig.setHttpMaxConcurrentRequests(1);
+    networkConfig.setHttpMaxQueuedRequests(1);
+    meterRegistry = new SimpleMeterRegistry();
+    networkRequestLimiter = new NetworkRequestLimiter(networkConfig, meterRegistry);
+  }
+
+  @Test
+  void testSubmit_QueuesRequestsBeyondLimit() {
+    CompletableFuture<String> firstResponse = new CompletableFuture<>();
+    CompletableFuture<String> secondResponse = new CompletableFuture<>();
+    CompletableFuture<String> first = networkRequestLimiter.submit(() -> firstResponse);
+    CompletableFuture<String> second = networkRequestLimiter.submit(() -> secondResponse);
+    assertEquals(1, networkRequestLimiter.getInFlightRequests());
+    assertEquals(1, networkRequestLimiter.getQueuedRequests());
+
+    firstResponse.complete("first");
+    assertEquals("first", first.join());
+    assertFalse(second.isDone());
+    assertEquals(1, networkRequestLimiter.getInFlightRequests());
+    assertEquals(0, networkRequestLimiter.getQueuedRequests());
+
+    secondResponse.complete("second");
+    assertEquals("second", second.join());
+    assertEquals(0, networkRequestLimiter.getInFlightRequests());
+  }
+
+  @Test
+  void testSubmit_RejectsRequestsBeyondQueue() {
+    networkRequestLimiter.submit(CompletableFuture::new);
+    networkRequestLimiter.submit(CompletableFuture::new);
+
+    CompletableFuture<Object> rejected = networkRequestLimiter.submit(CompletableFuture::new);
+    CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+    QodApiException cause = assertInstanceOf(QodApiException.class, exception.getCause());
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, cause.getHttpStatus());
+    assertEquals(1, meterRegistry.get("qod.network.requests.rejected").counter().count());
+  }
+
+  @Test
+  void testSubmit_FailedRequestReleasesSlot() {
+    CompletableFuture<Object> failed = networkRequestLimiter.submit(() -> {
+      throw new IllegalStateException("request failed");
+    });
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(0, networkRequestLimiter.getInFlightRequests());
+    assertEquals("ok", networkRequestLimiter.submit(() -> CompletableFuture.completedFuture("ok")).join());
+  }
+}
@@ -25,23 +25,25 @@ package com.camara.service;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.camara.config.QodConfig;
 import com.camara.entity.QosSession;
+import com.camara.entity.SessionNotificationState;
 import com.camara.network.api.model.UserPlaneEvent;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.repository.QosProfileRepository;
 import com.camara.repository.QosSessionRepository;
 import com.camara.util.SessionsTestData;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import lombok.SneakyThrows;
@@ -50,6 +52,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration;
@@ -88,14 +91,18 @@ class NotificationServiceTest {
   @MockitoBean
   private ExpiredSessionMonitor expiredSessionMonitor;
 
+  private QosSession qosSessionTestData;
+
   private String savedSubscriptionId;
 
   @SneakyThrows
   @BeforeEach
   public void setUpTest() {
-    QosSession qosSessionTestData = SessionsTestData.createQosSessionTestData();
+    qosSessionTestData = SessionsTestData.createQosSessionTestData();
     when(eventHubService.sendEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
-    when(qosSessionRepository.findBySubscriptionId(any())).thenReturn(Optional.of(qosSessionTestData));
+    when(qosSessionRepository.markAvailable(any(), any(), any())).thenReturn(Optional.of(qosSessionTestData));
+    when(qosSessionRepository.markNetworkTerminated(any(), any())).thenReturn(Optional.of(qosSessionTestData));
+    stubNotificationState(qosSessionTestData.getQosStatus(), false);
     savedSubscriptionId = qosSessionTestData.getSubscriptionId();
   }
 
@@ -103,32 +110,36 @@ class NotificationServiceTest {
   void testHandleQosNotification_SuccessfulResourcesAllocation() {
     assertDoesNotThrow(
         () -> notificationService.handleQosNotification(savedSubscriptionId, UserPlaneEvent.SUCCESSFUL_RESOURCES_ALLOCATION));
-    QosSession entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    assertEquals(QosStatus.AVAILABLE, entity.getQosStatus());
-    assertNotNull(entity.getStartedAt());
-    OffsetDateTime expiresAt = OffsetDateTime.parse(entity.getExpiresAt());
-    assertEquals(expiresAt, OffsetDateTime.parse(entity.getStartedAt()).plusSeconds(entity.getDuration()));
+    ArgumentCaptor<Instant> startedAtCaptor = ArgumentCaptor.forClass(Instant.class);
+    ArgumentCaptor<Instant> expiresAtCaptor = ArgumentCaptor.forClass(Instant.class);
+    verify(qosSessionRepository).markAvailable(eq(qosSessionTestData.getSessionId()), startedAtCaptor.capture(),
+        expiresAtCaptor.capture());
+    assertEquals(expiresAtCaptor.getValue(), startedAtCaptor.getValue().plusSeconds(qosSessionTestData.getDuration()));
     verify(eventHubService, times(1)).sendEvent(any());
   }
 
+  @Test
+  @ExtendWith(OutputCaptureExtension.class)
+  void testHandleQosNotification_SuccessfulResourcesAllocation_ChangedConcurrently(CapturedOutput output) {
+    /* The session was deleted or terminated between the lookup and the conditional update */
+    when(qosSessionRepository.markAvailable(any(), any(), any())).thenReturn(Optional.empty());
+
+    assertDoesNotThrow(
+        () -> notificationService.handleQosNotification(savedSubscriptionId, UserPlaneEvent.SUCCESSFUL_RESOURCES_ALLOCATION));
+
+    verify(eventHubService, never()).sendEvent(any());
+    assertTrue(output.getAll().contains("was changed concurrently. No update."));
+  }
+
   @Test
   @ExtendWith(OutputCaptureExtension.class)
   void testHandleQosNotification_CurrentStatus_Unavailable_NoUpdate(CapturedOutput output) {
-    QosSession entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    final OffsetDateTime oldExpiration = OffsetDateTime.parse(entity.getExpiresAt());
-    entity.setQosStatus(QosStatus.UNAVAILABLE);
-    qosSessionRepository.save(entity);
+    stubNotificationState(QosStatus.UNAVAILABLE, false);
 
     assertDoesNotThrow(
         () -> notificationService.handleQosNotification(savedSubscriptionId, UserPlaneEvent.SUCCESSFUL_RESOURCES_ALLOCATION));
 
-    entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    assertNull(entity.getStartedAt());
-    OffsetDateTime expirationAfterCallback = OffsetDateTime.parse(entity.getExpiresAt());
-    assertEquals(oldExpiration, expirationAfterCallback);
+    verify(qosSessionRepository, never()).markAvailable(anyString(), any(), any());
     verify(eventHubService, times(0)).sendEvent(any());
 
     assertTrue(output.getAll()
@@ -140,45 +151,33 @@ class NotificationServiceTest {
   void testHandleQosNotification_DeletionDelay(UserPlaneEvent event) {
     long deletionDelay = 10;
     qodConfig.setDeletionDelay(deletionDelay);
-    var now = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
-    QosSession entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    entity.setExpiresAt(OffsetDateTime.now().plusDays(1).toString());
-    qosSessionRepository.save(entity);
-    //Current remaining time of the session
-    long remainingSessionTime = OffsetDateTime.parse(entity.getExpiresAt()).toEpochSecond() - now.toEpochSecond();
-    assertTrue(remainingSessionTime > deletionDelay);
+    var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
 
     assertDoesNotThrow(() -> notificationService.handleQosNotification(savedSubscriptionId, event));
 
-    entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    remainingSessionTime = OffsetDateTime.parse(entity.getExpiresAt()).toEpochSecond() - now.toEpochSecond();
-    //The Remaining time was reduced to 2
+    ArgumentCaptor<Instant> expiresAtCaptor = ArgumentCaptor.forClass(Instant.class);
+    verify(qosSessionRepository).markNetworkTerminated(eq(qosSessionTestData.getSessionId()), expiresAtCaptor.capture());
+    long remainingSessionTime = expiresAtCaptor.getValue().getEpochSecond() - now.getEpochSecond();
+    //The Remaining time was reduced to the deletion delay
     assertTrue(remainingSessionTime <= deletionDelay);
   }
 
   @Test
   @ExtendWith(OutputCaptureExtension.class)
   void testHandleQosNotification_SessionAlreadyMarkedForDeletion(CapturedOutput output) {
-    QosSession entity = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entity);
-    final var qosStatusBeforeCallback = entity.getQosStatus();
-    entity.setScheduledForDeletion(true);
-    qosSessionRepository.save(entity);
+    stubNotificationState(qosSessionTestData.getQosStatus(), true);
 
     assertDoesNotThrow(
         () -> notificationService.handleQosNotification(savedSubscriptionId, UserPlaneEvent.SUCCESSFUL_RESOURCES_ALLOCATION));
     assertTrue(output.getAll().contains("is already locked for deletion. Notification callback will be skipped"));
-    var entityAfterCallback = qosSessionRepository.findBySubscriptionId(savedSubscriptionId).orElse(null);
-    assertNotNull(entityAfterCallback);
-    assertEquals(entityAfterCallback.getQosStatus(), qosStatusBeforeCallback);
+    verify(qosSessionRepository, never()).markAvailable(anyString(), any(), any());
+    verify(qosSessionRepository, never()).markNetworkTerminated(anyString(), any());
   }
 
   @Test
   @ExtendWith(OutputCaptureExtension.class)
   void testHandleQosNotification_Ok_NoSubscriptionId(CapturedOutput output) {
-    when(qosSessionRepository.findBySubscriptionId(any())).thenReturn(Optional.empty());
+    when(qosSessionRepository.findNotificationStateBySubscriptionId(any())).thenReturn(Optional.empty());
     assertDoesNotThrow(() -> notificationService.handleQosNotification("NotFoundId", UserPlaneEvent.SESSION_TERMINATION));
     assertTrue(output.getAll().contains("Callback Subscription-ID <NotFoundId> does not have a corresponding existing QoD-Session"));
   }
@@ -190,4 +189,10 @@ class NotificationServiceTest {
     assertDoesNotThrow(() -> notificationService.handleQosNotification(savedSubscriptionId, event));
     assertTrue(output.getAll().contains("Unhandled Notification Event <" + event + ">"));
   }
+
+  private void stubNotificationState(QosStatus qosStatus, boolean scheduledForDeletion) {
+    var state = new SessionNotificationState(qosSessionTestData.getSessionId(), qosSessionTestData.getDuration(), qosStatus,
+        scheduledForDeletion);
+    when(qosSessionRepository.findNotificationStateBySubscriptionId(any())).thenReturn(Optional.of(state));
+  }
 }
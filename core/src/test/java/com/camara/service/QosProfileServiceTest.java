@@ -23,19 +23,39 @@
 
 package com.camara.service;
 
+import static com.camara.util.QosProfilesTestData.getQosProfileEntity;
 import static com.camara.util.QosProfilesTestData.getQosProfilesEntityTestData;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.camara.config.QodConfig;
+import com.camara.entity.QosProfileCatalogVersion;
 import com.camara.exception.QodApiException;
+import com.camara.model.QosProfileCatalog;
 import com.camara.model.SupportedQosProfiles;
 import com.camara.qos_profiles.api.model.QosProfile;
 import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
 import com.camara.repository.QosProfileRepository;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration;
@@ -62,9 +82,23 @@ class QosProfileServiceTest {
   @MockitoBean
   private ExpiredSessionMonitor expiredSessionMonitor;
 
+  @Autowired
+  private QodConfig qodConfig;
+
+  /* the catalog outlives a single test and is never replaced by an older version */
+  private static long catalogVersion;
+
+  @BeforeEach
+  void setUp() {
+    catalogVersion += 10;
+    when(qosProfileRepository.findAll()).thenReturn(getQosProfilesEntityTestData());
+    when(qosProfileRepository.findCatalogVersion()).thenReturn(Optional.of(createCatalogVersion(catalogVersion, "checksum")));
+    qosProfileService.refreshCatalog();
+    clearInvocations(qosProfileRepository);
+  }
+
   @Test
   void testGetQosProfiles_getAll_ok() {
-    when(qosProfileRepository.findAll()).thenReturn(getQosProfilesEntityTestData());
     List<QosProfile> qosProfiles = qosProfileService.getQosProfiles(null, null);
     assertEquals(4, qosProfiles.size());
     assertEquals("QOS_E", qosProfiles.getFirst().getName());
@@ -74,10 +108,6 @@ class QosProfileServiceTest {
   @Test
   void testGetQosProfiles_ByNameAndStatus_ok() {
     String qosProfileE = SupportedQosProfiles.QOS_E.name();
-    when(qosProfileRepository.findAllByNameAndStatus(any(), any())).thenReturn(
-        getQosProfilesEntityTestData().stream()
-            .filter(qosProfile -> qosProfile.getName().equals(qosProfileE))
-            .toList());
     List<QosProfile> qosProfiles = qosProfileService.getQosProfiles(qosProfileE, QosProfileStatusEnum.ACTIVE);
     assertEquals(1, qosProfiles.size());
     assertEquals(qosProfileE, qosProfiles.getFirst().getName());
@@ -86,10 +116,6 @@ class QosProfileServiceTest {
 
   @Test
   void testGetQosProfiles_ByStatusActive_ok() {
-    when(qosProfileRepository.findAllByStatus(any())).thenReturn(
-        getQosProfilesEntityTestData().stream()
-            .filter(qosProfile -> qosProfile.getStatus().equals(QosProfileStatusEnum.ACTIVE))
-            .toList());
     List<QosProfile> qosProfiles = qosProfileService.getQosProfiles(null, QosProfileStatusEnum.ACTIVE);
     assertEquals(4, qosProfiles.size()); // Assuming all test data profiles have ACTIVE status
   }
@@ -97,10 +123,6 @@ class QosProfileServiceTest {
   @Test
   void testGetQosProfiles_ByName_ok() {
     String qosProfileE = SupportedQosProfiles.QOS_E.name();
-    when(qosProfileRepository.findByName(any())).thenReturn(
-        getQosProfilesEntityTestData().stream()
-            .filter(qosProfile -> qosProfile.getName().equals(qosProfileE))
-            .findFirst());
     List<QosProfile> qosProfiles = qosProfileService.getQosProfiles(qosProfileE, null);
     assertEquals(1, qosProfiles.size());
     assertEquals(qosProfileE, qosProfiles.getFirst().getName());
@@ -124,10 +146,6 @@ class QosProfileServiceTest {
   @Test
   void testGetQosProfile_ok() {
     String qosProfileE = SupportedQosProfiles.QOS_E.name();
-    when(qosProfileRepository.findByName(any())).thenReturn(
-        getQosProfilesEntityTestData().stream()
-            .filter(qosProfile -> qosProfile.getName().equals(qosProfileE))
-            .findFirst());
     QosProfile qosProfile = qosProfileService.getQosProfile(qosProfileE);
     assertEquals(qosProfileE, qosProfile.getName());
   }
@@ -138,4 +156,125 @@ class QosProfileServiceTest {
     assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
     assertEquals("QosProfile Id does not exist", exception.getMessage());
   }
+
+  @Test
+  void testGetQosProfileByNameAndStatus_StatusNotMatching_404() {
+    QodApiException exception = assertThrows(QodApiException.class,
+        () -> qosProfileService.getQosProfiles(SupportedQosProfiles.QOS_E.name(), QosProfileStatusEnum.INACTIVE));
+    assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
+    assertEquals("No QoS Profiles found", exception.getMessage());
+  }
+
+  @Test
+  void testReads_ServedFromCatalog_NoDatabaseAccess() {
+    qosProfileService.getQosProfiles(null, null);
+    qosProfileService.getQosProfiles(null, QosProfileStatusEnum.ACTIVE);
+    qosProfileService.getQosProfile(SupportedQosProfiles.QOS_L.name());
+    qosProfileService.getMaxDurationInSeconds(SupportedQosProfiles.QOS_L.name());
+    verifyNoInteractions(qosProfileRepository);
+  }
+
+  @Test
+  void testGetDurationsInSeconds_Precomputed_ok() {
+    var entity = getQosProfileEntity(SupportedQosProfiles.QOS_E.name());
+    String name = entity.getName();
+    assertEquals(qosProfileService.retrieveDurationInSeconds(entity.getMinDuration()), qosProfileService.getMinDurationInSeconds(name));
+    assertEquals(qosProfileService.retrieveDurationInSeconds(entity.getMaxDuration()), qosProfileService.getMaxDurationInSeconds(name));
+  }
+
+  @Test
+  void testRefreshCatalog_DatabaseFailure_KeepsCurrentCatalog() {
+    when(qosProfileRepository.findAll()).thenThrow(new IllegalStateException("database not reachable"));
+    qosProfileService.refreshCatalog();
+    assertEquals(4, qosProfileService.getQosProfiles(null, null).size());
+  }
+
+  @Test
+  void testReloadQosProfiles_ChecksumUnchanged_NoWrite() throws IOException {
+    when(qosProfileRepository.findCatalogVersion())
+        .thenReturn(Optional.of(createCatalogVersion(catalogVersion, checksumOfInitialData())));
+
+    QosProfileCatalog qosProfileCatalog = qosProfileService.reloadQosProfiles();
+
+    verify(qosProfileRepository, never()).replaceAll(anyList(), anyString());
+    verify(qosProfileRepository, never()).deleteAll();
+    assertEquals(catalogVersion, qosProfileCatalog.getVersion());
+    assertEquals(4, qosProfileCatalog.size());
+  }
+
+  @Test
+  void testReloadQosProfiles_ChecksumChanged_ReplacesInBulkAndPublishesNewVersion() throws IOException {
+    String checksum = checksumOfInitialData();
+    long newVersion = catalogVersion + 1;
+    when(qosProfileRepository.replaceAll(anyList(), eq(checksum))).thenReturn(createCatalogVersion(newVersion, checksum));
+    when(qosProfileRepository.findCatalogVersion())
+        .thenReturn(Optional.of(createCatalogVersion(catalogVersion, "outdated")))
+        .thenReturn(Optional.of(createCatalogVersion(newVersion, checksum)));
+
+    QosProfileCatalog qosProfileCatalog = qosProfileService.reloadQosProfiles();
+
+    verify(qosProfileRepository).replaceAll(argThat(profiles -> profiles.size() == SupportedQosProfiles.values().length), eq(checksum));
+    verify(qosProfileRepository, never()).deleteAll();
+    assertEquals(newVersion, qosProfileCatalog.getVersion());
+    assertSame(qosProfileCatalog, qosProfileService.getCatalog());
+  }
+
+  @Test
+  void testReloadQosProfiles_FromFileLocation_ReplacesWithFileContent(@TempDir Path tempDir) throws IOException {
+    Path dataFile = tempDir.resolve("qos_profiles.json");
+    Files.write(dataFile, readInitialData());
+    String checksum = Hashing.sha256().hashBytes(Files.readAllBytes(dataFile)).toString();
+    when(qosProfileRepository.replaceAll(anyList(), eq(checksum))).thenReturn(createCatalogVersion(catalogVersion + 1, checksum));
+    String initialDataSource = qodConfig.getInitialQosProfilesDataSource();
+    qodConfig.setInitialQosProfilesDataSource(dataFile.toUri().toString());
+    try {
+      qosProfileService.reloadQosProfiles();
+    } finally {
+      qodConfig.setInitialQosProfilesDataSource(initialDataSource);
+    }
+
+    verify(qosProfileRepository).replaceAll(anyList(), eq(checksum));
+  }
+
+  @Test
+  void testReloadQosProfiles_LocationNotFound_ThrowsAndKeepsProfiles() {
+    String initialDataSource = qodConfig.getInitialQosProfilesDataSource();
+    qodConfig.setInitialQosProfilesDataSource("file:/non/existent/qos_profiles.json");
+    try {
+      assertThrows(IllegalStateException.class, () -> qosProfileService.reloadQosProfiles());
+    } finally {
+      qodConfig.setInitialQosProfilesDataSource(initialDataSource);
+    }
+
+    verify(qosProfileRepository, never()).replaceAll(anyList(), anyString());
+  }
+
+  @Test
+  void testRefreshCatalog_OlderVersion_KeepsCurrentCatalog() {
+    QosProfileCatalog currentCatalog = qosProfileService.getCatalog();
+    when(qosProfileRepository.findCatalogVersion()).thenReturn(Optional.of(createCatalogVersion(catalogVersion - 1, "checksum")));
+    when(qosProfileRepository.findAll()).thenReturn(List.of());
+
+    qosProfileService.refreshCatalog();
+
+    assertSame(currentCatalog, qosProfileService.getCatalog());
+  }
+
+  private String checksumOfInitialData() throws IOException {
+    return Hashing.sha256().hashBytes(readInitialData()).toString();
+  }
+
+  private byte[] readInitialData() throws IOException {
+    try (InputStream inputStream = getClass().getResourceAsStream("/initial_data.json")) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private static QosProfileCatalogVersion createCatalogVersion(long version, String checksum) {
+    return QosProfileCatalogVersion.builder()
+        .id(QosProfileCatalogVersion.CURRENT_ID)
+        .version(version)
+        .checksum(checksum)
+        .build();
+  }
 }
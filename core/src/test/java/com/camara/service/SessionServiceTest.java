@@ -25,6 +25,7 @@ package com.camara.service;
 
 import static com.camara.util.QosProfilesTestData.PROFILE_MAX_DURATION;
 import static com.camara.util.QosProfilesTestData.getQosProfileEntity;
+import static com.camara.util.QosProfilesTestData.getQosProfilesEntityTestData;
 import static com.camara.util.SessionsTestData.DURATION_DEFAULT;
 import static com.camara.util.SessionsTestData.TEST_DEVICE_IPV4_ADDRESS;
 import static com.camara.util.SessionsTestData.createDefaultTestSessionWithUnknownIpv4;
@@ -33,27 +34,35 @@ import static com.camara.util.SessionsTestData.createNefSubscriptionResponseWith
 import static com.camara.util.SessionsTestData.createQosSessionTestData;
 import static com.camara.util.SessionsTestData.createTestSession;
 import static com.camara.util.SessionsTestData.createValidTestSession;
-import static com.camara.util.TestData.createHttpClientErrorException;
+import static com.camara.util.TestData.createWebClientResponseException;
 import static com.camara.util.TestData.objectMapper;
 import static com.mongodb.assertions.Assertions.assertFalse;
 import static com.mongodb.assertions.Assertions.assertNull;
-import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.camara.config.NetworkConfig;
 import com.camara.config.QodConfig;
+import com.camara.entity.ExpiringSession;
 import com.camara.entity.QosProfile;
 import com.camara.entity.QosSession;
+import com.camara.entity.SessionConflictCandidate;
+import com.camara.entity.SessionConflictKey;
 import com.camara.exception.ErrorCode;
 import com.camara.exception.QodApiException;
 import com.camara.model.SupportedQosProfiles;
@@ -64,6 +73,7 @@ import com.camara.qos_profiles.api.model.Duration;
 import com.camara.qos_profiles.api.model.QosProfileStatusEnum;
 import com.camara.qos_profiles.api.model.TimeUnitEnum;
 import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.CreateSessionResult;
 import com.camara.quality_on_demand.api.model.Device;
 import com.camara.quality_on_demand.api.model.DeviceIpv4Addr;
 import com.camara.quality_on_demand.api.model.PortsSpec;
@@ -77,34 +87,41 @@ import com.camara.util.SessionsTestData;
 import com.camara.util.TokenTestData;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import java.nio.charset.StandardCharsets;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.util.Collections;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.SneakyThrows;
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 @SpringBootTest
 @ActiveProfiles("test")
 class SessionServiceTest {
 
-  private static final int SECONDS_OF_A_DAY = 86399;
   private QosSession qosSessionTestData;
   @Autowired
   private QodConfig qodConfig;
@@ -118,6 +135,9 @@ class SessionServiceTest {
   @MockitoBean
   private QosProfileRepository qosProfileRepository;
 
+  @Autowired
+  private QosProfileService qosProfileService;
+
   @MockitoBean
   private TokenService tokenService;
 
@@ -136,6 +156,9 @@ class SessionServiceTest {
   @MockitoBean
   private ExpiredSessionMonitor expiredSessionMonitor;
 
+  @MockitoBean
+  private IdempotencyCache idempotencyCache;
+
   private String savedSessionId;
   private String savedSubscriptionId;
 
@@ -143,14 +166,18 @@ class SessionServiceTest {
   @BeforeEach
   public void setUpTest() {
     /* Setup NEF-mocks */
-    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(createNefSubscriptionResponse());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(Mono.just(createNefSubscriptionResponse()));
+    when(deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any()))
+        .thenReturn(Mono.just(ResponseEntity.noContent().build()));
 
     when(eventHubService.sendEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(eventHubService.sendEvents(any())).thenReturn(CompletableFuture.completedFuture(null));
     qosSessionTestData = SessionsTestData.createQosSessionTestData();
     when(qosSessionRepository.findBySessionId(any())).thenReturn(Optional.of(qosSessionTestData));
     when(qosSessionRepository.findBySubscriptionId(any())).thenReturn(Optional.of(qosSessionTestData));
-    when(qosProfileRepository.findByName(any())).thenReturn(Optional.of(getQosProfileEntity(qosSessionTestData.getQosProfile())));
+    publishQosProfiles(getQosProfilesEntityTestData());
     when(qosSessionRepository.save(any())).thenReturn(qosSessionTestData);
+    when(qosSessionRepository.extend(any(), anyLong(), anyInt(), any())).thenReturn(Optional.of(qosSessionTestData));
     when(tokenService.retrieveClientId()).thenReturn(TokenTestData.TEST_CLIENT_ID);
     savedSessionId = qosSessionTestData.getSessionId();
     savedSubscriptionId = qosSessionTestData.getSubscriptionId();
@@ -179,7 +206,7 @@ class SessionServiceTest {
 
   @Test
   void testCreateSession_DeviceNotInResponse_Ok() {
-    var sessionInfo = assertDoesNotThrow(() -> sessionService.createSession(createValidTestSession(), false));
+    var sessionInfo = assertDoesNotThrow(() -> sessionService.createSession(createValidTestSession(), false).join());
     assertNull(sessionInfo.getDevice());
   }
 
@@ -237,7 +264,7 @@ class SessionServiceTest {
     QosProfile inactiveProfile = getQosProfileEntity(profile.name());
     inactiveProfile.setStatus(QosProfileStatusEnum.INACTIVE);
 
-    when(qosProfileRepository.findByName(profile.name())).thenReturn(Optional.of(inactiveProfile));
+    publishQosProfiles(List.of(inactiveProfile));
 
     CreateSession session = createTestSession(profile);
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(session));
@@ -281,12 +308,11 @@ class SessionServiceTest {
   @ParameterizedTest
   @EnumSource(TimeUnitEnum.class)
   void testCreateSession_DifferentDurationTimeUnits_200(TimeUnitEnum unit) {
-    qosProfileRepository.deleteAll();
     SupportedQosProfiles profile = SupportedQosProfiles.QOS_L;
     var qosProfile = getQosProfileEntity(profile.name());
     qosProfile.setMaxDuration(new Duration().unit(unit).value((int) (DURATION_DEFAULT * (Math.pow(10, 9)))));
 
-    when(qosProfileRepository.findByName(any())).thenReturn(Optional.of(qosProfile));
+    publishQosProfiles(List.of(qosProfile));
     CreateSession session = createTestSession(profile);
     if (unit != TimeUnitEnum.NANOSECONDS) {
       assertDoesNotThrow(() -> createSession(session));
@@ -319,10 +345,12 @@ class SessionServiceTest {
     CreateSession validTestSession = createValidTestSession();
 
     qosSessionTestData.setApplicationServer(validTestSession.getApplicationServer());
-    when(qosSessionRepository.findByDeviceIpv4addr(any())).thenReturn(List.of(qosSessionTestData));
+    stubConflictCandidate(qosSessionTestData);
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertTrue(exception.getMessage().contains("already active"));
     assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+    /* the key of a session stored without conflict key is derived from the projection */
+    verify(qosSessionRepository, never()).findBySessionId(any());
     if (qodConfig.isQosMaskSensibleData()) {
       assertTrue(exception.getMessage().contains("XXXXXXXX-XXXX-XXXX-XXXX-"));
     }
@@ -335,7 +363,7 @@ class SessionServiceTest {
     var existingSession = createQosSessionTestData();
     existingSession.setApplicationServer(validTestSession.getApplicationServer());
 
-    when(qosSessionRepository.findByDeviceIpv4addr(any())).thenReturn(List.of(existingSession));
+    stubConflictCandidate(existingSession);
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertTrue(exception.getMessage().contains("already active"));
     assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
@@ -344,7 +372,7 @@ class SessionServiceTest {
         .ports(List.of(6001))
         .ranges(List.of(new PortsSpecRangesInner().from(5003).to(5005)))
     );
-    when(qosSessionRepository.findByDeviceIpv4addr(any())).thenReturn(List.of(existingSession));
+    stubConflictCandidate(existingSession);
 
     validTestSession.setDevicePorts(new PortsSpec()
         .ports(List.of(4001))
@@ -353,6 +381,50 @@ class SessionServiceTest {
     assertDoesNotThrow(() -> createSession(validTestSession));
   }
 
+  @Test
+  void testCreateSession_Conflict_StoredConflictKey_409() {
+    CreateSession validTestSession = createValidTestSession();
+
+    var existingSession = createQosSessionTestData();
+    existingSession.setApplicationServer(null);
+    existingSession.setConflictKey(SessionConflictKey.of("198.51.100.0/24", null,
+        new PortsSpec().ranges(List.of(new PortsSpecRangesInner().from(5000).to(6000)))));
+    stubConflictCandidate(existingSession);
+
+    validTestSession.getApplicationServer().setIpv4Address("198.51.100.10");
+    validTestSession.setApplicationServerPorts(new PortsSpec().ports(List.of(5500)));
+    QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
+    assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+
+    validTestSession.setApplicationServerPorts(new PortsSpec().ports(List.of(4999, 6001)));
+    assertDoesNotThrow(() -> createSession(validTestSession));
+
+    validTestSession.setApplicationServerPorts(null);
+    validTestSession.getApplicationServer().setIpv4Address("198.51.101.10");
+    assertDoesNotThrow(() -> createSession(validTestSession));
+  }
+
+  @Test
+  void testCreateSession_ConflictKeyIsStored() {
+    CreateSession validTestSession = createValidTestSession();
+    validTestSession.getApplicationServer().setIpv4Address("198.51.100.0/24");
+    validTestSession.setDevicePorts(new PortsSpec()
+        .ports(List.of(5030, 5010))
+        .ranges(List.of(new PortsSpecRangesInner().from(5011).to(5020))));
+    validTestSession.setApplicationServerPorts(null);
+
+    createSession(validTestSession);
+
+    ArgumentCaptor<QosSession> captor = ArgumentCaptor.forClass(QosSession.class);
+    verify(qosSessionRepository).save(captor.capture());
+    SessionConflictKey conflictKey = captor.getValue().getConflictKey();
+    assertNotNull(conflictKey);
+    assertEquals(3325256704L, conflictKey.getApplicationServerFrom());
+    assertEquals(3325256959L, conflictKey.getApplicationServerTo());
+    assertArrayEquals(new int[]{5010, 5020, 5030, 5030}, conflictKey.getDevicePortRanges());
+    assertArrayEquals(new int[]{0, 65535}, conflictKey.getApplicationServerPortRanges());
+  }
+
   @Test
   void testCreateSession_Device_PortSpecsDefinedWithPortsAndRanges() {
     CreateSession session = createTestSession(40);
@@ -380,7 +452,7 @@ class SessionServiceTest {
 
   @Test
   void testCreateSession_InternalServerError_NoValidSubscription_500() {
-    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(createNefSubscriptionResponseWithoutSubscriptionId());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(Mono.just(createNefSubscriptionResponseWithoutSubscriptionId()));
     CreateSession validTestSession = createValidTestSession();
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertTrue(exception.getMessage().contains("No valid subscription"));
@@ -388,9 +460,220 @@ class SessionServiceTest {
   }
 
 
+  @Test
+  void testCreateSessions_ResultPerRequest() {
+    SupportedQosProfiles profile = SupportedQosProfiles.QOS_L;
+    CreateSession invalidSession = createTestSession(profile);
+    invalidSession.duration(getQosProfileEntity(profile.name()).getMaxDuration().getValue() + 1);
+    List<CreateSession> requests = List.of(createValidTestSession(), invalidSession, createTestSessionForDevice("198.51.100.2"));
+
+    List<CreateSessionResult> results = await(sessionService.createSessions(requests));
+
+    assertEquals(3, results.size());
+    assertNotNull(results.get(0).getSessionInfo());
+    assertEquals(1, results.get(1).getIndex());
+    assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getError().getStatus());
+    assertNotNull(results.get(2).getSessionInfo());
+    verify(postApi, times(2)).scsAsIdSubscriptionsPost(anyString(), any());
+    verify(qosSessionRepository).findConflictCandidatesByDevices(Set.of(TEST_DEVICE_IPV4_ADDRESS, "198.51.100.2"));
+    verify(qosSessionRepository, never()).findConflictCandidates(any(), anyLong(), anyLong());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<QosSession>> captor = ArgumentCaptor.forClass(List.class);
+    verify(qosSessionRepository).insert(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    verify(qosSessionRepository, never()).save(any());
+  }
+
+  @Test
+  void testCreateSessions_Conflict_StoredSessionAndPrecedingRequest_409() {
+    CreateSession storedConflict = createValidTestSession();
+    var existingSession = createQosSessionTestData();
+    existingSession.setApplicationServer(storedConflict.getApplicationServer());
+    existingSession.setConflictKey(SessionConflictKey.of(existingSession));
+    var candidate = new SessionConflictCandidate(existingSession.getSessionId(), TEST_DEVICE_IPV4_ADDRESS, existingSession.getExpiresAt(),
+        existingSession.getConflictKey(), existingSession.getApplicationServer(), existingSession.getDevicePorts(),
+        existingSession.getApplicationServerPorts());
+    when(qosSessionRepository.findConflictCandidatesByDevices(any())).thenReturn(List.of(candidate));
+
+    List<CreateSession> requests = List.of(storedConflict, createTestSessionForDevice("198.51.100.2"),
+        createTestSessionForDevice("198.51.100.2"));
+    List<CreateSessionResult> results = await(sessionService.createSessions(requests));
+
+    assertEquals(HttpStatus.CONFLICT.value(), results.get(0).getError().getStatus());
+    assertTrue(results.get(0).getError().getMessage().contains("already active"));
+    assertNotNull(results.get(1).getSessionInfo());
+    assertEquals(HttpStatus.CONFLICT.value(), results.get(2).getError().getStatus());
+    assertEquals("Conflicts with the session requested at index 1", results.get(2).getError().getMessage());
+    verify(postApi, times(1)).scsAsIdSubscriptionsPost(anyString(), any());
+  }
+
+  @Test
+  void testCreateSessions_Conflict_SessionWithoutConflictKey_409() {
+    CreateSession request = createValidTestSession();
+    var existingSession = createQosSessionTestData();
+    existingSession.setApplicationServer(request.getApplicationServer());
+    var candidate = new SessionConflictCandidate(existingSession.getSessionId(), TEST_DEVICE_IPV4_ADDRESS, existingSession.getExpiresAt(),
+        null, existingSession.getApplicationServer(), existingSession.getDevicePorts(), existingSession.getApplicationServerPorts());
+    when(qosSessionRepository.findConflictCandidatesByDevices(any())).thenReturn(List.of(candidate));
+
+    List<CreateSessionResult> results = await(sessionService.createSessions(List.of(request)));
+
+    assertEquals(HttpStatus.CONFLICT.value(), results.getFirst().getError().getStatus());
+    verify(qosSessionRepository, never()).findBySessionId(any());
+  }
+
+  @Test
+  void testCreateSessions_NetworkError_ReportedForRequest() {
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any()))
+        .thenReturn(Mono.just(createNefSubscriptionResponseWithoutSubscriptionId()));
+    List<CreateSession> requests = List.of(createValidTestSession(), createTestSessionForDevice("198.51.100.2"));
+
+    List<CreateSessionResult> results = await(sessionService.createSessions(requests));
+
+    results.forEach(result -> {
+      assertNull(result.getSessionInfo());
+      assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getError().getStatus());
+      assertEquals("No valid subscription ID was provided in NEF/SCEF response", result.getError().getMessage());
+    });
+    verify(qosSessionRepository, never()).insert(anyList());
+  }
+
+  @Test
+  void testCreateSessions_BoundedParallelism() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenAnswer(invocation -> Mono.delay(java.time.Duration.ofMillis(20))
+        .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+        .map(tick -> {
+          inFlight.decrementAndGet();
+          return createNefSubscriptionResponse();
+        }));
+    int parallelism = qodConfig.getBulkSessionParallelism();
+    List<CreateSession> requests = IntStream.range(0, parallelism * 3)
+        .mapToObj(i -> createTestSessionForDevice("198.51.100." + (i + 1)))
+        .toList();
+
+    List<CreateSessionResult> results = await(sessionService.createSessions(requests));
+
+    assertTrue(results.stream().allMatch(result -> result.getSessionInfo() != null));
+    assertTrue(maxInFlight.get() <= parallelism, "At most " + parallelism + " requests in flight, but were " + maxInFlight.get());
+    verify(postApi, times(parallelism * 3)).scsAsIdSubscriptionsPost(anyString(), any());
+  }
+
+  @Test
+  void testCreateSessions_SaveFailed_SubscriptionsDeleted() {
+    when(qosSessionRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+    List<CreateSession> requests = List.of(createValidTestSession(), createTestSessionForDevice("198.51.100.2"));
+
+    List<CreateSessionResult> results = await(sessionService.createSessions(requests));
+
+    results.forEach(result -> {
+      assertNull(result.getSessionInfo());
+      assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getError().getStatus());
+      assertEquals("The session could not be saved", result.getError().getMessage());
+    });
+    verify(qosSessionRepository).deleteBySessionIdIn(argThat(sessionIds -> sessionIds.size() == 2));
+    verify(deleteApi, times(2)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any());
+    verify(eventHubService, never()).sendEvents(any());
+  }
+
+  @Test
+  void testCreateSessions_EventsFailed_SessionsCreated() {
+    networkConfig.setSupportedEventResourceAllocation(false);
+    when(eventHubService.sendEvents(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Outbox unavailable")));
+    try {
+      List<CreateSessionResult> results = await(sessionService.createSessions(List.of(createValidTestSession())));
+
+      assertEquals(QosStatus.AVAILABLE, results.getFirst().getSessionInfo().getQosStatus());
+      verify(eventHubService).sendEvents(argThat(sessionInfos -> sessionInfos.size() == 1));
+    } finally {
+      networkConfig.setSupportedEventResourceAllocation(true);
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void testDeleteSessionsForClient_DeviceNetwork_InBatches() {
+    QosSession available = createSessionForDevice("172.24.11.4", QosStatus.AVAILABLE, "subscription-1");
+    QosSession requested = createSessionForDevice("172.24.11.5", QosStatus.REQUESTED, "subscription-2");
+    QosSession otherDevice = createSessionForDevice("10.1.1.1", QosStatus.AVAILABLE, "subscription-3");
+    QosSession withoutSubscription = createSessionForDevice("172.24.11.6", QosStatus.AVAILABLE, null);
+    when(qosSessionRepository.findDeletionCandidates(any(), anyLong(), anyLong()))
+        .thenReturn(Stream.of(available, requested, otherDevice, withoutSubscription));
+    when(qosSessionRepository.deleteBySessionIdIn(any())).thenAnswer(invocation -> (long) invocation.<List<?>>getArgument(0).size());
+
+    int batchSize = qodConfig.getBulkSessionDeletionBatchSize();
+    FieldUtils.writeField(qodConfig, "bulkSessionDeletionBatchSize", 2, true);
+    try {
+      assertEquals(3, await(sessionService.deleteSessionsForClient("172.24.11.0/24", null)));
+    } finally {
+      FieldUtils.writeField(qodConfig, "bulkSessionDeletionBatchSize", batchSize, true);
+    }
+
+    verify(qosSessionRepository).findDeletionCandidates(TokenTestData.TEST_CLIENT_ID, 0, 0xFFFFFFFFL);
+    verify(qosSessionRepository).deleteBySessionIdIn(List.of(available.getSessionId(), requested.getSessionId()));
+    verify(qosSessionRepository).deleteBySessionIdIn(List.of(withoutSubscription.getSessionId()));
+    verify(idempotencyCache).forget(available.getSessionId());
+    verify(idempotencyCache).forget(requested.getSessionId());
+    verify(idempotencyCache).forget(withoutSubscription.getSessionId());
+    verify(idempotencyCache, never()).forget(otherDevice.getSessionId());
+    verify(deleteApi).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), eq("subscription-1"));
+    verify(deleteApi).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), eq("subscription-2"));
+    verify(deleteApi, times(2)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<SessionInfo>> captor = ArgumentCaptor.forClass(List.class);
+    verify(eventHubService, times(2)).sendEvents(captor.capture());
+    List<SessionInfo> events = captor.getAllValues().stream().flatMap(List::stream).toList();
+    assertEquals(List.of(available.getSessionId(), withoutSubscription.getSessionId()),
+        events.stream().map(event -> event.getSessionId().toString()).toList());
+    events.forEach(event -> {
+      assertEquals(QosStatus.UNAVAILABLE, event.getQosStatus());
+      assertEquals(StatusInfo.DELETE_REQUESTED, event.getStatusInfo());
+    });
+  }
+
+  @Test
+  void testDeleteSessionsForClient_ApplicationServerNetwork() {
+    QosSession withConflictKey = createSessionForDevice("172.24.11.4", QosStatus.AVAILABLE, "subscription-1");
+    withConflictKey.setConflictKey(SessionConflictKey.of(withConflictKey));
+    QosSession legacyWithin = createSessionForDevice("172.24.11.5", QosStatus.AVAILABLE, "subscription-2");
+    QosSession legacyOutside = createSessionForDevice("172.24.11.6", QosStatus.AVAILABLE, "subscription-3");
+    legacyOutside.getApplicationServer().setIpv4Address("198.51.101.1");
+    when(qosSessionRepository.findDeletionCandidates(any(), anyLong(), anyLong()))
+        .thenReturn(Stream.of(withConflictKey, legacyWithin, legacyOutside));
+    when(qosSessionRepository.deleteBySessionIdIn(any())).thenAnswer(invocation -> (long) invocation.<List<?>>getArgument(0).size());
+
+    assertEquals(2, await(sessionService.deleteSessionsForClient(null, "198.51.100.0/24")));
+
+    verify(qosSessionRepository).findDeletionCandidates(TokenTestData.TEST_CLIENT_ID, 3325256704L, 3325256959L);
+    verify(qosSessionRepository).deleteBySessionIdIn(List.of(withConflictKey.getSessionId(), legacyWithin.getSessionId()));
+  }
+
+  @Test
+  void testDeleteSessionsForClient_NetworkError_DeletedAnyway() {
+    QosSession qosSession = createSessionForDevice("172.24.11.4", QosStatus.AVAILABLE, "subscription-1");
+    when(qosSessionRepository.findDeletionCandidates(any(), anyLong(), anyLong())).thenReturn(Stream.of(qosSession));
+    when(qosSessionRepository.deleteBySessionIdIn(any())).thenReturn(1L);
+    when(deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any()))
+        .thenReturn(Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null)));
+
+    assertEquals(1, await(sessionService.deleteSessionsForClient(null, null)));
+    verify(eventHubService).sendEvents(any());
+  }
+
+  @Test
+  void testDeleteSessionsForClient_NoClientId() {
+    when(tokenService.retrieveClientId()).thenReturn(null);
+    assertEquals(0, await(sessionService.deleteSessionsForClient(null, null)));
+    verify(qosSessionRepository, never()).findDeletionCandidates(any(), anyLong(), anyLong());
+  }
+
   @Test
   void testCreateSession_InternalServerErrorByNef_500_without_response_body() {
-    doThrow(new HttpClientErrorException(HttpStatusCode.valueOf(500))).when(postApi).scsAsIdSubscriptionsPost(anyString(), any());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any()))
+        .thenReturn(Mono.error(WebClientResponseException.create(500, "Internal Server Error", null, null, null)));
     CreateSession validTestSession = createValidTestSession();
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertEquals("Error while reading the response body of NEF", exception.getMessage());
@@ -410,13 +693,11 @@ class SessionServiceTest {
     }
     byte[] jsonAsBytes = json.getBytes(StandardCharsets.UTF_8);
 
-    HttpClientErrorException httpClientErrorException = new HttpClientErrorException(HttpStatusCode.valueOf(500), "Test Error",
+    WebClientResponseException webClientResponseException = WebClientResponseException.create(500, "Test Error", null,
         jsonAsBytes,
         StandardCharsets.UTF_8);
 
-    doThrow(httpClientErrorException).when(postApi).scsAsIdSubscriptionsPost(anyString(), any());
-
-    doThrow(httpClientErrorException).when(postApi).scsAsIdSubscriptionsPost(anyString(), any());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(Mono.error(webClientResponseException));
     CreateSession validTestSession = createValidTestSession();
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertEquals("NEF/SCEF returned error 500 while calling NEF/SCEF: test error", exception.getMessage());
@@ -441,10 +722,10 @@ class SessionServiceTest {
     }
     byte[] jsonAsBytes = json.getBytes(StandardCharsets.UTF_8);
 
-    HttpClientErrorException httpClientErrorException = new HttpClientErrorException(HttpStatusCode.valueOf(500), "Permanent Failures",
+    WebClientResponseException webClientResponseException = WebClientResponseException.create(500, "Permanent Failures", null,
         jsonAsBytes, StandardCharsets.UTF_8);
 
-    doThrow(httpClientErrorException).when(postApi).scsAsIdSubscriptionsPost(anyString(), any());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(Mono.error(webClientResponseException));
     CreateSession validTestSession = createDefaultTestSessionWithUnknownIpv4();
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertEquals("NEF/SCEF returned error 500 while calling NEF/SCEF: Probably unknown IPv4 address for UE",
@@ -465,10 +746,10 @@ class SessionServiceTest {
     }
     byte[] jsonAsBytes = json.getBytes(StandardCharsets.UTF_8);
 
-    HttpClientErrorException httpClientErrorException = new HttpClientErrorException(HttpStatusCode.valueOf(500), "Permanent Failures",
+    WebClientResponseException webClientResponseException = WebClientResponseException.create(500, "Permanent Failures", null,
         jsonAsBytes, StandardCharsets.UTF_8);
 
-    doThrow(httpClientErrorException).when(postApi).scsAsIdSubscriptionsPost(anyString(), any());
+    when(postApi.scsAsIdSubscriptionsPost(anyString(), any())).thenReturn(Mono.error(webClientResponseException));
     CreateSession validTestSession = createDefaultTestSessionWithUnknownIpv4();
     QodApiException exception = assertThrows(QodApiException.class, () -> createSession(validTestSession));
     assertEquals("NEF/SCEF returned error 500 while calling NEF/SCEF: Just a cause",
@@ -478,7 +759,7 @@ class SessionServiceTest {
 
   @Test
   void testGetSessionInfoById_Ok() {
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
     var retrievedSession = assertDoesNotThrow(() -> sessionService.getSessionInfoById(UUID.fromString(savedSessionId)));
     assertEquals(savedSessionId, retrievedSession.getSessionId().toString());
   }
@@ -491,9 +772,27 @@ class SessionServiceTest {
     assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
   }
 
+  @Test
+  void testDeleteSessionForClient_Ok() {
+    when(qosSessionRepository.findBySessionIdAndClientId(savedSessionId, TokenTestData.TEST_CLIENT_ID))
+        .thenReturn(Optional.of(qosSessionTestData));
+    assertDoesNotThrow(() -> await(sessionService.deleteSessionForClient(UUID.fromString(savedSessionId))));
+    verify(qosSessionRepository, never()).findBySessionId(any());
+    verify(qosSessionRepository, times(1)).deleteBySessionId(savedSessionId);
+    verify(idempotencyCache).forget(savedSessionId);
+    verify(deleteApi, times(1)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), eq(savedSubscriptionId));
+  }
+
+  @Test
+  void testDeleteSessionForClient_NotFound_404() {
+    UUID uuid = UUID.randomUUID();
+    QodApiException exception = assertThrows(QodApiException.class, () -> sessionService.deleteSessionForClient(uuid));
+    assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
+    verify(qosSessionRepository, never()).deleteBySessionId(any());
+  }
+
   @Test
   void testGetSessionInfoListByDevice_WithoutClientId_Ok() {
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(Collections.emptyList());
     var sessionInfoList = assertDoesNotThrow(() -> sessionService.getSessionsByDevice(new Device()
         .ipv4Address(
             new DeviceIpv4Addr().publicAddress(TEST_DEVICE_IPV4_ADDRESS)
@@ -515,7 +814,9 @@ class SessionServiceTest {
     differentDevice.getDevice().getIpv4Address().setPublicAddress("127.0.0.0");
     differentDevice.getApplicationServer().setIpv4Address("120.0.0");
 
-    when(qosSessionRepository.findByDeviceIpv4addr(any())).thenReturn(List.of(session_1, session_2));
+    when(qosSessionRepository.findByDeviceIpv4addrAndClientId(session_1.getDevice().getIpv4Address().getPublicAddress(),
+        TokenTestData.TEST_CLIENT_ID))
+        .thenReturn(List.of(session_1, session_2));
 
     /*Test getSessionsByDevice*/
     Device device = session_1.getDevice();
@@ -529,8 +830,9 @@ class SessionServiceTest {
 
   @Test
   void testDeleteAndNotify() {
-    assertDoesNotThrow(() -> sessionService.deleteAndNotify(savedSessionId, StatusInfo.NETWORK_TERMINATED));
+    assertDoesNotThrow(() -> deleteAndNotify(savedSessionId, StatusInfo.NETWORK_TERMINATED));
     verify(eventHubService, times(1)).sendEvent(any());
+    verify(deleteApi, times(1)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), eq(savedSubscriptionId));
   }
 
   @ParameterizedTest
@@ -540,13 +842,13 @@ class SessionServiceTest {
     assertNotNull(qosSession);
     qosSession.setQosStatus(qosStatus);
     qosSessionRepository.save(qosSession);
-    assertDoesNotThrow(() -> sessionService.deleteAndNotify(savedSessionId, StatusInfo.DELETE_REQUESTED));
+    assertDoesNotThrow(() -> deleteAndNotify(savedSessionId, StatusInfo.DELETE_REQUESTED));
     if (qosStatus == QosStatus.AVAILABLE) {
       verify(eventHubService, times(1)).sendEvent(any());
     } else {
       verify(eventHubService, times(0)).sendEvent(any());
     }
-    verify(deleteApi, times(1)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(any(), any());
+    verify(deleteApi, times(1)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), eq(savedSubscriptionId));
   }
 
   @Test
@@ -556,7 +858,7 @@ class SessionServiceTest {
     assertNotNull(qosSession);
     qosSession.setSubscriptionId(null);
     qosSessionRepository.save(qosSession);
-    assertDoesNotThrow(() -> sessionService.deleteAndNotify(savedSessionId, StatusInfo.DELETE_REQUESTED));
+    assertDoesNotThrow(() -> deleteAndNotify(savedSessionId, StatusInfo.DELETE_REQUESTED));
     verify(deleteApi, times(0)).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(any(), any());
     assertTrue(output.getAll()
         .contains("A corresponding network-subscription for this session does not exist - no network subscription-deletion performed"));
@@ -567,18 +869,19 @@ class SessionServiceTest {
     UUID uuid = UUID.randomUUID();
     when(qosSessionRepository.findBySessionId(any())).thenReturn(Optional.empty());
     QodApiException exception = assertThrows(QodApiException.class,
-        () -> sessionService.deleteAndNotify(uuid.toString(), StatusInfo.DELETE_REQUESTED));
+        () -> deleteAndNotify(uuid.toString(), StatusInfo.DELETE_REQUESTED));
     assertTrue(exception.getMessage().contains("not found"));
     assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
   }
 
   @Test
   void testDeleteSession_ServiceUnavailable_Nef_503() {
-    HttpClientErrorException httpClientErrorException = createHttpClientErrorException(503, "test error");
-    doThrow(httpClientErrorException).when(deleteApi).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any());
+    WebClientResponseException webClientResponseException = createWebClientResponseException(503, "test error");
+    when(deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any()))
+        .thenReturn(Mono.error(webClientResponseException));
     var sessionInfo = createSession(createValidTestSession());
     QodApiException exception = assertThrows(QodApiException.class,
-        () -> sessionService.deleteAndNotify(sessionInfo.getSessionId().toString(), StatusInfo.DELETE_REQUESTED));
+        () -> deleteAndNotify(sessionInfo.getSessionId().toString(), StatusInfo.DELETE_REQUESTED));
     assertTrue(exception.getMessage().contains("test error"));
     assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
   }
@@ -587,21 +890,52 @@ class SessionServiceTest {
   @Test
   @ExtendWith(OutputCaptureExtension.class)
   void testDeleteSession_NotFound_Nef_404(CapturedOutput output) {
-    HttpClientErrorException httpClientErrorException = createHttpClientErrorException(404, "test error");
-    doThrow(httpClientErrorException).when(deleteApi).scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any());
+    WebClientResponseException webClientResponseException = createWebClientResponseException(404, "test error");
+    when(deleteApi.scsAsIdSubscriptionsSubscriptionIdDeleteWithHttpInfo(anyString(), any()))
+        .thenReturn(Mono.error(webClientResponseException));
     var sessionInfo = createSession(createValidTestSession());
-    assertDoesNotThrow(() -> sessionService.deleteAndNotify(sessionInfo.getSessionId().toString(), StatusInfo.DELETE_REQUESTED));
+    assertDoesNotThrow(() -> deleteAndNotify(sessionInfo.getSessionId().toString(), StatusInfo.DELETE_REQUESTED));
     assertTrue(output.getAll().contains("Problem by calling NEF/SCEF (Possibly already deleted by NEF)"));
   }
 
   @Test
   void testExtendSession_Ok() {
     qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
-    OffsetDateTime now = OffsetDateTime.now();
-    qosSessionTestData.setStartedAt(now.format(ISO_DATE_TIME));
-    qosSessionTestData.setExpiresAt(now.plusSeconds(qosSessionTestData.getDuration()).format(ISO_DATE_TIME));
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    Instant now = Instant.now();
+    qosSessionTestData.setStartedAt(now);
+    qosSessionTestData.setExpiresAt(now.plusSeconds(qosSessionTestData.getDuration()));
+    qosSessionTestData.setVersion(3);
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
+    assertDoesNotThrow(() -> sessionService.extendQosSession(UUID.fromString(savedSessionId), 40));
+
+    int newDuration = qosSessionTestData.getDuration() + 40;
+    verify(qosSessionRepository).extend(savedSessionId, 3, newDuration, now.plusSeconds(newDuration));
+    verify(qosSessionRepository, never()).save(any());
+  }
+
+  @Test
+  void testExtendSession_ChangedConcurrently_Repeated() {
+    qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
+    qosSessionTestData.setStartedAt(Instant.now());
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
+    when(qosSessionRepository.extend(any(), anyLong(), anyInt(), any()))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(qosSessionTestData));
+
     assertDoesNotThrow(() -> sessionService.extendQosSession(UUID.fromString(savedSessionId), 40));
+    verify(qosSessionRepository, times(2)).findBySessionIdAndClientId(any(), any());
+  }
+
+  @Test
+  void testExtendSession_ChangedConcurrently_409() {
+    qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
+    qosSessionTestData.setStartedAt(Instant.now());
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
+    when(qosSessionRepository.extend(any(), anyLong(), anyInt(), any())).thenReturn(Optional.empty());
+
+    var sessionId = UUID.fromString(savedSessionId);
+    QodApiException exception = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(sessionId, 40));
+    assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
   }
 
 
@@ -609,7 +943,7 @@ class SessionServiceTest {
   void testExtendSession_InDeletingProcess_404() {
     qosSessionTestData.setScheduledForDeletion(true);
     qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     var qodApiException = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(UUID.fromString(savedSessionId), 40));
     assertEquals("The Quality of Service (QoS) session has reached its expiration, and the deletion process is running.",
@@ -620,7 +954,7 @@ class SessionServiceTest {
   @Test
   void testExtendSession_CurrentStatus_Requested_403() {
     qosSessionTestData.setQosStatus(QosStatus.REQUESTED);
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     QodApiException qodApiException = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(
         UUID.fromString(savedSessionId), 600));
@@ -636,7 +970,7 @@ class SessionServiceTest {
     qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
     qosSessionTestData.setScheduledForDeletion(true);
     qosSessionTestData.setDuration(86300);
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     QodApiException qodApiException = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(
         UUID.fromString(savedSessionId), 600));
@@ -651,8 +985,8 @@ class SessionServiceTest {
   void testExtendSessionToSessionLimit_Ok(CapturedOutput output) {
     qosSessionTestData.setDuration(PROFILE_MAX_DURATION - 1);
     qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
-    qosSessionTestData.setStartedAt(OffsetDateTime.now(ZoneOffset.UTC).format(ISO_DATE_TIME));
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    qosSessionTestData.setStartedAt(Instant.now());
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     assertDoesNotThrow(() -> sessionService.extendQosSession(UUID.fromString(savedSessionId), PROFILE_MAX_DURATION + 2));
     assertTrue(output.getAll()
@@ -663,7 +997,7 @@ class SessionServiceTest {
   void testCreateExtendToLimit_SessionIsAlreadyAtMaxDuration_400() {
     qosSessionTestData.setDuration(PROFILE_MAX_DURATION);
     qosSessionTestData.setQosStatus(QosStatus.AVAILABLE);
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     QodApiException qodApiException = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(
         UUID.fromString(savedSessionId), 600));
@@ -678,7 +1012,7 @@ class SessionServiceTest {
   void testCreateExtendToLimit_CurrentStatus_Unavailable_Conflict() {
     qosSessionTestData.setDuration(82000);
     qosSessionTestData.setQosStatus(QosStatus.UNAVAILABLE);
-    when(qosSessionRepository.findAllByClientId(any())).thenReturn(List.of(qosSessionTestData));
+    when(qosSessionRepository.findBySessionIdAndClientId(any(), any())).thenReturn(Optional.of(qosSessionTestData));
 
     QodApiException qodApiException = assertThrows(QodApiException.class, () -> sessionService.extendQosSession(
         UUID.fromString(savedSessionId), 600));
@@ -699,50 +1033,108 @@ class SessionServiceTest {
     assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
   }
 
+  @Test
+  void testAssignMissingPartitions() {
+    var legacySession = new ExpiringSession(savedSessionId, null, qosSessionTestData.getExpiresAt(), QosStatus.AVAILABLE, false);
+    when(qosSessionRepository.findWithoutPartition()).thenReturn(Stream.of(legacySession));
+
+    sessionService.assignMissingPartitions();
+
+    verify(qosSessionRepository).updatePartition(eq(savedSessionId), anyInt());
+    verify(qosSessionRepository, never()).save(any());
+  }
+
   @Test
   void testGetExpiringQosSessions() {
-    OffsetDateTime now = OffsetDateTime.now();
+    Instant now = Instant.now();
 
     var expiresSoon = createQosSessionTestData();
-    expiresSoon.getDevice().getIpv4Address().setPublicAddress("127.0.0.1");
-    expiresSoon.setQosStatus(QosStatus.AVAILABLE);
-    expiresSoon.setStartedAt(now.format(ISO_DATE_TIME));
-    expiresSoon.setExpiresAt(now.plusSeconds(5).format(ISO_DATE_TIME));
+    expiresSoon.setExpiresAt(now.plusSeconds(5));
 
     final var expiresLater = createQosSessionTestData();
-    expiresLater.getDevice().getIpv4Address().setPublicAddress("127.0.0.2");
-    expiresLater.setQosStatus(QosStatus.AVAILABLE);
-    expiresLater.setDuration(SECONDS_OF_A_DAY);
-    expiresLater.setStartedAt(now.format(ISO_DATE_TIME));
-    expiresLater.setExpiresAt(now.plusDays(1).format(ISO_DATE_TIME));
+    expiresLater.setExpiresAt(now.plus(1, ChronoUnit.DAYS));
 
     final var alreadyScheduledForDeletionInPast = createQosSessionTestData();
-    alreadyScheduledForDeletionInPast.getDevice().getIpv4Address().setPublicAddress("127.0.0.2");
-    alreadyScheduledForDeletionInPast.setQosStatus(QosStatus.AVAILABLE);
-    alreadyScheduledForDeletionInPast.setDuration(SECONDS_OF_A_DAY);
-    alreadyScheduledForDeletionInPast.setStartedAt(now.minusDays(5).format(ISO_DATE_TIME));
-    alreadyScheduledForDeletionInPast.setExpiresAt(now.minusSeconds(10).format(ISO_DATE_TIME));
-    alreadyScheduledForDeletionInPast.setScheduledForDeletion(false);
+    alreadyScheduledForDeletionInPast.setExpiresAt(now.minusSeconds(10));
+    alreadyScheduledForDeletionInPast.setScheduledForDeletion(true);
 
     final var alreadyScheduledForDeletionInFuture = createQosSessionTestData();
-    alreadyScheduledForDeletionInPast.getDevice().getIpv4Address().setPublicAddress("127.0.0.2");
-    alreadyScheduledForDeletionInPast.setQosStatus(QosStatus.AVAILABLE);
-    alreadyScheduledForDeletionInPast.setDuration(SECONDS_OF_A_DAY);
-    alreadyScheduledForDeletionInPast.setStartedAt(now.format(ISO_DATE_TIME));
-    alreadyScheduledForDeletionInPast.setExpiresAt(now.plusDays(10).format(ISO_DATE_TIME));
-    alreadyScheduledForDeletionInPast.setScheduledForDeletion(true);
+    alreadyScheduledForDeletionInFuture.setExpiresAt(now.plusSeconds(5));
+    alreadyScheduledForDeletionInFuture.setScheduledForDeletion(true);
+
+    List<QosSession> storedSessions =
+        List.of(expiresSoon, expiresLater, alreadyScheduledForDeletionInPast, alreadyScheduledForDeletionInFuture);
+
+    /* Evaluate the query conditions on the stored timestamps */
+    when(qosSessionRepository.findExpiringSessions(any(), any(Instant.class), any(Instant.class))).thenAnswer(invocation -> {
+      Instant handlingThreshold = invocation.getArgument(1);
+      Instant currentTime = invocation.getArgument(2);
+      return storedSessions.stream()
+          .filter(session -> session.isScheduledForDeletion()
+              ? session.getExpiresAt().isBefore(currentTime)
+              : session.getExpiresAt().isBefore(handlingThreshold))
+          .map(SessionServiceTest::toExpiringSession);
+    });
+
+    List<ExpiringSession> expiringSessions;
+    try (Stream<ExpiringSession> expiringSessionStream = sessionService.getExpiringQosSessions(Set.of(0))) {
+      expiringSessions = expiringSessionStream.toList();
+    }
+    assertEquals(List.of(toExpiringSession(expiresSoon), toExpiringSession(alreadyScheduledForDeletionInPast)), expiringSessions);
 
-    when(qosSessionRepository.findAll()).thenReturn(
-        List.of(expiresSoon, expiresLater, alreadyScheduledForDeletionInPast, alreadyScheduledForDeletionInFuture));
+    ArgumentCaptor<Instant> handlingThresholdCaptor = ArgumentCaptor.forClass(Instant.class);
+    ArgumentCaptor<Instant> nowCaptor = ArgumentCaptor.forClass(Instant.class);
+    verify(qosSessionRepository).findExpiringSessions(eq(Set.of(0)), handlingThresholdCaptor.capture(), nowCaptor.capture());
+    long handlingWindow = handlingThresholdCaptor.getValue().getEpochSecond() - nowCaptor.getValue().getEpochSecond();
+    assertEquals(qodConfig.getQosExpirationTimeBeforeHandling(), handlingWindow);
+  }
 
-    List<QosSession> expiringSessions = assertDoesNotThrow(() -> sessionService.getExpiringQosSessions());
-    assertEquals(1, expiringSessions.size());
-    assertEquals(expiresSoon.getSessionId(), expiringSessions.getFirst().getSessionId());
+  /**
+   * Returns the session as the only conflict candidate.
+   */
+  private void stubConflictCandidate(QosSession qosSession) {
+    var candidate = new SessionConflictCandidate(qosSession.getSessionId(), qosSession.getDeviceIpv4addr(), qosSession.getExpiresAt(),
+        qosSession.getConflictKey(), qosSession.getApplicationServer(), qosSession.getDevicePorts(), qosSession.getApplicationServerPorts());
+    when(qosSessionRepository.findConflictCandidates(any(), anyLong(), anyLong())).thenReturn(List.of(candidate));
+  }
+
+  private static CreateSession createTestSessionForDevice(String ipv4Address) {
+    return createValidTestSession().device(new Device().ipv4Address(new DeviceIpv4Addr().publicAddress(ipv4Address)));
+  }
+
+  private static QosSession createSessionForDevice(String ipv4Address, QosStatus qosStatus, String subscriptionId) {
+    QosSession qosSession = createQosSessionTestData();
+    qosSession.setDeviceIpv4addr(ipv4Address);
+    qosSession.setQosStatus(qosStatus);
+    qosSession.setSubscriptionId(subscriptionId);
+    return qosSession;
+  }
+
+  private static ExpiringSession toExpiringSession(QosSession qosSession) {
+    return new ExpiringSession(qosSession.getSessionId(), qosSession.getPartition(), qosSession.getExpiresAt(), qosSession.getQosStatus(),
+        qosSession.isScheduledForDeletion());
   }
 
   private SessionInfo createSession(CreateSession createSession) {
-    var sessionInfo = sessionService.createSession(createSession, true);
+    var sessionInfo = await(sessionService.createSession(createSession, true));
     assertNotNull(sessionInfo);
     return sessionInfo;
   }
+
+  private void deleteAndNotify(String sessionId, StatusInfo statusInfo) {
+    await(sessionService.deleteAndNotify(sessionId, statusInfo));
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  private void publishQosProfiles(List<QosProfile> qosProfiles) {
+    when(qosProfileRepository.findAll()).thenReturn(qosProfiles);
+    qosProfileService.refreshCatalog();
+  }
 }
@@ -0,0 +1,164 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.camara.config.AppConfig;
+import com.camara.config.QodConfig;
+import com.camara.entity.QosSession;
+import com.camara.repository.QosSessionRepository;
+import com.camara.repository.QosSessionRepositoryCustom.MigrationBatch;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+@ExtendWith(MockitoExtension.class)
+class SessionTimestampMigrationTest {
+
+  private static final int BATCH_SIZE = 2;
+  private static final long RECHECK_INTERVAL_IN_SECONDS = 300;
+
+  @Mock
+  private QosSessionRepository sessionRepository;
+
+  private SessionTimestampMigration migration;
+
+  @BeforeEach
+  void setUp() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setSessionTimestampMigrationBatchSize(BATCH_SIZE);
+    /* batches are triggered by the tests */
+    qodConfig.setSessionTimestampMigrationBatchIntervalInMillis(3_600_000);
+    qodConfig.setSessionTimestampMigrationRecheckIntervalInSeconds(RECHECK_INTERVAL_IN_SECONDS);
+    migration = new SessionTimestampMigration(qodConfig, sessionRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    migration.shutdown();
+  }
+
+  @Test
+  void testMigrateBatch_ContinuesAfterLastScannedSession() {
+    ObjectId firstBatchEnd = new ObjectId();
+    when(sessionRepository.convertLegacyTimestamps(null, BATCH_SIZE))
+        .thenReturn(new MigrationBatch(firstBatchEnd, 2, 2, 2))
+        .thenReturn(new MigrationBatch(null, 0, 0, 0));
+    when(sessionRepository.convertLegacyTimestamps(eq(firstBatchEnd), eq(BATCH_SIZE)))
+        .thenReturn(new MigrationBatch(firstBatchEnd, 0, 0, 0));
+
+    assertTrue(migration.migrateBatch());
+    assertTrue(migration.migrateBatch());
+    assertFalse(migration.migrateBatch());
+    verify(sessionRepository).convertLegacyTimestamps(firstBatchEnd, BATCH_SIZE);
+    verify(sessionRepository, times(2)).convertLegacyTimestamps(null, BATCH_SIZE);
+  }
+
+  @Test
+  void testMigrateBatch_RescansSessionsSkippedByConcurrentWrite() {
+    ObjectId firstPassEnd = new ObjectId();
+    ObjectId secondPassEnd = new ObjectId();
+    when(sessionRepository.convertLegacyTimestamps(null, BATCH_SIZE))
+        /* a concurrent write changed one of the sessions, its conditional update did not apply */
+        .thenReturn(new MigrationBatch(firstPassEnd, 2, 2, 1))
+        /* the session was written with string timestamps again */
+        .thenReturn(new MigrationBatch(secondPassEnd, 1, 1, 1))
+        .thenReturn(new MigrationBatch(null, 0, 0, 0));
+    when(sessionRepository.convertLegacyTimestamps(eq(firstPassEnd), eq(BATCH_SIZE))).thenReturn(new MigrationBatch(firstPassEnd, 0, 0, 0));
+    when(sessionRepository.convertLegacyTimestamps(eq(secondPassEnd), eq(BATCH_SIZE)))
+        .thenReturn(new MigrationBatch(secondPassEnd, 0, 0, 0));
+
+    assertTrue(migration.migrateBatch());
+    assertTrue(migration.migrateBatch());
+    assertTrue(migration.migrateBatch());
+    assertTrue(migration.migrateBatch());
+    assertFalse(migration.migrateBatch());
+    verify(sessionRepository, times(3)).convertLegacyTimestamps(null, BATCH_SIZE);
+  }
+
+  @Test
+  void testMigrateBatch_StopsAfterPassWithOnlyInvalidTimestamps() {
+    ObjectId passEnd = new ObjectId();
+    when(sessionRepository.convertLegacyTimestamps(null, BATCH_SIZE)).thenReturn(new MigrationBatch(passEnd, 1, 0, 0));
+    when(sessionRepository.convertLegacyTimestamps(eq(passEnd), eq(BATCH_SIZE))).thenReturn(new MigrationBatch(passEnd, 0, 0, 0));
+
+    assertTrue(migration.migrateBatch());
+    assertFalse(migration.migrateBatch());
+  }
+
+  @Test
+  void testRunBatch_RechecksAfterCleanPass() {
+    ObjectId passEnd = new ObjectId();
+    when(sessionRepository.convertLegacyTimestamps(null, BATCH_SIZE))
+        .thenReturn(new MigrationBatch(null, 0, 0, 0))
+        /* a node of the previous version stored a session with string timestamps after the clean pass */
+        .thenReturn(new MigrationBatch(passEnd, 1, 1, 1));
+
+    assertEquals(TimeUnit.SECONDS.toMillis(RECHECK_INTERVAL_IN_SECONDS), migration.runBatch());
+    assertEquals(3_600_000, migration.runBatch());
+    verify(sessionRepository, times(2)).convertLegacyTimestamps(null, BATCH_SIZE);
+  }
+
+  @Test
+  void testRunBatch_RetriesAfterError() {
+    when(sessionRepository.convertLegacyTimestamps(null, BATCH_SIZE)).thenThrow(new IllegalStateException("Database unavailable"));
+
+    assertEquals(3_600_000, migration.runBatch());
+  }
+
+  @Test
+  void testLegacyTimestampsAreReadable() {
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(new AppConfig().mongoCustomConversions());
+    converter.afterPropertiesSet();
+
+    Instant expiresAt = Instant.parse("2025-01-01T12:00:00Z");
+    QosSession legacySession = converter.read(QosSession.class, new Document("startedAt", "2025-01-01T13:00:00+02:00")
+        .append("expiresAt", "2025-01-01T12:00:00Z"));
+    QosSession migratedSession = converter.read(QosSession.class, new Document("expiresAt", Date.from(expiresAt)));
+
+    assertEquals(Instant.parse("2025-01-01T11:00:00Z"), legacySession.getStartedAt());
+    assertEquals(expiresAt, legacySession.getExpiresAt());
+    assertEquals(expiresAt, migratedSession.getExpiresAt());
+  }
+}
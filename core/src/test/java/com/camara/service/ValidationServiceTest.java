@@ -40,6 +40,7 @@ import com.camara.exception.QodApiException;
 import com.camara.mapping.DeviceMapper;
 import com.camara.model.SupportedQosProfiles;
 import com.camara.quality_on_demand.api.model.CreateSession;
+import com.camara.quality_on_demand.api.model.DeleteSessionsInput;
 import com.camara.quality_on_demand.api.model.DeviceIpv4Addr;
 import com.camara.quality_on_demand.api.model.PlainCredential;
 import com.camara.quality_on_demand.api.model.RetrieveSessionsInput;
@@ -185,6 +186,23 @@ class ValidationServiceTest {
         + "10.0.0.0/8 is not allowed, but 10.0.0.0 is allowed.", qodApiException.getMessage());
   }
 
+  @Test
+  void testValidateDeleteSessions_Ok() {
+    assertDoesNotThrow(() -> validationService.validate(new DeleteSessionsInput()));
+    assertDoesNotThrow(() -> validationService.validate(new DeleteSessionsInput()
+        .deviceIpv4Network("172.24.11.4")
+        .applicationServerIpv4Network("198.51.100.0/24")));
+  }
+
+  @Test
+  void testValidateDeleteSessions_BadRequest_InvalidNetwork_400() {
+    QodApiException qodApiException = assertThrows(QodApiException.class,
+        () -> validationService.validate(new DeleteSessionsInput().applicationServerIpv4Network("198.51.100.0/33")));
+    assertEquals(HttpStatus.BAD_REQUEST, qodApiException.getHttpStatus());
+    assertEquals(ErrorCode.VALIDATION_FAILED.name(), qodApiException.getErrorCode());
+    assertEquals("Network specification for applicationServerIpv4Network not valid: <198.51.100.0/33>", qodApiException.getMessage());
+  }
+
   @Test
   @SneakyThrows
   void testValidateCreateSession_BadRequest_InvalidSink_400() {
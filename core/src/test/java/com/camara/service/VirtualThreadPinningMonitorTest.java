@@ -0,0 +1,84 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package com.camara.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.camara.config.QodConfig;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadPinningMonitorTest {
+
+  private final Object lock = new Object();
+  private final AtomicBoolean pinning = new AtomicBoolean(true);
+  private SimpleMeterRegistry meterRegistry;
+  private VirtualThreadPinningMonitor pinningMonitor;
+
+  @BeforeEach
+  void setUp() {
+    QodConfig qodConfig = new QodConfig();
+    qodConfig.setVirtualThreadsPinnedThresholdMillis(10);
+    meterRegistry = new SimpleMeterRegistry();
+    pinningMonitor = new VirtualThreadPinningMonitor(qodConfig, meterRegistry);
+    pinningMonitor.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    pinning.set(false);
+    pinningMonitor.stop();
+  }
+
+  @Test
+  void testPinnedVirtualThreadIsReported() {
+    Thread.ofVirtual().start(() -> {
+      while (pinning.get()) {
+        sleepInsideMonitor();
+      }
+    });
+
+    Awaitility.await().atMost(10, TimeUnit.SECONDS)
+        .until(() -> !meterRegistry.find("qod.threads.virtual.pinned").timers().isEmpty());
+    Timer timer = meterRegistry.get("qod.threads.virtual.pinned").timer();
+    assertTrue(timer.count() > 0);
+    assertTrue(timer.getId().getTag("location").startsWith(VirtualThreadPinningMonitorTest.class.getName()));
+  }
+
+  private void sleepInsideMonitor() {
+    synchronized (lock) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*-
+ * ---license-start
+ * CAMARA Project
+ * ---
+ * Copyright (C) 2022 - 2025 Contributors | Deutsche Telekom AG to CAMARA a Series of LF Projects, LLC
+ *
+ * The contributor of this file confirms his sign-off for the Developer Certificate of Origin
+ *             (https://developercertificate.org).
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+package com.camara.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.camara.model.EncodedCloudEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class CloudEventEncoderTest {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  @SneakyThrows
+  void testEncode() {
+    CloudEvent cloudEvent = createTestCloudEvent("1", "{\"sessionId\":\"3fa85f64\",\"statusInfo\":\"DURATION_EXPIRED\"}");
+
+    EncodedCloudEvent encodedEvent = CloudEventEncoder.encode(cloudEvent);
+
+    JsonNode json = objectMapper.readTree(encodedEvent.getJson());
+    assertEquals("1", encodedEvent.getId());
+    assertEquals("1", json.get("id").asText());
+    assertEquals("http://localhost/sessions/3fa85f64", json.get("source").asText());
+    assertEquals("application/json", json.get("datacontenttype").asText());
+    assertEquals("1.0", json.get("specversion").asText());
+    assertEquals("2024-01-01T12:00Z", json.get("time").asText());
+    assertEquals("DURATION_EXPIRED", json.get("data").get("statusInfo").asText());
+    assertEquals(new String(encodedEvent.getJson(), StandardCharsets.UTF_8), encodedEvent.toString());
+  }
+
+  @Test
+  @SneakyThrows
+  void testEncode_WithoutData() {
+    EncodedCloudEvent encodedEvent = CloudEventEncoder.encode(createTestCloudEvent("1", null));
+
+    assertTrue(objectMapper.readTree(encodedEvent.getJson()).get("data").isNull());
+  }
+
+  @Test
+  @SneakyThrows
+  void testEncodeBatch() {
+    List<EncodedCloudEvent> encodedEvents = List.of(
+        CloudEventEncoder.encode(createTestCloudEvent("1", "{}")),
+        CloudEventEncoder.encode(createTestCloudEvent("2", "{}")));
+
+    JsonNode json = objectMapper.readTree(CloudEventEncoder.encodeBatch(encodedEvents));
+
+    assertEquals(2, json.size());
+    assertEquals("2", json.get(1).get("id").asText());
+  }
+
+  private static CloudEvent createTestCloudEvent(String id, String data) {
+    CloudEventBuilder builder = CloudEventBuilder.v1()
+        .withId(id)
+        .withSubject("")
+        .withType("org.camaraproject.quality-on-demand.v0.qos-status-changed")
+        .withSource(URI.create("http://localhost/sessions/3fa85f64"))
+        .withTime(OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+        .withDataContentType("application/json");
+    if (data != null) {
+      builder.withData(data.getBytes(StandardCharsets.UTF_8));
+    }
+    return builder.build();
+  }
+}
@@ -23,7 +23,6 @@
 
 package com.camara.util;
 
-import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
 
 import com.camara.entity.QosSession;
 import com.camara.model.SupportedQosProfiles;
@@ -37,8 +36,8 @@ import com.camara.quality_on_demand.api.model.PortsSpecRangesInner;
 import com.camara.quality_on_demand.api.model.QosStatus;
 import com.camara.quality_on_demand.api.model.RetrieveSessionsInput;
 import com.camara.quality_on_demand.api.model.SessionInfo;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -50,6 +49,8 @@ public class SessionsTestData extends TestData {
 
   public static final String QOD_SESSIONS_URI = "/quality-on-demand/v0.11/sessions";
   public static final String QOD_SESSIONS_RETRIEVE_URI = "/quality-on-demand/v0.11/retrieve-sessions";
+  public static final String QOD_SESSIONS_CREATE_URI = "/quality-on-demand/v0.11/create-sessions";
+  public static final String QOD_SESSIONS_DELETE_URI = "/quality-on-demand/v0.11/delete-sessions";
   public static final int DURATION_DEFAULT = 10;
   public static final String SESSION_UUID = "000ab9f5-26e8-48b9-a56e-52ecdeaa9172";
   public static final String TEST_DEVICE_IPV4_ADDRESS = "172.24.11.4";
@@ -159,7 +160,7 @@ public class SessionsTestData extends TestData {
         .applicationServerPorts(new PortsSpec().ports(List.of(5021, 5022)).ranges(List.of(new PortsSpecRangesInner().from(5010).to(5020))))
         .qosProfile(SupportedQosProfiles.QOS_L.name())
         .qosStatus(QosStatus.REQUESTED)
-        .expiresAt(OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).format(ISO_DATE_TIME))
+        .expiresAt(Instant.now().truncatedTo(ChronoUnit.SECONDS).plus(1, ChronoUnit.DAYS))
         .subscriptionId("subscrId123")
         .sink(TEST_SINK)
         .clientId(TokenTestData.TEST_CLIENT_ID)
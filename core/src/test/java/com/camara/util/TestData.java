@@ -31,12 +31,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.nio.charset.StandardCharsets;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.mock.web.MockHttpServletRequest;
-import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 /**
  * test data class.
@@ -63,13 +62,13 @@ public abstract class TestData {
   }
 
   /**
-   * Creates a {@link HttpClientErrorException}.
+   * Creates a {@link WebClientResponseException}.
    *
    * @param status       the status
    * @param errorMessage the error message
    * @return the exception
    */
-  public static HttpClientErrorException createHttpClientErrorException(int status, String errorMessage) {
+  public static WebClientResponseException createWebClientResponseException(int status, String errorMessage) {
     ProblemDetails problemDetails = new ProblemDetails();
     problemDetails.setDetail(errorMessage);
     problemDetails.setStatus(status);
@@ -81,7 +80,6 @@ public abstract class TestData {
     }
     byte[] jsonAsBytes = json.getBytes(StandardCharsets.UTF_8);
 
-    return HttpClientErrorException.create(HttpStatusCode.valueOf(status), errorMessage, new HttpHeaders(), jsonAsBytes,
-        StandardCharsets.UTF_8);
+    return WebClientResponseException.create(status, errorMessage, new HttpHeaders(), jsonAsBytes, StandardCharsets.UTF_8);
   }
 }